@@ -2,7 +2,9 @@ package com.mikhail.tarasevich;
 
 import com.google.inject.Inject;
 import com.mikhail.tarasevich.dao.CourseDao;
+import com.mikhail.tarasevich.dao.CrudPageableDao;
 import com.mikhail.tarasevich.dao.GroupDao;
+import com.mikhail.tarasevich.dao.Page;
 import com.mikhail.tarasevich.dao.StudentDao;
 import com.mikhail.tarasevich.entity.Course;
 import com.mikhail.tarasevich.entity.Group;
@@ -15,6 +17,7 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 public class FrontController {
 
@@ -41,7 +44,6 @@ public class FrontController {
         LOG.debug("Method startMenu(int {}) has been called", itemsPerPage);
 
         int chooser;
-        int pages;
 
         System.out.println("\nPress 0 to exit;\n" +
                 "Press 1 to find students by their first name;\n" +
@@ -71,20 +73,17 @@ public class FrontController {
                 break;
 
             case 2:
-                pages = (int) Math.ceil((double) studentDao.count() / (double) itemsPerPage);
-                findAllStudents(pages, itemsPerPage);
+                findAllStudents(itemsPerPage);
                 returnToMenu(itemsPerPage);
                 break;
 
             case 3:
-                pages = (int) Math.ceil((double) courseDao.count() / (double) itemsPerPage);
-                findAllCourses(pages, itemsPerPage);
+                findAllCourses(itemsPerPage);
                 returnToMenu(itemsPerPage);
                 break;
 
             case 4:
-                pages = (int) Math.ceil((double) groupDao.count() / (double) itemsPerPage);
-                findAllGroups(pages, itemsPerPage);
+                findAllGroups(itemsPerPage);
                 returnToMenu(itemsPerPage);
                 break;
 
@@ -156,47 +155,43 @@ public class FrontController {
         LOG.debug("Method findStudentsByName() finished successfully. Found students: {}", students);
     }
 
-    private void findAllStudents(int pages, int itemsPerPage) {
-        LOG.debug("Method findAllStudents(int {}, int {}) was called", pages, itemsPerPage);
-        System.out.println("\nPlease, type a page number from 1 to " + pages + ":");
-        int pageNumber = consoleReader.readInt();
-        if (pageNumber <= 0 || pageNumber > pages) {
-            System.out.println("You typed an incorrect page number, please, try again\n");
-            return;
-        }
-        List<Student> students = studentDao.findAll(pageNumber - 1, itemsPerPage);
-        System.out.println(entityViewProvider.provideStudentTableView(students));
-        LOG.debug("Printed all students from a page {}, students per page = {}. Found students: {}",
-                pageNumber, itemsPerPage, students);
+    private void findAllStudents(int itemsPerPage) {
+        LOG.debug("Method findAllStudents(int {}) was called", itemsPerPage);
+        showPages(studentDao, entityViewProvider::provideStudentTableView, itemsPerPage);
+        LOG.debug("Method findAllStudents(int {}) finished successfully", itemsPerPage);
     }
 
-    private void findAllCourses(int pages, int itemsPerPage) {
-        LOG.debug("Method findAllCourses(int {}, int {}) was called", pages, itemsPerPage);
-        System.out.println("\nPlease, type a page number from 1 to " + pages + ":");
-        int pageNumber = consoleReader.readInt();
-        if (pageNumber <= 0 || pageNumber > pages) {
-            System.out.println("You typed an incorrect page number, please, try again\n");
-            return;
-        }
-        List<Course> courses = courseDao.findAll(pageNumber - 1, itemsPerPage);
-        System.out.println(entityViewProvider.provideCourseTableView(courses));
-        LOG.debug("Printed all courses from page {}, students per page = {}. Found courses: {}",
-                pageNumber, itemsPerPage, courses);
+    private void findAllCourses(int itemsPerPage) {
+        LOG.debug("Method findAllCourses(int {}) was called", itemsPerPage);
+        showPages(courseDao, entityViewProvider::provideCourseTableView, itemsPerPage);
+        LOG.debug("Method findAllCourses(int {}) finished successfully", itemsPerPage);
+    }
 
+    private void findAllGroups(int itemsPerPage) {
+        LOG.debug("Method findAllGroups(int {}) has been called", itemsPerPage);
+        showPages(groupDao, entityViewProvider::provideGroupTableView, itemsPerPage);
+        LOG.debug("Method findAllGroups(int {}) finished successfully", itemsPerPage);
     }
 
-    private void findAllGroups(int pages, int itemsPerPage) {
-        LOG.debug("Method findAllGroups(int {}, int {}) has been called", pages, itemsPerPage);
-        System.out.println("\nPlease, type a page number from 1 to " + pages + ":");
-        int pageNumber = consoleReader.readInt();
-        if (pageNumber <= 0 || pageNumber > pages) {
-            System.out.println("You typed an incorrect page number, please, try again\n");
+    private <E> void showPages(CrudPageableDao<E> dao, Function<List<E>, String> tableView, int itemsPerPage) {
+        int pageNumber = 1;
+        Page<E> page = dao.findPage(0, itemsPerPage);
+        int pages = (int) Math.ceil((double) page.getTotalCount() / (double) itemsPerPage);
+        if (page.getContent().isEmpty()) {
+            System.out.println("There is nothing to show\n");
             return;
         }
-        List<Group> groups = groupDao.findAll(pageNumber - 1, itemsPerPage);
-        System.out.println(entityViewProvider.provideGroupTableView(groups));
-        LOG.debug("Printed all groups from page {}, students per page = {}. Found groups: {}",
-                pageNumber, itemsPerPage, groups);
+        System.out.println("\nPage " + pageNumber + " of " + pages + ":\n" + tableView.apply(page.getContent()));
+        while (page.hasNext()) {
+            System.out.println("Press 1 to see the next page or any other number to return to the menu:");
+            if (consoleReader.readInt() != 1) {
+                return;
+            }
+            page = dao.findPageAfter(page.getNextPageToken(), itemsPerPage);
+            pageNumber++;
+            LOG.debug("Page {} was found: {}", pageNumber, page);
+            System.out.println("\nPage " + pageNumber + " of " + pages + ":\n" + tableView.apply(page.getContent()));
+        }
     }
 
     private void saveStudent() {
@@ -220,7 +215,7 @@ public class FrontController {
         System.out.println("\nPlease, type the group id. Choose the group id from the list:\n" +
                 entityViewProvider.provideGroupTableView(groupDao.findAll()));
         int groupId = consoleReader.readInt();
-        if (!(groupId >= 1 && groupId <= groupDao.count())) {
+        if (!groupDao.existsById(groupId)) {
             System.out.println("You typed an incorrect group id, please, try again to make a student\n");
             return makeNewStudent();
         }
@@ -245,15 +240,14 @@ public class FrontController {
             student = optionalStudent.get();
         } else {
             LOG.debug("Student with id = {} doesn't exist!", studentId);
-            System.out.println("The student doesn't exist! Please, choose another student id (From 1 to " +
-                    studentDao.count() + ")\n");
+            System.out.println("The student doesn't exist! Please, choose another student id\n");
             addStudentToGroup();
             return;
         }
         System.out.println("\nPlease, type new student's group id. Choose the group id from the list:\n" +
                 entityViewProvider.provideGroupTableView(groupDao.findAll()));
         int groupId = consoleReader.readInt();
-        if (!(groupId >= 1 && groupId <= groupDao.count())) {
+        if (!groupDao.existsById(groupId)) {
             LOG.debug("Group with id = {} doesn't exist!", groupId);
             System.out.println("You typed an incorrect group id, please, try again\n");
             addStudentToGroup();
@@ -276,25 +270,26 @@ public class FrontController {
         LOG.debug("Method subscribeStudentToCourse() was called");
         System.out.println("Which student do you want to subscribe to the course? Please, type the student id: \n");
         int studentId = consoleReader.readInt();
-        if (!studentDao.findById(studentId).isPresent()) {
+        if (!studentDao.existsById(studentId)) {
             LOG.debug("Student with id = {} doesn't exist!", studentId);
             System.out.println("The student doesn't exist! Please, choose another student id\n");
             subscribeStudentToCourse();
             return;
         }
+        List<Course> courses = courseDao.findAll();
         System.out.println("\nPlease, type new student's course id. Choose the course id from the list:\n" +
-                entityViewProvider.provideCourseTableView(courseDao.findAll()));
+                entityViewProvider.provideCourseTableView(courses));
         int courseId = consoleReader.readInt();
-        Optional<Course> optionalCourse = courseDao.findById(courseId);
-        if (!optionalCourse.isPresent() || courseDao.findCoursesByStudentId(studentId).contains(optionalCourse.get())) {
-            LOG.debug("Incorrect course id = {} or student already subscribed on this course", courseId);
-            System.out.println("You typed an incorrect course id or these student already been subscribed " +
-                    "to this course, please, try again\n");
+        if (!courseDao.existsById(courseId)) {
+            LOG.debug("Incorrect course id = {}", courseId);
+            System.out.println("You typed an incorrect course id, please, try again\n");
             subscribeStudentToCourse();
-        } else {
-            studentDao.subscribeStudentToCourse(studentId, courseId);
+        } else if (studentDao.subscribeStudentToCourseIfAbsent(studentId, courseId)) {
             System.out.println("The student has been subscribed to the course\n");
             LOG.debug("Method subscribeStudentToCourse() finished successfully");
+        } else {
+            LOG.debug("Student with id = {} already subscribed on course with id = {}", studentId, courseId);
+            System.out.println("The student has already been subscribed to this course\n");
         }
     }
 
@@ -302,7 +297,7 @@ public class FrontController {
         LOG.debug("Method deleteStudent() was called");
         System.out.println("Which student do you want to delete? Please, type the student id: \n");
         int studentId = consoleReader.readInt();
-        if (!studentDao.findById(studentId).isPresent()) {
+        if (!studentDao.existsById(studentId)) {
             LOG.debug("Student with id = {} doesn't exist!", studentId);
             System.out.println("The student doesn't exist! Please, choose another student id\n");
             deleteStudent();
@@ -318,7 +313,7 @@ public class FrontController {
         LOG.debug("Method removeStudentFromGroup() was called");
         System.out.println("Which student do you want to delete from the group? Please, type the student id: \n");
         int studentId = consoleReader.readInt();
-        if (!studentDao.findById(studentId).isPresent()) {
+        if (!studentDao.existsById(studentId)) {
             LOG.debug("Student with id = {} doesn't exist!", studentId);
             System.out.println("The student doesn't exist! Please, choose another student id\n");
             removeStudentFromGroup();
@@ -346,14 +341,13 @@ public class FrontController {
                 entityViewProvider.provideCourseTableView(student.get().getCoursesList()) +
                 "Please, type the course id: \n");
         int courseId = consoleReader.readInt();
-        Optional<Course> optionalCourse = courseDao.findById(courseId);
-        if (!optionalCourse.isPresent()) {
+        if (!courseDao.existsById(courseId)) {
             LOG.debug("Course with id = {} doesn't exist!", courseId);
             System.out.println("Course with this id doesn't exist! Please, try again.\n");
             removeStudentFromCourse();
             return;
         }
-        if (!student.get().getCoursesList().contains(optionalCourse.get())) {
+        if (student.get().getCoursesList().stream().noneMatch(course -> course.getId() == courseId)) {
             LOG.debug("Course with id = {} doesn't relate to student!", courseId);
             System.out.println("Course with this id doesn't relate to student! Please, try again.\n");
             removeStudentFromCourse();
@@ -388,9 +382,13 @@ public class FrontController {
                 entityViewProvider.provideCourseTableView(courses) +
                 "Please, type the course id: \n");
         int courseId = consoleReader.readInt();
-        Optional<Course> optionalCourse = courseDao.findById(courseId);
+        if (!courseDao.existsById(courseId)) {
+            LOG.debug("Course with id = {} doesn't exist!", courseId);
+            System.out.println("Course with this id doesn't exist!\n");
+            return;
+        }
         List<Student> students = studentDao.findStudentsRelatedToCourse(courseId);
-        if (students.isEmpty() || optionalCourse.isPresent()) {
+        if (students.isEmpty()) {
             LOG.debug("Nobody from students not subscribed on the course with id = {}!", courseId);
             System.out.println("No students is subscribed to the course with id = " + courseId);
             return;
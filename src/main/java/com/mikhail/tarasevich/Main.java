@@ -4,22 +4,32 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.mikhail.tarasevich.configuration.guice.ApplicationModule;
 import com.mikhail.tarasevich.dao.ScriptRunner;
+import com.mikhail.tarasevich.dao.StudentDao;
 import com.mikhail.tarasevich.dao.impl.*;
 import com.mikhail.tarasevich.uploader.DataSourceUploader;
+import com.mikhail.tarasevich.uploader.StageStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
 
 public class Main {
 
+    private static final Logger LOG = LoggerFactory.getLogger(Main.class);
+
     //Constants
     private static final String SCRIPT_FILE_PATH = "src/main/resources/sql/schema.SQL";
     private static final int GENERATE_GROUP_QUANTITY = 3;
     private static final int GENERATE_STUDENT_QUANTITY = 30;
     private static final int ITEMS_PER_PAGE = 10;
+    private static final String PIPELINED_UPLOAD_ARG = "--pipelined";
 
     //Guice injectors
     private static final Injector guice = Guice.createInjector(new ApplicationModule());
 
     //DAO classes
     private static final ScriptRunner scriptRunner = guice.getInstance(ScriptRunnerImpl.class);
+    private static final StudentDao studentDao = guice.getInstance(StudentDao.class);
 
     //Factories
     private static final DataSourceUploader dataSourceUploader = guice.getInstance(DataSourceUploader.class);
@@ -29,11 +39,22 @@ public class Main {
 
     public static void main(String[] args) {
 
+        //queued enrollment and group changes are written before the JVM exits, the flusher is a daemon thread
+        Runtime.getRuntime().addShutdownHook(new Thread(studentDao::closeWrites, "student-writes-closer"));
+
         //ScriptRunner - create empty structure of database
         scriptRunner.runScript(SCRIPT_FILE_PATH);
 
         //DataSourceUploader - fill database tables with random data. (Courses quantity is ten and it is constanta)
-        dataSourceUploader.uploadRandomDataToDB(GENERATE_GROUP_QUANTITY, GENERATE_STUDENT_QUANTITY);
+        //with --pipelined the data is generated and written in parallel stages, their statistics are logged
+        if (Arrays.asList(args).contains(PIPELINED_UPLOAD_ARG)) {
+            for (StageStatistics statistics : dataSourceUploader.uploadRandomDataToDBPipelined(
+                    GENERATE_GROUP_QUANTITY, GENERATE_STUDENT_QUANTITY)) {
+                LOG.info("Random data upload stage finished. {}", statistics);
+            }
+        } else {
+            dataSourceUploader.uploadRandomDataToDB(GENERATE_GROUP_QUANTITY, GENERATE_STUDENT_QUANTITY);
+        }
 
         //FromController - entry point to the application
         frontController.startMenu(ITEMS_PER_PAGE);
@@ -0,0 +1,22 @@
+package com.mikhail.tarasevich.cache;
+
+public interface Cache<K, V> {
+
+    // returns null if there is no live value for the key
+    V get(K key);
+
+    // changes on every invalidation, read it before loading a value from DB
+    long version();
+
+    // skips the put if anything was invalidated after the version was read, so a stale load can't be cached
+    boolean putIfNotInvalidated(K key, V value, long version);
+
+    void invalidate(K key);
+
+    void invalidateAll();
+
+    int size();
+
+    CacheStatistics getStatistics();
+
+}
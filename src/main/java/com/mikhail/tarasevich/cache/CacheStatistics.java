@@ -0,0 +1,59 @@
+package com.mikhail.tarasevich.cache;
+
+import java.util.Objects;
+
+public class CacheStatistics {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+
+    public CacheStatistics(long hitCount, long missCount, long evictionCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public double hitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CacheStatistics)) return false;
+        CacheStatistics that = (CacheStatistics) o;
+        return getHitCount() == that.getHitCount() &&
+                getMissCount() == that.getMissCount() &&
+                getEvictionCount() == that.getEvictionCount();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getHitCount(), getMissCount(), getEvictionCount());
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics{" +
+                "hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                ", hitRate=" + hitRate() +
+                '}';
+    }
+
+}
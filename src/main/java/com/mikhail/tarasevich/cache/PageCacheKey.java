@@ -0,0 +1,69 @@
+package com.mikhail.tarasevich.cache;
+
+import java.util.Objects;
+
+/**
+ * Identifies a cached page of one DAO. The table version is a part of the key,
+ * so pages loaded before a write to the table are never found again and age out of the cache.
+ */
+public class PageCacheKey {
+
+    public enum PageType {
+        OFFSET, OFFSET_WITH_TOTAL, AFTER_ID
+    }
+
+    private final PageType pageType;
+    private final int position;
+    private final int itemsPerPage;
+    private final long tableVersion;
+
+    public PageCacheKey(PageType pageType, int position, int itemsPerPage, long tableVersion) {
+        this.pageType = pageType;
+        this.position = position;
+        this.itemsPerPage = itemsPerPage;
+        this.tableVersion = tableVersion;
+    }
+
+    public PageType getPageType() {
+        return pageType;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public int getItemsPerPage() {
+        return itemsPerPage;
+    }
+
+    public long getTableVersion() {
+        return tableVersion;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PageCacheKey)) return false;
+        PageCacheKey that = (PageCacheKey) o;
+        return getPosition() == that.getPosition() &&
+                getItemsPerPage() == that.getItemsPerPage() &&
+                getTableVersion() == that.getTableVersion() &&
+                getPageType() == that.getPageType();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getPageType(), getPosition(), getItemsPerPage(), getTableVersion());
+    }
+
+    @Override
+    public String toString() {
+        return "PageCacheKey{" +
+                "pageType=" + pageType +
+                ", position=" + position +
+                ", itemsPerPage=" + itemsPerPage +
+                ", tableVersion=" + tableVersion +
+                '}';
+    }
+
+}
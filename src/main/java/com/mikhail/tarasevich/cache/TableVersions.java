@@ -0,0 +1,10 @@
+package com.mikhail.tarasevich.cache;
+
+public interface TableVersions {
+
+    long version(String table);
+
+    // called by every method that changes rows of the table
+    void increment(String table);
+
+}
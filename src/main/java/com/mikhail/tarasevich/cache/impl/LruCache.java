@@ -0,0 +1,161 @@
+package com.mikhail.tarasevich.cache.impl;
+
+import com.mikhail.tarasevich.cache.Cache;
+import com.mikhail.tarasevich.cache.CacheStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+public class LruCache<K, V> implements Cache<K, V> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LruCache.class);
+    private final long maxWeight;
+    private final long timeToLiveNanos;
+    private final ToIntFunction<? super V> weigher;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<K, CacheEntry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long version;
+    private long weight;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public LruCache(int maxSize, long timeToLive, TimeUnit timeUnit) {
+        this(maxSize, timeToLive, timeUnit, value -> 1);
+    }
+
+    // bounds the summed weight of values instead of their count, e.g. rows of cached pages
+    public LruCache(long maxWeight, long timeToLive, TimeUnit timeUnit, ToIntFunction<? super V> weigher) {
+        this(maxWeight, timeToLive, timeUnit, weigher, System::nanoTime);
+    }
+
+    LruCache(long maxWeight, long timeToLive, TimeUnit timeUnit, ToIntFunction<? super V> weigher,
+             LongSupplier nanoClock) {
+        if (maxWeight <= 0 || timeToLive <= 0) {
+            throw new IllegalArgumentException("Cache size and time to live should be positive");
+        }
+        this.maxWeight = maxWeight;
+        this.timeToLiveNanos = timeUnit.toNanos(timeToLive);
+        this.weigher = weigher;
+        this.nanoClock = nanoClock;
+        LOG.debug("LruCache with max weight = {} and time to live = {} {} was created",
+                maxWeight, timeToLive, timeUnit);
+    }
+
+    @Override
+    public synchronized V get(K key) {
+        CacheEntry<V> entry = entries.get(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        if (entry.isExpired(nanoClock.getAsLong())) {
+            remove(key);
+            evictionCount++;
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.value;
+    }
+
+    @Override
+    public synchronized long version() {
+        return version;
+    }
+
+    @Override
+    public synchronized boolean putIfNotInvalidated(K key, V value, long version) {
+        if (this.version != version) {
+            return false;
+        }
+        long now = nanoClock.getAsLong();
+        CacheEntry<V> entry = new CacheEntry<>(value, Math.max(weigher.applyAsInt(value), 1), now + timeToLiveNanos);
+        CacheEntry<V> replacedEntry = entries.put(key, entry);
+        weight += entry.weight - (replacedEntry == null ? 0 : replacedEntry.weight);
+        evictIfOverweight(now);
+        return true;
+    }
+
+    @Override
+    public synchronized void invalidate(K key) {
+        version++;
+        remove(key);
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        version++;
+        entries.clear();
+        weight = 0;
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return weight;
+    }
+
+    @Override
+    public synchronized CacheStatistics getStatistics() {
+        return new CacheStatistics(hitCount, missCount, evictionCount);
+    }
+
+    private void remove(K key) {
+        CacheEntry<V> removedEntry = entries.remove(key);
+        if (removedEntry != null) {
+            weight -= removedEntry.weight;
+        }
+    }
+
+    // expired entries go first, then the least recently used ones
+    private void evictIfOverweight(long now) {
+        if (weight <= maxWeight) {
+            return;
+        }
+        Iterator<Map.Entry<K, CacheEntry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext() && weight > maxWeight) {
+            CacheEntry<V> entry = iterator.next().getValue();
+            if (entry.isExpired(now)) {
+                iterator.remove();
+                weight -= entry.weight;
+                evictionCount++;
+            }
+        }
+        iterator = entries.entrySet().iterator();
+        while (weight > maxWeight) {
+            CacheEntry<V> entry = iterator.next().getValue();
+            iterator.remove();
+            weight -= entry.weight;
+            evictionCount++;
+        }
+    }
+
+    private static class CacheEntry<V> {
+
+        private final V value;
+        private final int weight;
+        private final long expiresAtNanos;
+
+        private CacheEntry(V value, int weight, long expiresAtNanos) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.mikhail.tarasevich.cache.impl;
+
+import com.mikhail.tarasevich.cache.TableVersions;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TableVersionsImpl implements TableVersions {
+
+    private final ConcurrentMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    @Override
+    public long version(String table) {
+        return versions.computeIfAbsent(table, name -> new AtomicLong()).get();
+    }
+
+    @Override
+    public void increment(String table) {
+        versions.computeIfAbsent(table, name -> new AtomicLong()).incrementAndGet();
+    }
+
+}
@@ -2,32 +2,78 @@ package com.mikhail.tarasevich.configuration.guice;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Scopes;
+import com.google.inject.TypeLiteral;
+import com.google.inject.matcher.Matchers;
 import com.google.inject.name.Names;
+import com.mikhail.tarasevich.cache.Cache;
+import com.mikhail.tarasevich.cache.PageCacheKey;
+import com.mikhail.tarasevich.cache.TableVersions;
+import com.mikhail.tarasevich.cache.impl.LruCache;
+import com.mikhail.tarasevich.cache.impl.TableVersionsImpl;
 import com.mikhail.tarasevich.dao.*;
 import com.mikhail.tarasevich.dao.impl.*;
+import com.mikhail.tarasevich.dao.transaction.Transactional;
+import com.mikhail.tarasevich.dao.transaction.TransactionalInterceptor;
+import com.mikhail.tarasevich.entity.Course;
+import com.mikhail.tarasevich.entity.Group;
+import com.mikhail.tarasevich.entity.Student;
 import com.mikhail.tarasevich.provider.EntityViewProvider;
 import com.mikhail.tarasevich.provider.impl.EntityViewProviderImpl;
 import com.mikhail.tarasevich.reader.ConsoleReader;
 import com.mikhail.tarasevich.reader.impl.ConsoleReaderImpl;
 
+import java.util.concurrent.TimeUnit;
+
 public class ApplicationModule extends AbstractModule {
 
     private static final String DB_PROPERTIES_FILE_PATH = "database";
+    private static final int ENTITY_CACHE_SIZE = 1000;
+    private static final long ENTITY_CACHE_TIME_TO_LIVE_MINUTES = 5;
+    private static final long PAGE_CACHE_MAX_ROWS = 10_000;
+    private static final long PAGE_CACHE_TIME_TO_LIVE_MINUTES = 5;
 
     @Override
     protected void configure() {
 
-        bind(ConnectorDB.class).to(ConnectorDBImpl.class).in(Scopes.SINGLETON);
+        bind(ConnectorDBImpl.class).in(Scopes.SINGLETON);
+        bind(ConnectorDB.class).to(ConnectorDBImpl.class);
+        bind(TransactionManager.class).to(ConnectorDBImpl.class);
         bind(StudentDao.class).to(StudentDaoImpl.class).in(Scopes.SINGLETON);
         bind(CourseDao.class).to(CourseDaoImpl.class).in(Scopes.SINGLETON);
         bind(GroupDao.class).to(GroupDaoImpl.class).in(Scopes.SINGLETON);
         bind(EntityViewProvider.class).to(EntityViewProviderImpl.class).in(Scopes.SINGLETON);
         bind(ScriptRunner.class).to(ScriptRunnerImpl.class).in(Scopes.SINGLETON);
+        bind(BulkLoader.class).to(BulkLoaderImpl.class).in(Scopes.SINGLETON);
         bind(ConsoleReader.class).to(ConsoleReaderImpl.class).in(Scopes.SINGLETON);
 
+        //async DAOs share one executor sized to the connection pool
+        bind(DaoExecutor.class).in(Scopes.SINGLETON);
+        bind(AsyncStudentDao.class).to(AsyncStudentDaoImpl.class).in(Scopes.SINGLETON);
+        bind(AsyncCourseDao.class).to(AsyncCourseDaoImpl.class).in(Scopes.SINGLETON);
+        bind(AsyncGroupDao.class).to(AsyncGroupDaoImpl.class).in(Scopes.SINGLETON);
+
         bind(String.class)
                 .annotatedWith(Names.named("filePath"))
                 .toInstance(DB_PROPERTIES_FILE_PATH);
+
+        //findById caches of students and courses, a DAO whose entity has no cache bound here reads the DB every time
+        bind(new TypeLiteral<Cache<Integer, Student>>() {
+        }).toInstance(new LruCache<>(ENTITY_CACHE_SIZE, ENTITY_CACHE_TIME_TO_LIVE_MINUTES, TimeUnit.MINUTES));
+        bind(new TypeLiteral<Cache<Integer, Course>>() {
+        }).toInstance(new LruCache<>(ENTITY_CACHE_SIZE, ENTITY_CACHE_TIME_TO_LIVE_MINUTES, TimeUnit.MINUTES));
+
+        //page caches of students and groups, cached pages are keyed by versions of tables kept by TableVersions
+        bind(TableVersions.class).to(TableVersionsImpl.class).in(Scopes.SINGLETON);
+        bind(new TypeLiteral<Cache<PageCacheKey, Page<Student>>>() {
+        }).toInstance(new LruCache<>(PAGE_CACHE_MAX_ROWS, PAGE_CACHE_TIME_TO_LIVE_MINUTES, TimeUnit.MINUTES,
+                page -> page.getContent().size()));
+        bind(new TypeLiteral<Cache<PageCacheKey, Page<Group>>>() {
+        }).toInstance(new LruCache<>(PAGE_CACHE_MAX_ROWS, PAGE_CACHE_TIME_TO_LIVE_MINUTES, TimeUnit.MINUTES,
+                page -> page.getContent().size()));
+
+        TransactionalInterceptor transactionalInterceptor = new TransactionalInterceptor();
+        requestInjection(transactionalInterceptor);
+        bindInterceptor(Matchers.any(), Matchers.annotatedWith(Transactional.class), transactionalInterceptor);
     }
 
 }
@@ -0,0 +1,20 @@
+package com.mikhail.tarasevich.dao;
+
+import com.mikhail.tarasevich.entity.Course;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncCourseDao extends AsyncCrudPageableDao<Course>, AsyncNaturalKeyCrudDao<Course> {
+
+    //read
+    CompletableFuture<Optional<Course>> findByCourseName(String courseName);
+    CompletableFuture<List<Course>> findCoursesByStudentId(int id);
+    CompletableFuture<Map<Integer, List<Course>>> findCoursesByStudentIds(List<Integer> ids);
+
+    //delete
+    CompletableFuture<Void> deleteCourseById(int id);
+
+}
@@ -0,0 +1,34 @@
+package com.mikhail.tarasevich.dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * Calls run on the threads of DaoExecutor, outside of any transaction of the calling thread. Cancelling or timing out
+ * the future of a read skips the call if it hasn't started yet, a started read runs to its end and its result is
+ * dropped. Writes have no timeout and can't be cancelled: once submitted they run to the end, and their future
+ * reports whether they were written
+ */
+public interface AsyncCrudDao<E> {
+
+    //create
+    CompletableFuture<E> save(E entity);
+    CompletableFuture<List<E>> saveAll(List<E> entities);
+
+    //read
+    CompletableFuture<Optional<E>> findById(Integer id);
+    CompletableFuture<Map<Integer, E>> findByIds(Collection<Integer> ids);
+    CompletableFuture<Boolean> existsById(Integer id);
+    CompletableFuture<Boolean> existAll(Collection<Integer> ids);
+    CompletableFuture<List<E>> findAll();
+
+    //update
+    CompletableFuture<Void> update(E entity);
+
+    //delete
+    CompletableFuture<Void> deleteById(Integer param);
+
+}
@@ -0,0 +1,18 @@
+package com.mikhail.tarasevich.dao;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncCrudPageableDao<E> extends AsyncCrudDao<E> {
+
+    CompletableFuture<List<E>> findAll(int page, int itemsPerPage);
+
+    CompletableFuture<Page<E>> findPageAfter(int lastId, int itemsPerPage);
+
+    CompletableFuture<Page<E>> findPage(int page, int itemsPerPage);
+
+    CompletableFuture<Long> count();
+
+    CompletableFuture<Long> count(CountMode countMode);
+
+}
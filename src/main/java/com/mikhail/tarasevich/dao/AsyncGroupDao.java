@@ -0,0 +1,19 @@
+package com.mikhail.tarasevich.dao;
+
+import com.mikhail.tarasevich.entity.Group;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncGroupDao extends AsyncCrudPageableDao<Group>, AsyncNaturalKeyCrudDao<Group> {
+
+    //read
+    CompletableFuture<Optional<Group>> findByGroupName(String groupName);
+    CompletableFuture<Optional<Group>> findGroupByStudentId(Integer id);
+    CompletableFuture<List<Group>> findGroupsWithLessEqualCountOfStudents(int countOfStudents);
+
+    //delete
+    CompletableFuture<Void> deleteGroupById(Integer id);
+
+}
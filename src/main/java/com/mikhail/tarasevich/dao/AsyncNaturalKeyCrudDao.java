@@ -0,0 +1,11 @@
+package com.mikhail.tarasevich.dao;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncNaturalKeyCrudDao<E> extends AsyncCrudDao<E> {
+
+    //create
+    CompletableFuture<List<E>> upsertAll(List<E> entities);
+
+}
@@ -0,0 +1,29 @@
+package com.mikhail.tarasevich.dao;
+
+import com.mikhail.tarasevich.entity.Student;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncStudentDao extends AsyncCrudPageableDao<Student> {
+
+    //save
+    CompletableFuture<Void> subscribeStudentToCourses(Student student);
+    CompletableFuture<Void> subscribeStudentsToCourses(List<Student> students);
+    CompletableFuture<Void> subscribeStudentToCourse(int studentId, int courseId);
+    CompletableFuture<Boolean> subscribeStudentToCourseIfAbsent(int studentId, int courseId);
+    CompletableFuture<Void> flushWrites();
+
+    //read
+    CompletableFuture<List<Student>> findByFirstName(String firstName);
+    CompletableFuture<List<Student>> findStudentsRelatedToCourse(int courseId);
+    CompletableFuture<List<Student>> findStudentsByGroupId(int id);
+    CompletableFuture<Map<Integer, List<Student>>> findStudentsByGroupIds(List<Integer> ids);
+
+    //delete
+    CompletableFuture<Void> deleteStudentById(int id);
+    CompletableFuture<Void> removeStudentFromCourse(int studentId, int courseId);
+    CompletableFuture<Void> removeStudentFromGroup(int studentId);
+
+}
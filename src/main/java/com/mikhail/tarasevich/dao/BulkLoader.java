@@ -0,0 +1,17 @@
+package com.mikhail.tarasevich.dao;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Loads rows into a table bypassing the DAOs: COPY on PostgreSQL, batched INSERTs on other databases.
+ */
+public interface BulkLoader {
+
+    // ids handed out by the id column of the table, rows loaded with them don't clash with later inserts
+    int[] reserveIds(String table, int quantity);
+
+    // every row holds the values of the columns in their order, rows are read from the stream as they are written
+    long load(String table, List<String> columns, Stream<Object[]> rows);
+
+}
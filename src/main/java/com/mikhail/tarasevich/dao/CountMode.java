@@ -0,0 +1,12 @@
+package com.mikhail.tarasevich.dao;
+
+public enum CountMode {
+
+    // SELECT COUNT(*) on every call
+    EXACT,
+    // counter maintained by the DAO's own inserts and deletes, recounted exactly from time to time
+    CACHED,
+    // planner statistics where the database keeps them, exact count otherwise
+    ESTIMATED
+
+}
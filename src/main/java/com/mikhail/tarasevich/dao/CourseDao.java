@@ -3,13 +3,15 @@ package com.mikhail.tarasevich.dao;
 import com.mikhail.tarasevich.entity.Course;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
-public interface CourseDao extends CrudPageableDao<Course> {
+public interface CourseDao extends CrudPageableDao<Course>, NaturalKeyCrudDao<Course> {
 
     //read
     Optional<Course> findByCourseName(String courseName);
     List<Course> findCoursesByStudentId(int id);
+    Map<Integer, List<Course>> findCoursesByStudentIds(List<Integer> ids);
 
     //delete
     void deleteCourseById(int id);
@@ -1,17 +1,30 @@
 package com.mikhail.tarasevich.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CrudDao<E> {
 
     //create
     E save(E entity);
-    void saveAll(List<E> entity);
+    // returns the saved entities with their generated ids, in the order of the given list
+    List<E> saveAll(List<E> entities);
 
     //read
     Optional<E> findById(Integer id);
+    // found entities keyed by id in the order of the given ids, missing ids have no entry
+    Map<Integer, E> findByIds(Collection<Integer> ids);
+    // check presence without loading the entity and its related ones
+    boolean existsById(Integer id);
+    // true if every given id exists, also for an empty collection
+    boolean existAll(Collection<Integer> ids);
     List<E> findAll();
+    // the stream holds a DB connection until it is closed, use it in try-with-resources
+    Stream<E> streamAll();
+    Stream<E> streamAll(int fetchSize);
 
     //update
     void update(E entity);
@@ -19,4 +32,11 @@ public interface CrudDao<E> {
     //delete
     void deleteById(Integer param);
 
+    // forgets what the DAO keeps in memory about the rows of its table after they were written bypassing it
+    void onRowsWrittenExternally();
+
+    // lookups answered by the in-memory id and name filters, zeros while a filter is disabled
+    PresenceFilterStatistics getIdPresenceStatistics();
+    PresenceFilterStatistics getNameLookupStatistics();
+
 }
@@ -6,6 +6,13 @@ public interface CrudPageableDao<E> extends CrudDao<E> {
 
     List<E> findAll(int page, int itemsPerPage);
 
+    Page<E> findPageAfter(int lastId, int itemsPerPage);
+
+    // rows of the page together with the total count of rows in the table, both read by one query
+    Page<E> findPage(int page, int itemsPerPage);
+
     long count();
 
+    long count(CountMode countMode);
+
 }
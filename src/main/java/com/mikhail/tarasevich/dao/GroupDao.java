@@ -5,7 +5,7 @@ import com.mikhail.tarasevich.entity.Group;
 import java.util.List;
 import java.util.Optional;
 
-public interface GroupDao extends CrudPageableDao<Group> {
+public interface GroupDao extends CrudPageableDao<Group>, NaturalKeyCrudDao<Group> {
 
     //read
     Optional<Group> findByGroupName(String groupName);
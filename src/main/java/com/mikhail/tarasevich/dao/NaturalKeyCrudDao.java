@@ -0,0 +1,13 @@
+package com.mikhail.tarasevich.dao;
+
+import java.util.List;
+
+// a DAO of a table with a unique natural key besides the id
+public interface NaturalKeyCrudDao<E> extends CrudDao<E> {
+
+    //create
+    // inserts new entities and updates existing ones matched by the natural key of the table, returns them with ids
+    // in the order of the given list
+    List<E> upsertAll(List<E> entities);
+
+}
@@ -0,0 +1,63 @@
+package com.mikhail.tarasevich.dao;
+
+import java.util.List;
+import java.util.Objects;
+
+public class Page<E> {
+
+    private final List<E> content;
+    private final Integer nextPageToken;
+    private final Long totalCount;
+
+    public Page(List<E> content, Integer nextPageToken) {
+        this(content, nextPageToken, null);
+    }
+
+    public Page(List<E> content, Integer nextPageToken, Long totalCount) {
+        this.content = content;
+        this.nextPageToken = nextPageToken;
+        this.totalCount = totalCount;
+    }
+
+    public List<E> getContent() {
+        return content;
+    }
+
+    public Integer getNextPageToken() {
+        return nextPageToken;
+    }
+
+    // number of rows in the whole table, null when the page was read without it
+    public Long getTotalCount() {
+        return totalCount;
+    }
+
+    public boolean hasNext() {
+        return nextPageToken != null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Page)) return false;
+        Page<?> page = (Page<?>) o;
+        return Objects.equals(getContent(), page.getContent()) &&
+                Objects.equals(getNextPageToken(), page.getNextPageToken()) &&
+                Objects.equals(getTotalCount(), page.getTotalCount());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getContent(), getNextPageToken(), getTotalCount());
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" +
+                "content=" + content +
+                ", nextPageToken=" + nextPageToken +
+                ", totalCount=" + totalCount +
+                '}';
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.mikhail.tarasevich.dao;
+
+import java.util.Objects;
+
+public class PresenceFilterStatistics {
+
+    private final long lookupCount;
+    private final long definiteMissCount;
+    private final long falsePositiveCount;
+    private final long memoryBytes;
+    private final double expectedFalsePositiveRate;
+
+    public PresenceFilterStatistics(long lookupCount, long definiteMissCount, long falsePositiveCount,
+                                    long memoryBytes, double expectedFalsePositiveRate) {
+        this.lookupCount = lookupCount;
+        this.definiteMissCount = definiteMissCount;
+        this.falsePositiveCount = falsePositiveCount;
+        this.memoryBytes = memoryBytes;
+        this.expectedFalsePositiveRate = expectedFalsePositiveRate;
+    }
+
+    public long getLookupCount() {
+        return lookupCount;
+    }
+
+    // lookups answered by the filter alone, without a query
+    public long getDefiniteMissCount() {
+        return definiteMissCount;
+    }
+
+    public long getFalsePositiveCount() {
+        return falsePositiveCount;
+    }
+
+    public long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public double getExpectedFalsePositiveRate() {
+        return expectedFalsePositiveRate;
+    }
+
+    // share of the lookups of absent keys the filter let through to the DB
+    public double observedFalsePositiveRate() {
+        long absentKeyLookupCount = definiteMissCount + falsePositiveCount;
+        return absentKeyLookupCount == 0 ? 0 : (double) falsePositiveCount / absentKeyLookupCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PresenceFilterStatistics)) return false;
+        PresenceFilterStatistics that = (PresenceFilterStatistics) o;
+        return getLookupCount() == that.getLookupCount() &&
+                getDefiniteMissCount() == that.getDefiniteMissCount() &&
+                getFalsePositiveCount() == that.getFalsePositiveCount() &&
+                getMemoryBytes() == that.getMemoryBytes() &&
+                Double.compare(getExpectedFalsePositiveRate(), that.getExpectedFalsePositiveRate()) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getLookupCount(), getDefiniteMissCount(), getFalsePositiveCount(), getMemoryBytes(),
+                getExpectedFalsePositiveRate());
+    }
+
+    @Override
+    public String toString() {
+        return "PresenceFilterStatistics{" +
+                "lookupCount=" + lookupCount +
+                ", definiteMissCount=" + definiteMissCount +
+                ", falsePositiveCount=" + falsePositiveCount +
+                ", memoryBytes=" + memoryBytes +
+                ", expectedFalsePositiveRate=" + expectedFalsePositiveRate +
+                ", observedFalsePositiveRate=" + observedFalsePositiveRate() +
+                '}';
+    }
+
+}
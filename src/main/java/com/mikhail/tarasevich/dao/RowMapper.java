@@ -0,0 +1,14 @@
+package com.mikhail.tarasevich.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of one result set. A mapper is made for a result set, so the column
+ * indexes are resolved once per query and rows are read by index.
+ */
+public interface RowMapper<E> {
+
+    E mapRow(ResultSet resultSet) throws SQLException;
+
+}
@@ -3,17 +3,31 @@ package com.mikhail.tarasevich.dao;
 import com.mikhail.tarasevich.entity.Student;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public interface StudentDao extends CrudPageableDao<Student>{
 
     //save
     void subscribeStudentToCourses(Student student);
+    // courses of all the students are written in batches over one connection and one transaction
+    void subscribeStudentsToCourses(List<Student> students);
     void subscribeStudentToCourse(int studentId, int courseId);
+    // one statement that adds the subscription unless it exists, returns whether it was added
+    boolean subscribeStudentToCourseIfAbsent(int studentId, int courseId);
+
+    // with the write-behind mode on, waits until the queued enrollment and group changes are written
+    void flushWrites();
+    // writes what is queued and switches the write-behind mode off, later changes are written at once
+    void closeWrites();
+    WriteBehindStatistics getWriteBehindStatistics();
 
     //read
     List<Student> findByFirstName(String firstName);
     List<Student> findStudentsRelatedToCourse(int courseId);
+    Stream<Student> streamStudentsRelatedToCourse(int courseId, int fetchSize);
     List<Student> findStudentsByGroupId(int id);
+    Map<Integer, List<Student>> findStudentsByGroupIds(List<Integer> ids);
 
     //delete
     void deleteStudentById(int id);
@@ -0,0 +1,16 @@
+package com.mikhail.tarasevich.dao;
+
+public interface TransactionManager {
+
+    void begin();
+
+    void commit();
+
+    void rollback();
+
+    boolean isActive();
+
+    // runs the action once the current transaction is committed or rolled back
+    void afterCompletion(Runnable action);
+
+}
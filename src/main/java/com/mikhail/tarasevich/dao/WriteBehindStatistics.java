@@ -0,0 +1,98 @@
+package com.mikhail.tarasevich.dao;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+public class WriteBehindStatistics {
+
+    private final long submittedCount;
+    private final long coalescedCount;
+    private final long writtenCount;
+    private final long failedCount;
+    private final long flushCount;
+    private final long totalFlushNanos;
+    private final long maxFlushNanos;
+
+    public WriteBehindStatistics(long submittedCount, long coalescedCount, long writtenCount, long failedCount,
+                                 long flushCount, long totalFlushNanos, long maxFlushNanos) {
+        this.submittedCount = submittedCount;
+        this.coalescedCount = coalescedCount;
+        this.writtenCount = writtenCount;
+        this.failedCount = failedCount;
+        this.flushCount = flushCount;
+        this.totalFlushNanos = totalFlushNanos;
+        this.maxFlushNanos = maxFlushNanos;
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount;
+    }
+
+    // mutations merged into a queued one or cancelled out by it, they are never written
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    public long getWrittenCount() {
+        return writtenCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public long getFlushCount() {
+        return flushCount;
+    }
+
+    public long getTotalFlushNanos() {
+        return totalFlushNanos;
+    }
+
+    public long getMaxFlushNanos() {
+        return maxFlushNanos;
+    }
+
+    public double averageFlushMillis() {
+        return flushCount == 0 ? 0 : (double) totalFlushNanos / flushCount / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double writtenPerSecond() {
+        return totalFlushNanos == 0 ? 0 : (double) writtenCount * TimeUnit.SECONDS.toNanos(1) / totalFlushNanos;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof WriteBehindStatistics)) return false;
+        WriteBehindStatistics that = (WriteBehindStatistics) o;
+        return getSubmittedCount() == that.getSubmittedCount() &&
+                getCoalescedCount() == that.getCoalescedCount() &&
+                getWrittenCount() == that.getWrittenCount() &&
+                getFailedCount() == that.getFailedCount() &&
+                getFlushCount() == that.getFlushCount() &&
+                getTotalFlushNanos() == that.getTotalFlushNanos() &&
+                getMaxFlushNanos() == that.getMaxFlushNanos();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getSubmittedCount(), getCoalescedCount(), getWrittenCount(), getFailedCount(),
+                getFlushCount(), getTotalFlushNanos(), getMaxFlushNanos());
+    }
+
+    @Override
+    public String toString() {
+        return "WriteBehindStatistics{" +
+                "submittedCount=" + submittedCount +
+                ", coalescedCount=" + coalescedCount +
+                ", writtenCount=" + writtenCount +
+                ", failedCount=" + failedCount +
+                ", flushCount=" + flushCount +
+                ", averageFlushMillis=" + averageFlushMillis() +
+                ", maxFlushMillis=" + (double) maxFlushNanos / TimeUnit.MILLISECONDS.toNanos(1) +
+                ", writtenPerSecond=" + writtenPerSecond() +
+                '}';
+    }
+
+}
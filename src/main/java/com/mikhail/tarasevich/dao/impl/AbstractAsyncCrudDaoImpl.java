@@ -0,0 +1,128 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import com.mikhail.tarasevich.dao.AsyncCrudPageableDao;
+import com.mikhail.tarasevich.dao.CountMode;
+import com.mikhail.tarasevich.dao.CrudPageableDao;
+import com.mikhail.tarasevich.dao.Page;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public abstract class AbstractAsyncCrudDaoImpl<E, D extends CrudPageableDao<E>> implements AsyncCrudPageableDao<E> {
+
+    private static final long NO_TIMEOUT = 0;
+    protected final D dao;
+    private final DaoExecutor executor;
+    private long timeoutMillis = NO_TIMEOUT;
+
+    public AbstractAsyncCrudDaoImpl(D dao, DaoExecutor executor) {
+        this.dao = dao;
+        this.executor = executor;
+    }
+
+    // every read of the DAO fails with TimeoutException if it isn't done in this time
+    @Inject(optional = true)
+    public void setTimeoutMillis(@Named("asyncDaoTimeoutMillis") long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public CompletableFuture<E> save(E entity) {
+        return supplyWriteAsync(() -> dao.save(entity));
+    }
+
+    @Override
+    public CompletableFuture<List<E>> saveAll(List<E> entities) {
+        return supplyWriteAsync(() -> dao.saveAll(entities));
+    }
+
+    @Override
+    public CompletableFuture<Optional<E>> findById(Integer id) {
+        return supplyAsync(() -> dao.findById(id));
+    }
+
+    @Override
+    public CompletableFuture<Map<Integer, E>> findByIds(Collection<Integer> ids) {
+        return supplyAsync(() -> dao.findByIds(ids));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsById(Integer id) {
+        return supplyAsync(() -> dao.existsById(id));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existAll(Collection<Integer> ids) {
+        return supplyAsync(() -> dao.existAll(ids));
+    }
+
+    @Override
+    public CompletableFuture<List<E>> findAll() {
+        return supplyAsync(dao::findAll);
+    }
+
+    @Override
+    public CompletableFuture<Void> update(E entity) {
+        return runWriteAsync(() -> dao.update(entity));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteById(Integer param) {
+        return runWriteAsync(() -> dao.deleteById(param));
+    }
+
+    @Override
+    public CompletableFuture<List<E>> findAll(int page, int itemsPerPage) {
+        return supplyAsync(() -> dao.findAll(page, itemsPerPage));
+    }
+
+    @Override
+    public CompletableFuture<Page<E>> findPageAfter(int lastId, int itemsPerPage) {
+        return supplyAsync(() -> dao.findPageAfter(lastId, itemsPerPage));
+    }
+
+    @Override
+    public CompletableFuture<Page<E>> findPage(int page, int itemsPerPage) {
+        return supplyAsync(() -> dao.findPage(page, itemsPerPage));
+    }
+
+    @Override
+    public CompletableFuture<Long> count() {
+        return supplyAsync(dao::count);
+    }
+
+    @Override
+    public CompletableFuture<Long> count(CountMode countMode) {
+        return supplyAsync(() -> dao.count(countMode));
+    }
+
+    protected <R> CompletableFuture<R> supplyAsync(Supplier<R> call) {
+        CompletableFuture<R> future = executor.supply(call);
+        return timeoutMillis == NO_TIMEOUT ? future
+                : executor.withTimeout(future, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /*
+     * A write that timed out or was cancelled could still commit, so the caller gets a dependent future:
+     * cancelling it doesn't reach the call
+     */
+    protected <R> CompletableFuture<R> supplyWriteAsync(Supplier<R> call) {
+        return executor.supply(call).thenApply(Function.identity());
+    }
+
+    protected CompletableFuture<Void> runWriteAsync(Runnable call) {
+        return supplyWriteAsync(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+}
@@ -1,20 +1,63 @@
 package com.mikhail.tarasevich.dao.impl;
 
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import com.mikhail.tarasevich.cache.Cache;
+import com.mikhail.tarasevich.cache.TableVersions;
 import com.mikhail.tarasevich.dao.ConnectorDB;
 import com.mikhail.tarasevich.dao.CrudDao;
+import com.mikhail.tarasevich.dao.PresenceFilterStatistics;
+import com.mikhail.tarasevich.dao.RowMapper;
+import com.mikhail.tarasevich.dao.TransactionManager;
 import com.mikhail.tarasevich.dao.exception.DataBaseSqlRuntimeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public abstract class AbstractCrudDaoImpl<E> implements CrudDao<E> {
 
     private static final Logger LOG = LoggerFactory.getLogger(AbstractCrudDaoImpl.class);
+    protected static final int DEFAULT_FETCH_SIZE = 1000;
+    protected static final int DEFAULT_SAVE_CHUNK_SIZE = 500;
+    protected static final int DEFAULT_FIND_BY_IDS_TEMP_TABLE_THRESHOLD = 10_000;
+    protected static final int COALESCED_FIND_BY_ID_BATCH_SIZE = 100;
+    protected static final double DEFAULT_NAME_FILTER_FALSE_POSITIVE_RATE = 0.01;
+    // room left in the name filter for names added after it is loaded
+    private static final int NAME_FILTER_GROWTH_FACTOR = 2;
+    private static final int MIN_NAME_FILTER_CAPACITY = 1024;
+    private static final String H2_PRODUCT_NAME = "H2";
+    private static final String FIND_BY_IDS_QUERY = "SELECT * FROM %s WHERE id = ANY(?)";
+    private static final String CREATE_REQUESTED_IDS_TABLE_QUERY =
+            "CREATE LOCAL TEMPORARY TABLE IF NOT EXISTS requested_ids (id INTEGER PRIMARY KEY)";
+    // H2 commits the open transaction on DDL unless the temporary table is transactional
+    private static final String H2_TRANSACTIONAL_TABLE_OPTION = " TRANSACTIONAL";
+    private static final String INSERT_REQUESTED_ID_QUERY = "INSERT INTO requested_ids (id) VALUES(?)";
+    private static final String CLEAR_REQUESTED_IDS_QUERY = "DELETE FROM requested_ids";
+    private static final String FIND_BY_REQUESTED_IDS_QUERY =
+            "SELECT entities.* FROM %s entities JOIN requested_ids ON requested_ids.id = entities.id";
+    private static final String EXISTS_BY_ID_QUERY = "SELECT 1 FROM %s WHERE id = ?";
+    private static final String COUNT_EXISTING_IDS_QUERY = "SELECT COUNT(*) FROM %s WHERE id = ANY(?)";
+    private static final String FIND_ALL_IDS_QUERY = "SELECT id FROM %s";
+    private static final String COUNT_ROWS_QUERY = "SELECT COUNT(*) FROM %s";
+    private static final String FIND_ALL_NAMES_QUERY = "SELECT %s FROM %s";
+    private static final String INSERT_INTO_KEYWORD = "INSERT INTO";
+    private static final String VALUES_KEYWORD = "VALUES";
+    private static final String ID_COLUMN = "id";
+    private static final String MERGE_QUERY = "MERGE INTO %s KEY (%s) VALUES %s";
+    private static final String ON_CONFLICT_UPDATE_CLAUSE = " ON CONFLICT (%s) DO UPDATE SET %s";
+    private static final String EXCLUDED_COLUMN_ASSIGNMENT = "%1$s = EXCLUDED.%1$s";
+    private static final BiConsumer<PreparedStatement, Void> NO_PARAM_SETTER = (preparedStatement, nothing) -> {
+    };
     private static final BiConsumer<PreparedStatement, Integer> INT_PARAM_SETTER = (preparedStatement, integer) -> {
         try {
             preparedStatement.setInt(1, integer);
@@ -29,23 +72,141 @@ public abstract class AbstractCrudDaoImpl<E> implements CrudDao<E> {
             LOG.error("Incorrect parameters sent to STRING_PARAM_SETTER. Thrown exception: {}", e);
         }
     };
+    private static final BiConsumer<PreparedStatement, Collection<Integer>> INT_ARRAY_PARAM_SETTER =
+            (preparedStatement, integers) -> {
+                try {
+                    preparedStatement.setArray(1, createIntArray(preparedStatement.getConnection(), integers));
+                } catch (SQLException e) {
+                    LOG.error("Incorrect parameters sent to INT_ARRAY_PARAM_SETTER. Thrown exception: {}", e);
+                }
+            };
     protected final ConnectorDB connector;
     private final String saveEntityQuery;
+    private final String multiRowSaveQueryPrefix;
+    private final String saveTarget;
+    private final List<String> saveColumns;
+    private final String saveRowPlaceholders;
+    private final int saveParametersPerRow;
     private final String findByIdQuery;
     private final String findAllQuery;
     private final String updateEntityQuery;
     private final String deleteByIdQuery;
+    private Cache<Integer, E> entityCache;
+    private TransactionManager transactionManager;
+    protected TableVersions tableVersions;
+    private int saveChunkSize = DEFAULT_SAVE_CHUNK_SIZE;
+    private int findByIdsTempTableThreshold = DEFAULT_FIND_BY_IDS_TEMP_TABLE_THRESHOLD;
+    private CoalescingLoader<E> findByIdLoader;
+    private IdPresenceIndex idPresenceIndex;
+    private NamePresenceFilter namePresenceFilter;
 
     protected AbstractCrudDaoImpl(ConnectorDB connector, String saveEntityQuery, String findByIdQuery,
                                   String findAllQuery, String updateEntityQuery, String deleteByIdQuery) {
         this.connector = connector;
         this.saveEntityQuery = saveEntityQuery;
+        int valuesEnd = saveEntityQuery.toUpperCase().lastIndexOf(VALUES_KEYWORD) + VALUES_KEYWORD.length();
+        this.multiRowSaveQueryPrefix = saveEntityQuery.substring(0, valuesEnd) + " ";
+        this.saveTarget = saveEntityQuery
+                .substring(INSERT_INTO_KEYWORD.length(), valuesEnd - VALUES_KEYWORD.length()).trim();
+        this.saveColumns = Arrays.stream(saveTarget
+                        .substring(saveTarget.indexOf('(') + 1, saveTarget.lastIndexOf(')')).split(","))
+                .map(String::trim)
+                .collect(Collectors.toList());
+        this.saveRowPlaceholders = saveEntityQuery.substring(valuesEnd).trim();
+        this.saveParametersPerRow = (int) saveRowPlaceholders.chars().filter(c -> c == '?').count();
         this.findByIdQuery = findByIdQuery;
         this.findAllQuery = findAllQuery;
         this.updateEntityQuery = updateEntityQuery;
         this.deleteByIdQuery = deleteByIdQuery;
     }
 
+    // the cache holds entities without related ones, they are loaded again on every hit
+    @Inject(optional = true)
+    public void setEntityCache(Cache<Integer, E> entityCache) {
+        this.entityCache = entityCache;
+    }
+
+    @Inject(optional = true)
+    public void setTransactionManager(TransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    @Inject(optional = true)
+    public void setTableVersions(TableVersions tableVersions) {
+        this.tableVersions = tableVersions;
+    }
+
+    // rows written by one multi-row INSERT of saveAll
+    @Inject(optional = true)
+    public void setSaveChunkSize(@Named("saveChunkSize") int saveChunkSize) {
+        this.saveChunkSize = Math.max(saveChunkSize, 1);
+    }
+
+    // from this number of ids findByIds joins a temporary table of the ids instead of sending them as an array
+    @Inject(optional = true)
+    public void setFindByIdsTempTableThreshold(@Named("findByIdsTempTableThreshold") int threshold) {
+        this.findByIdsTempTableThreshold = Math.max(threshold, 1);
+    }
+
+    // findById calls of other threads made within this window are loaded by one findByIds, 0 switches it off
+    @Inject(optional = true)
+    public void setFindByIdCoalescingWindowMillis(@Named("findByIdCoalescingWindowMillis") long windowMillis) {
+        this.findByIdLoader = windowMillis > 0
+                ? new CoalescingLoader<>(this::findByIdsUnfiltered, windowMillis, COALESCED_FIND_BY_ID_BATCH_SIZE)
+                : null;
+    }
+
+    /*
+     * existsById and existAll answer from ids kept in memory outside of transactions, findById and findByIds don't
+     * query ids that aren't there. The DAO keeps them in sync with its own writes only, rows written by BulkLoader
+     * or another process aren't seen until invalidateIdPresenceIndex or onRowsWrittenExternally
+     */
+    @Inject(optional = true)
+    public void setIdPresenceIndexEnabled(@Named("idPresenceIndexEnabled") boolean enabled) {
+        this.idPresenceIndex = enabled ? new IdPresenceIndex(this::findAllIds) : null;
+    }
+
+    public void invalidateIdPresenceIndex() {
+        if (idPresenceIndex != null) {
+            idPresenceIndex.invalidate();
+        }
+    }
+
+    // lookups by a name that was never written through the DAO return nothing without a query
+    @Inject(optional = true)
+    public void setNameLookupFilterEnabled(@Named("nameLookupFilterEnabled") boolean enabled) {
+        this.namePresenceFilter = enabled && getNameColumn() != null
+                ? new NamePresenceFilter(this::findAllNames)
+                : null;
+    }
+
+    public void invalidateNameLookupFilter() {
+        if (namePresenceFilter != null) {
+            namePresenceFilter.invalidate();
+        }
+    }
+
+    @Override
+    public void onRowsWrittenExternally() {
+        invalidateAfterWrite(() -> {
+            invalidateIdPresenceIndex();
+            invalidateNameLookupFilter();
+        });
+        onRowsCountUnknown();
+    }
+
+    @Override
+    public PresenceFilterStatistics getIdPresenceStatistics() {
+        return idPresenceIndex == null ? new PresenceFilterStatistics(0, 0, 0, 0, 0) : idPresenceIndex.getStatistics();
+    }
+
+    @Override
+    public PresenceFilterStatistics getNameLookupStatistics() {
+        return namePresenceFilter == null
+                ? new PresenceFilterStatistics(0, 0, 0, 0, 0)
+                : namePresenceFilter.getStatistics();
+    }
+
     @Override
     public E save(E entity) {
         try (final Connection connection = connector.getConnection();
@@ -53,6 +214,10 @@ public abstract class AbstractCrudDaoImpl<E> implements CrudDao<E> {
                      .prepareStatement(saveEntityQuery, Statement.RETURN_GENERATED_KEYS)) {
             setStatementForSave(preparedStatement, entity);
             int entityId = getGeneratedId(preparedStatement);
+            markTableChanged(getTableName());
+            onIdsAdded(Collections.singletonList(entityId));
+            onNamesWritten(Collections.singletonList(entity));
+            onRowsCountChanged(1);
             LOG.info("Entity of class {} was saved in DB with id = {}. Entity parameters: {} ",
                     entity.getClass().getSimpleName(), entityId, entity);
             return makeEntityWithId(entity, entityId);
@@ -64,16 +229,23 @@ public abstract class AbstractCrudDaoImpl<E> implements CrudDao<E> {
     }
 
     @Override
-    public void saveAll(List<E> entities) {
-        try (final Connection connection = connector.getConnection();
-             final PreparedStatement preparedStatement = connection.prepareStatement(saveEntityQuery)) {
-            for (E entity : entities) {
-                setStatementForSave(preparedStatement, entity);
-                preparedStatement.addBatch();
+    public List<E> saveAll(List<E> entities) {
+        List<E> savedEntities = new ArrayList<>(entities.size());
+        if (entities.isEmpty()) {
+            return savedEntities;
+        }
+        try (final Connection connection = connector.getConnection()) {
+            for (int from = 0; from < entities.size(); from += saveChunkSize) {
+                List<E> chunk = entities.subList(from, Math.min(from + saveChunkSize, entities.size()));
+                savedEntities.addAll(saveChunk(connection, chunk));
             }
-            preparedStatement.executeBatch();
-            LOG.info("{} entities was saved in DB. Entities parameters: {} ",
-                    entities.get(0).getClass().getSimpleName(), entities);
+            markTableChanged(getTableName());
+            onIdsAdded(savedEntities.stream().map(this::getEntityId).collect(Collectors.toList()));
+            onNamesWritten(entities);
+            onRowsCountChanged(entities.size());
+            LOG.info("{} entities of class {} were saved in DB by INSERTs of up to {} rows",
+                    entities.size(), entities.get(0).getClass().getSimpleName(), saveChunkSize);
+            return savedEntities;
         } catch (SQLException e) {
             LOG.error("{} entities wasn't saved in DB. Entities parameters: {}. Thrown exception: {}",
                     entities.get(0).getClass().getSimpleName(), entities, e);
@@ -81,9 +253,406 @@ public abstract class AbstractCrudDaoImpl<E> implements CrudDao<E> {
         }
     }
 
+    private List<E> saveChunk(Connection connection, List<E> chunk) throws SQLException {
+        try (final PreparedStatement preparedStatement = connection
+                .prepareStatement(multiRowSaveQuery(chunk.size()), Statement.RETURN_GENERATED_KEYS)) {
+            setStatementForSaveRows(preparedStatement, chunk);
+            preparedStatement.executeUpdate();
+            List<E> savedEntities = new ArrayList<>(chunk.size());
+            try (final ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
+                for (E entity : chunk) {
+                    if (!generatedKeys.next()) {
+                        throw new SQLException("Saving entities failed, not every ID obtained.");
+                    }
+                    savedEntities.add(makeEntityWithId(entity, (int) generatedKeys.getLong(1)));
+                }
+            }
+            return savedEntities;
+        }
+    }
+
+    private void setStatementForSaveRows(PreparedStatement preparedStatement, List<E> entities) {
+        int firstParameterIndex = 1;
+        for (E entity : entities) {
+            setStatementForSave(preparedStatement, entity, firstParameterIndex);
+            firstParameterIndex += saveParametersPerRow;
+        }
+    }
+
+    private String multiRowSaveQuery(int rows) {
+        return multiRowSaveQueryPrefix + String.join(", ", Collections.nCopies(rows, saveRowPlaceholders));
+    }
+
+    // upsertAll of the DAOs of tables with a natural key
+    protected List<E> upsertAllByNaturalKey(List<E> entities) {
+        String keyColumn = getNaturalKeyColumn();
+        if (keyColumn == null) {
+            throw new UnsupportedOperationException("Table " + getTableName() + " has no natural key to upsert by");
+        }
+        if (entities.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // one statement can't change a row twice, so of the entities with the same key the last one is written
+        Map<String, E> entitiesByKey = new LinkedHashMap<>();
+        entities.forEach(entity -> entitiesByKey.put(getNaturalKey(entity), entity));
+        List<E> distinctEntities = new ArrayList<>(entitiesByKey.values());
+        Map<String, Integer> idsByKey = new HashMap<>();
+        try (final Connection connection = connector.getConnection()) {
+            boolean h2 = H2_PRODUCT_NAME.equals(connection.getMetaData().getDatabaseProductName());
+            for (int from = 0; from < distinctEntities.size(); from += saveChunkSize) {
+                List<E> chunk = distinctEntities.subList(from, Math.min(from + saveChunkSize, distinctEntities.size()));
+                idsByKey.putAll(upsertChunk(connection, chunk, keyColumn, h2));
+            }
+            idsByKey.values().forEach(this::invalidateCachedEntity);
+            markTableChanged(getTableName());
+            onIdsAdded(idsByKey.values());
+            onNamesWritten(distinctEntities);
+            onRowsCountUnknown();
+            LOG.info("{} entities of class {} were upserted in DB by {} of up to {} rows", distinctEntities.size(),
+                    entities.get(0).getClass().getSimpleName(), h2 ? "MERGEs" : "INSERTs", saveChunkSize);
+            return entities.stream()
+                    .map(this::getNaturalKey)
+                    .map(key -> makeEntityWithId(entitiesByKey.get(key), idsByKey.get(key)))
+                    .collect(Collectors.toList());
+        } catch (SQLException e) {
+            LOG.error("{} entities wasn't upserted in DB. Entities parameters: {}. Thrown exception: {}",
+                    entities.get(0).getClass().getSimpleName(), entities, e);
+            throw new DataBaseSqlRuntimeException("", e);
+        }
+    }
+
+    private Map<String, Integer> upsertChunk(Connection connection, List<E> chunk, String keyColumn, boolean h2)
+            throws SQLException {
+        // updated rows have no generated keys, so the id is returned together with the key for every row
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                upsertQuery(chunk.size(), keyColumn, h2), new String[]{ID_COLUMN, keyColumn})) {
+            setStatementForSaveRows(preparedStatement, chunk);
+            preparedStatement.executeUpdate();
+            Map<String, Integer> idsByKey = new HashMap<>();
+            try (final ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
+                while (generatedKeys.next()) {
+                    idsByKey.put(generatedKeys.getString(2), generatedKeys.getInt(1));
+                }
+            }
+            if (idsByKey.size() != chunk.size()) {
+                throw new SQLException("Upserting entities failed, not every ID obtained.");
+            }
+            return idsByKey;
+        }
+    }
+
+    private String upsertQuery(int rows, String keyColumn, boolean h2) {
+        if (h2) {
+            return String.format(MERGE_QUERY, saveTarget, keyColumn,
+                    String.join(", ", Collections.nCopies(rows, saveRowPlaceholders)));
+        }
+        // the key is assigned to itself when nothing else can change, otherwise existing rows return no id
+        List<String> updatedColumns = saveColumns.stream()
+                .filter(column -> !column.equals(keyColumn))
+                .collect(Collectors.toList());
+        String assignments = (updatedColumns.isEmpty() ? Collections.singletonList(keyColumn) : updatedColumns)
+                .stream()
+                .map(column -> String.format(EXCLUDED_COLUMN_ASSIGNMENT, column))
+                .collect(Collectors.joining(", "));
+        return multiRowSaveQuery(rows) + String.format(ON_CONFLICT_UPDATE_CLAUSE, keyColumn, assignments);
+    }
+
     @Override
     public Optional<E> findById(Integer id) {
-        return findByIntParam(id, findByIdQuery);
+        if (id == null || !isIdPresenceIndexUsable()) {
+            return findByIdUnfiltered(id);
+        }
+        if (!idPresenceIndex.contains(id)) {
+            return Optional.empty();
+        }
+        Optional<E> foundEntity = findByIdUnfiltered(id);
+        if (!foundEntity.isPresent()) {
+            idPresenceIndex.recordFalsePositive();
+        }
+        return foundEntity;
+    }
+
+    private Optional<E> findByIdUnfiltered(Integer id) {
+        // a transaction must see its own changes, they aren't visible to the connection of a batch
+        if (findByIdLoader != null && !isTransactionActive()) {
+            return joinUnwrapped(findByIdLoader.load(id));
+        }
+        Cache<Integer, E> cache = entityCacheOutsideTransaction();
+        if (cache == null) {
+            return findByIntParam(id, findByIdQuery);
+        }
+        E cachedEntity = cache.get(id);
+        if (cachedEntity != null) {
+            return Optional.of(loadRelatedEntity(cachedEntity));
+        }
+        long cacheVersion = cache.version();
+        Optional<E> foundEntity = findEntityByParam(id, findByIdQuery, INT_PARAM_SETTER);
+        foundEntity.ifPresent(entity -> cache.putIfNotInvalidated(id, entity, cacheVersion));
+        return foundEntity.map(this::loadRelatedEntity);
+    }
+
+    /*
+     * Rows read inside a transaction may be uncommitted and must not reach other threads through the cache,
+     * and the transaction must see its own changes instead of the cached rows
+     */
+    private Cache<Integer, E> entityCacheOutsideTransaction() {
+        return isTransactionActive() ? null : entityCache;
+    }
+
+    @Override
+    public Map<Integer, E> findByIds(Collection<Integer> ids) {
+        if (!isIdPresenceIndexUsable()) {
+            return findByIdsUnfiltered(ids);
+        }
+        List<Integer> presentIds = ids.stream()
+                .filter(id -> id != null && idPresenceIndex.contains(id))
+                .collect(Collectors.toList());
+        Map<Integer, E> foundEntities = findByIdsUnfiltered(presentIds);
+        presentIds.stream()
+                .distinct()
+                .filter(id -> !foundEntities.containsKey(id))
+                .forEach(id -> idPresenceIndex.recordFalsePositive());
+        return foundEntities;
+    }
+
+    private Map<Integer, E> findByIdsUnfiltered(Collection<Integer> ids) {
+        Set<Integer> requestedIds = new LinkedHashSet<>(ids);
+        requestedIds.remove(null);
+        Cache<Integer, E> cache = entityCacheOutsideTransaction();
+        Map<Integer, E> foundEntities = new HashMap<>();
+        List<Integer> missedIds = new ArrayList<>();
+        for (Integer id : requestedIds) {
+            E cachedEntity = cache == null ? null : cache.get(id);
+            if (cachedEntity != null) {
+                foundEntities.put(id, cachedEntity);
+            } else {
+                missedIds.add(id);
+            }
+        }
+        if (!missedIds.isEmpty()) {
+            long cacheVersion = cache == null ? 0 : cache.version();
+            List<E> loadedEntities = missedIds.size() < findByIdsTempTableThreshold
+                    ? findEntitiesByIdsArray(missedIds)
+                    : findEntitiesByIdsTable(missedIds);
+            for (E entity : loadedEntities) {
+                foundEntities.put(getEntityId(entity), entity);
+                if (cache != null) {
+                    cache.putIfNotInvalidated(getEntityId(entity), entity, cacheVersion);
+                }
+            }
+        }
+        List<E> entitiesInRequestOrder = requestedIds.stream()
+                .map(foundEntities::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        Map<Integer, E> entitiesById = new LinkedHashMap<>();
+        for (E entity : loadRelatedEntities(entitiesInRequestOrder)) {
+            entitiesById.put(getEntityId(entity), entity);
+        }
+        LOG.debug("{} of {} requested entities were found in {}", entitiesById.size(), requestedIds.size(),
+                getTableName());
+        return entitiesById;
+    }
+
+    private List<E> findEntitiesByIdsArray(List<Integer> ids) {
+        final String findByIdsQuery = String.format(FIND_BY_IDS_QUERY, getTableName());
+        try (final Connection connection = connector.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(findByIdsQuery)) {
+            INT_ARRAY_PARAM_SETTER.accept(preparedStatement, ids);
+            return mapFoundEntitiesToList(preparedStatement);
+        } catch (SQLException e) {
+            LOG.error("Entities wasn't found in DB by {} ids (SQL query: {}). Thrown exception: {}",
+                    ids.size(), findByIdsQuery, e);
+            throw new DataBaseSqlRuntimeException("", e);
+        }
+    }
+
+    // a big array makes a big statement and a poor plan, a temporary table of the session is joined instead
+    private List<E> findEntitiesByIdsTable(List<Integer> ids) {
+        final String findByRequestedIdsQuery = String.format(FIND_BY_REQUESTED_IDS_QUERY, getTableName());
+        try (final Connection connection = connector.getConnection()) {
+            try (final Statement statement = connection.createStatement()) {
+                statement.execute(H2_PRODUCT_NAME.equals(connection.getMetaData().getDatabaseProductName())
+                        ? CREATE_REQUESTED_IDS_TABLE_QUERY + H2_TRANSACTIONAL_TABLE_OPTION
+                        : CREATE_REQUESTED_IDS_TABLE_QUERY);
+                statement.executeUpdate(CLEAR_REQUESTED_IDS_QUERY);
+            }
+            try (final PreparedStatement preparedStatement = connection.prepareStatement(INSERT_REQUESTED_ID_QUERY)) {
+                for (int i = 0; i < ids.size(); i++) {
+                    preparedStatement.setInt(1, ids.get(i));
+                    preparedStatement.addBatch();
+                    if ((i + 1) % DEFAULT_FETCH_SIZE == 0 || i == ids.size() - 1) {
+                        preparedStatement.executeBatch();
+                    }
+                }
+            }
+            try (final PreparedStatement preparedStatement = connection.prepareStatement(findByRequestedIdsQuery)) {
+                return mapFoundEntitiesToList(preparedStatement);
+            } finally {
+                try (final Statement statement = connection.createStatement()) {
+                    statement.executeUpdate(CLEAR_REQUESTED_IDS_QUERY);
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Entities wasn't found in DB by {} ids (SQL query: {}). Thrown exception: {}",
+                    ids.size(), findByRequestedIdsQuery, e);
+            throw new DataBaseSqlRuntimeException("", e);
+        }
+    }
+
+    @Override
+    public boolean existsById(Integer id) {
+        if (id == null) {
+            return false;
+        }
+        if (isIdPresenceIndexUsable()) {
+            return idPresenceIndex.contains(id);
+        }
+        final String existsByIdQuery = String.format(EXISTS_BY_ID_QUERY, getTableName());
+        try (final Connection connection = connector.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(existsByIdQuery)) {
+            INT_PARAM_SETTER.accept(preparedStatement, id);
+            try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next();
+            }
+        } catch (SQLException e) {
+            LOG.error("Existence of entity wasn't checked by id = {} (SQL query: {}). Thrown exception: {}",
+                    id, existsByIdQuery, e);
+            throw new DataBaseSqlRuntimeException("", e);
+        }
+    }
+
+    @Override
+    public boolean existAll(Collection<Integer> ids) {
+        if (ids.contains(null)) {
+            return false;
+        }
+        Set<Integer> distinctIds = new HashSet<>(ids);
+        if (distinctIds.isEmpty()) {
+            return true;
+        }
+        if (isIdPresenceIndexUsable()) {
+            return distinctIds.stream().allMatch(idPresenceIndex::contains);
+        }
+        final String countExistingIdsQuery = String.format(COUNT_EXISTING_IDS_QUERY, getTableName());
+        try (final Connection connection = connector.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(countExistingIdsQuery)) {
+            INT_ARRAY_PARAM_SETTER.accept(preparedStatement, distinctIds);
+            try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1) == distinctIds.size();
+            }
+        } catch (SQLException e) {
+            LOG.error("Existence of entities wasn't checked by {} ids (SQL query: {}). Thrown exception: {}",
+                    distinctIds.size(), countExistingIdsQuery, e);
+            throw new DataBaseSqlRuntimeException("", e);
+        }
+    }
+
+    private BitSet findAllIds() {
+        final String findAllIdsQuery = String.format(FIND_ALL_IDS_QUERY, getTableName());
+        try (final Connection connection = connector.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(findAllIdsQuery)) {
+            preparedStatement.setFetchSize(DEFAULT_FETCH_SIZE);
+            BitSet ids = new BitSet();
+            try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    ids.set(resultSet.getInt(1));
+                }
+            }
+            LOG.debug("{} ids of {} were loaded into the id presence index", ids.cardinality(), getTableName());
+            return ids;
+        } catch (SQLException e) {
+            LOG.error("Ids wasn't found in DB by SQL query: {}. Thrown exception: {}", findAllIdsQuery, e);
+            throw new DataBaseSqlRuntimeException("", e);
+        }
+    }
+
+    // a transaction must see its own changes, so it queries the DB
+    private boolean isIdPresenceIndexUsable() {
+        return idPresenceIndex != null && !isTransactionActive();
+    }
+
+    private BloomFilter findAllNames() {
+        final String countRowsQuery = String.format(COUNT_ROWS_QUERY, getTableName());
+        final String findAllNamesQuery = String.format(FIND_ALL_NAMES_QUERY, getNameColumn(), getTableName());
+        try (final Connection connection = connector.getConnection()) {
+            long rowsCount;
+            try (final PreparedStatement preparedStatement = connection.prepareStatement(countRowsQuery);
+                 final ResultSet resultSet = preparedStatement.executeQuery()) {
+                resultSet.next();
+                rowsCount = resultSet.getLong(1);
+            }
+            BloomFilter names = new BloomFilter(Math.max(rowsCount * NAME_FILTER_GROWTH_FACTOR,
+                    MIN_NAME_FILTER_CAPACITY), DEFAULT_NAME_FILTER_FALSE_POSITIVE_RATE);
+            try (final PreparedStatement preparedStatement = connection.prepareStatement(findAllNamesQuery)) {
+                preparedStatement.setFetchSize(DEFAULT_FETCH_SIZE);
+                try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        names.put(resultSet.getString(1));
+                    }
+                }
+            }
+            LOG.debug("{} names of {} were loaded into a name filter of {} bytes", names.getInsertionCount(),
+                    getTableName(), names.memoryBytes());
+            return names;
+        } catch (SQLException e) {
+            LOG.error("Names wasn't found in DB by SQL query: {}. Thrown exception: {}", findAllNamesQuery, e);
+            throw new DataBaseSqlRuntimeException("", e);
+        }
+    }
+
+    /*
+     * A name of a rolled back row is kept, it only costs a query that finds nothing. A filter loaded while the
+     * transaction is open can't see its rows, so the names are added once more after completion
+     */
+    private void onNamesWritten(Collection<E> entities) {
+        if (namePresenceFilter == null) {
+            return;
+        }
+        List<String> names = entities.stream()
+                .map(this::getName)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        names.forEach(namePresenceFilter::add);
+        runAfterTransactionCompletion(() -> names.forEach(namePresenceFilter::add));
+    }
+
+    // a name the filter has never seen isn't in the table, so notFound is returned without running the query
+    protected <R> R findByName(String name, Function<String, R> finder, R notFound) {
+        if (namePresenceFilter == null || name == null) {
+            return finder.apply(name);
+        }
+        if (!namePresenceFilter.mightContain(name)) {
+            return notFound;
+        }
+        R found = finder.apply(name);
+        if (notFound.equals(found)) {
+            namePresenceFilter.recordFalsePositive();
+        }
+        return found;
+    }
+
+    /*
+     * Ids of a transaction aren't added before it commits, other threads would take rows that may be rolled back
+     * for present. The ids are loaded again after completion instead
+     */
+    private void onIdsAdded(Collection<Integer> ids) {
+        if (idPresenceIndex == null) {
+            return;
+        }
+        if (isTransactionActive()) {
+            runAfterTransactionCompletion(idPresenceIndex::invalidate);
+        } else {
+            ids.forEach(idPresenceIndex::add);
+        }
+    }
+
+    private void onIdRemoved(int id) {
+        if (idPresenceIndex != null) {
+            idPresenceIndex.remove(id);
+            runAfterTransactionCompletion(idPresenceIndex::invalidate);
+        }
     }
 
     @Override
@@ -97,12 +666,25 @@ public abstract class AbstractCrudDaoImpl<E> implements CrudDao<E> {
         }
     }
 
+    @Override
+    public Stream<E> streamAll() {
+        return streamAll(DEFAULT_FETCH_SIZE);
+    }
+
+    @Override
+    public Stream<E> streamAll(int fetchSize) {
+        return streamManyByParam(null, findAllQuery, NO_PARAM_SETTER, fetchSize);
+    }
+
     @Override
     public void update(E entity) {
         try (final Connection connection = connector.getConnection();
              final PreparedStatement preparedStatement = connection.prepareStatement(updateEntityQuery)) {
             setStatementForUpdate(preparedStatement, entity);
             preparedStatement.executeUpdate();
+            invalidateCachedEntity(getEntityId(entity));
+            markTableChanged(getTableName());
+            onNamesWritten(Collections.singletonList(entity));
             LOG.info("{} entity was updated in DB. Entities parameters: {} ",
                     entity.getClass().getSimpleName(), entity);
         } catch (SQLException e) {
@@ -133,13 +715,29 @@ public abstract class AbstractCrudDaoImpl<E> implements CrudDao<E> {
         return findManyByParam(param, findQuery, STRING_PARAM_SETTER);
     }
 
+    protected List<E> findManyByIntParams(Collection<Integer> params, String findQuery) {
+        if (params.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return findManyByParam(params, findQuery, INT_ARRAY_PARAM_SETTER);
+    }
+
+    protected Stream<E> streamManyByIntParam(int param, String findQuery, int fetchSize) {
+        return streamManyByParam(param, findQuery, INT_PARAM_SETTER, fetchSize);
+    }
+
     private <P> Optional<E> findByParam(P param, String findByParam, BiConsumer<PreparedStatement, P> designatedParamSetter) {
+        return findEntityByParam(param, findByParam, designatedParamSetter).map(this::loadRelatedEntity);
+    }
+
+    private <P> Optional<E> findEntityByParam(P param, String findByParam,
+                                              BiConsumer<PreparedStatement, P> designatedParamSetter) {
         try (final Connection connection = connector.getConnection();
              final PreparedStatement preparedStatement = connection.prepareStatement(findByParam)) {
             designatedParamSetter.accept(preparedStatement, param);
             try (final ResultSet resultSet = preparedStatement.executeQuery()) {
                 if (resultSet.next()) {
-                    return Optional.of(mapResultSetToEntity(resultSet));
+                    return Optional.of(createRowMapper(resultSet).mapRow(resultSet));
                 }
             }
         } catch (SQLException e) {
@@ -162,11 +760,62 @@ public abstract class AbstractCrudDaoImpl<E> implements CrudDao<E> {
         }
     }
 
+    /*
+     * Autocommit is switched off so PostgreSQL keeps a server-side cursor and sends rows by fetchSize,
+     * the connection stays open until the returned stream is closed. Inside a transaction the stream
+     * leaves the transaction state to its owner.
+     */
+    private <P> Stream<E> streamManyByParam(P param, String findQuery,
+                                            BiConsumer<PreparedStatement, P> designatedParamSetter, int fetchSize) {
+        Connection openedConnection = null;
+        boolean autoCommitSwitched = false;
+        try {
+            final Connection connection = connector.getConnection();
+            openedConnection = connection;
+            final boolean ownTransaction = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            autoCommitSwitched = ownTransaction;
+            final PreparedStatement preparedStatement = connection
+                    .prepareStatement(findQuery, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            preparedStatement.setFetchSize(fetchSize);
+            designatedParamSetter.accept(preparedStatement, param);
+            final ResultSet resultSet = preparedStatement.executeQuery();
+            return StreamSupport.stream(new ResultSetSpliterator(resultSet, fetchSize), false)
+                    .onClose(() -> closeStreamResources(connection, preparedStatement, resultSet, ownTransaction));
+        } catch (SQLException e) {
+            if (openedConnection != null) {
+                closeStreamResources(openedConnection, null, null, autoCommitSwitched);
+            }
+            LOG.error("Entities wasn't streamed from DB by parameter = {} (SQL query: {}). Thrown exception: {}",
+                    param, findQuery, e);
+            throw new DataBaseSqlRuntimeException("", e);
+        }
+    }
+
+    private static void closeStreamResources(Connection connection, Statement statement, ResultSet resultSet,
+                                             boolean ownTransaction) {
+        try (final Connection closingConnection = connection;
+             final Statement closingStatement = statement;
+             final ResultSet closingResultSet = resultSet) {
+            if (ownTransaction) {
+                closingConnection.rollback();
+                closingConnection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            LOG.error("Streaming resources wasn't closed. Thrown exception: {}", e);
+            throw new DataBaseSqlRuntimeException("", e);
+        }
+    }
+
     private void deleteById(Integer id, BiConsumer<PreparedStatement, Integer> designatedParamSetter) {
         try (final Connection connection = connector.getConnection();
              final PreparedStatement preparedStatement = connection.prepareStatement(deleteByIdQuery)) {
             designatedParamSetter.accept(preparedStatement, id);
-            preparedStatement.executeUpdate();
+            int deletedRows = preparedStatement.executeUpdate();
+            invalidateCachedEntity(id);
+            markTableChanged(getTableName());
+            onIdRemoved(id);
+            onRowsCountChanged(-deletedRows);
             LOG.info("Entity was deleted from DB by id = {} (SQL query: {}).",
                     id, deleteByIdQuery);
         } catch (SQLException e) {
@@ -176,12 +825,16 @@ public abstract class AbstractCrudDaoImpl<E> implements CrudDao<E> {
         }
     }
 
-    private List<E> collectFoundEntitiesToList(PreparedStatement preparedStatement) {
+    protected List<E> collectFoundEntitiesToList(PreparedStatement preparedStatement) {
+        return loadRelatedEntities(mapFoundEntitiesToList(preparedStatement));
+    }
+
+    protected List<E> mapFoundEntitiesToList(PreparedStatement preparedStatement) {
         try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+            final RowMapper<E> rowMapper = createRowMapper(resultSet);
             List<E> entities = new ArrayList<>();
             while (resultSet.next()) {
-                final E entity = mapResultSetToEntity(resultSet);
-                entities.add(entity);
+                entities.add(rowMapper.mapRow(resultSet));
             }
             return entities;
         } catch (SQLException e) {
@@ -190,6 +843,52 @@ public abstract class AbstractCrudDaoImpl<E> implements CrudDao<E> {
         }
     }
 
+    // maps rows in chunks of fetchSize so related entities are still loaded with one query per chunk
+    private class ResultSetSpliterator extends Spliterators.AbstractSpliterator<E> {
+
+        private final ResultSet resultSet;
+        private final int chunkSize;
+        private RowMapper<E> rowMapper;
+        private Iterator<E> chunk = Collections.emptyIterator();
+        private boolean exhausted;
+
+        private ResultSetSpliterator(ResultSet resultSet, int chunkSize) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.resultSet = resultSet;
+            this.chunkSize = Math.max(chunkSize, 1);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (!chunk.hasNext() && !exhausted) {
+                chunk = readChunk().iterator();
+            }
+            if (!chunk.hasNext()) {
+                return false;
+            }
+            action.accept(chunk.next());
+            return true;
+        }
+
+        private List<E> readChunk() {
+            try {
+                if (rowMapper == null) {
+                    rowMapper = createRowMapper(resultSet);
+                }
+                List<E> entities = new ArrayList<>(chunkSize);
+                while (entities.size() < chunkSize && resultSet.next()) {
+                    entities.add(rowMapper.mapRow(resultSet));
+                }
+                exhausted = entities.size() < chunkSize;
+                return loadRelatedEntities(entities);
+            } catch (SQLException e) {
+                LOG.error("Streamed entities wasn't read from result set. Thrown exception: {}", e);
+                throw new DataBaseSqlRuntimeException("", e);
+            }
+        }
+
+    }
+
     private Integer getGeneratedId(PreparedStatement preparedStatement) throws SQLException {
         int affectedRows = preparedStatement.executeUpdate();
         if (affectedRows == 0) {
@@ -204,12 +903,106 @@ public abstract class AbstractCrudDaoImpl<E> implements CrudDao<E> {
         }
     }
 
-    protected abstract void setStatementForSave(PreparedStatement preparedStatement, E entity);
+    protected static Array createIntArray(Connection connection, Collection<Integer> params) throws SQLException {
+        return connection.createArrayOf("integer", params.toArray());
+    }
+
+    protected List<E> loadRelatedEntities(List<E> entities) {
+        return entities;
+    }
+
+    private E loadRelatedEntity(E entity) {
+        return loadRelatedEntities(Collections.singletonList(entity)).get(0);
+    }
+
+    protected void invalidateCachedEntity(int id) {
+        if (entityCache != null) {
+            invalidateAfterWrite(() -> entityCache.invalidate(id));
+        }
+        CoalescingLoader<E> loader = findByIdLoader;
+        if (loader != null) {
+            invalidateAfterWrite(() -> loader.invalidate(id));
+        }
+    }
+
+    protected void markTableChanged(String table) {
+        if (tableVersions != null) {
+            invalidateAfterWrite(() -> tableVersions.increment(table));
+        }
+    }
+
+    /*
+     * Inside a transaction the invalidation runs once more after commit or rollback,
+     * otherwise a concurrent reader could cache the row version that was committed before.
+     */
+    protected void invalidateAfterWrite(Runnable invalidation) {
+        invalidation.run();
+        runAfterTransactionCompletion(invalidation);
+    }
+
+    protected void runAfterTransactionCompletion(Runnable action) {
+        if (isTransactionActive()) {
+            transactionManager.afterCompletion(action);
+        }
+    }
+
+    protected boolean isTransactionActive() {
+        return transactionManager != null && transactionManager.isActive();
+    }
+
+    // rethrows the exception the future was completed with instead of wrapping it into CompletionException
+    protected static <T> T joinUnwrapped(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    protected void onRowsCountChanged(int delta) {
+    }
+
+    // called when rows were written without knowing how many of them are new
+    protected void onRowsCountUnknown() {
+    }
+
+    // a unique column upsertAllByNaturalKey matches rows by, null if the table has none
+    protected String getNaturalKeyColumn() {
+        return null;
+    }
+
+    protected String getNaturalKey(E entity) {
+        throw new UnsupportedOperationException("Table " + getTableName() + " has no natural key");
+    }
+
+    // the column looked up by name, null if the DAO has no lookup by name
+    protected String getNameColumn() {
+        return null;
+    }
+
+    protected String getName(E entity) {
+        throw new UnsupportedOperationException("Table " + getTableName() + " has no lookup by name");
+    }
+
+    protected void setStatementForSave(PreparedStatement preparedStatement, E entity) {
+        setStatementForSave(preparedStatement, entity, 1);
+    }
+
+    // sets the parameters of one row starting at firstParameterIndex, so rows of a multi-row INSERT follow each other
+    protected abstract void setStatementForSave(PreparedStatement preparedStatement, E entity,
+                                                int firstParameterIndex);
 
     protected abstract void setStatementForUpdate(PreparedStatement preparedStatement, E entity);
 
-    protected abstract E mapResultSetToEntity(ResultSet resultSet) throws SQLException;
+    protected abstract RowMapper<E> createRowMapper(ResultSet resultSet) throws SQLException;
 
     protected abstract E makeEntityWithId(E entity, int id);
 
+    protected abstract int getEntityId(E entity);
+
+    protected abstract String getTableName();
+
 }
@@ -1,7 +1,15 @@
 package com.mikhail.tarasevich.dao.impl;
 
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import com.mikhail.tarasevich.cache.Cache;
+import com.mikhail.tarasevich.cache.PageCacheKey;
+import com.mikhail.tarasevich.cache.PageCacheKey.PageType;
 import com.mikhail.tarasevich.dao.ConnectorDB;
+import com.mikhail.tarasevich.dao.CountMode;
 import com.mikhail.tarasevich.dao.CrudPageableDao;
+import com.mikhail.tarasevich.dao.Page;
+import com.mikhail.tarasevich.dao.RowMapper;
 import com.mikhail.tarasevich.dao.exception.DataBaseSqlRuntimeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,34 +20,102 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 public abstract class AbstractPageableCrudDaoImpl<E> extends AbstractCrudDaoImpl<E> implements CrudPageableDao<E> {
 
     private static final Logger LOG = LoggerFactory.getLogger(AbstractPageableCrudDaoImpl.class);
+    private static final long UNKNOWN_ROWS_COUNT = -1;
+    private static final String POSTGRESQL_PRODUCT_NAME = "PostgreSQL";
+    private static final String ESTIMATE_TABLE_ROWS_QUERY =
+            "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)";
+    private static final String TOTAL_COUNT_COLUMN = "total_count";
     private final String findAllPageableQuery;
+    private final String findPageAfterQuery;
+    private final String findPageWithTotalQuery;
     private final String countTableRowsQuery;
+    private Cache<PageCacheKey, Page<E>> pageCache;
+    private final AtomicLong cachedRowsCount = new AtomicLong(UNKNOWN_ROWS_COUNT);
+    private volatile long cachedRowsCountReconciledAtMillis;
+    private long countReconcileIntervalMillis = TimeUnit.MINUTES.toMillis(1);
 
     public AbstractPageableCrudDaoImpl(ConnectorDB connector, String saveEntityQuery, String findByIdQuery,
-                                       String findAllQuery, String findAllPageableQuery, String updateEntityQuery,
+                                       String findAllQuery, String findAllPageableQuery, String findPageAfterQuery,
+                                       String findPageWithTotalQuery, String updateEntityQuery,
                                        String deleteByIdQuery, String countTableRowsQuery) {
         super(connector, saveEntityQuery, findByIdQuery, findAllQuery, updateEntityQuery, deleteByIdQuery);
         this.findAllPageableQuery = findAllPageableQuery;
+        this.findPageAfterQuery = findPageAfterQuery;
+        this.findPageWithTotalQuery = findPageWithTotalQuery;
         this.countTableRowsQuery = countTableRowsQuery;
     }
 
+    // pages are cached without related entities, the version of the table makes a part of the key
+    @Inject(optional = true)
+    public void setPageCache(Cache<PageCacheKey, Page<E>> pageCache) {
+        this.pageCache = pageCache;
+    }
+
+    // how long a cached count is trusted before it is recounted, writes of other applications are caught up then
+    @Inject(optional = true)
+    public void setCountReconcileIntervalMillis(@Named("countReconcileIntervalMillis") long intervalMillis) {
+        this.countReconcileIntervalMillis = intervalMillis;
+    }
+
     @Override
     public List<E> findAll(int page, int itemsPerPage) {
+        return findCachedPage(PageType.OFFSET, page, itemsPerPage, () -> findOffsetPage(page, itemsPerPage))
+                .getContent();
+    }
+
+    @Override
+    public Page<E> findPageAfter(int lastId, int itemsPerPage) {
+        if (itemsPerPage < 1) {
+            throw new IllegalArgumentException("Items per page must be positive");
+        }
+        return findCachedPage(PageType.AFTER_ID, lastId, itemsPerPage, () -> findPageAfterId(lastId, itemsPerPage));
+    }
+
+    @Override
+    public Page<E> findPage(int page, int itemsPerPage) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        if (itemsPerPage < 1) {
+            throw new IllegalArgumentException("Items per page must be positive");
+        }
+        return findCachedPage(PageType.OFFSET_WITH_TOTAL, page, itemsPerPage,
+                () -> findOffsetPageWithTotal(page, itemsPerPage));
+    }
+
+    private Page<E> findCachedPage(PageType pageType, int position, int itemsPerPage, Supplier<Page<E>> pageLoader) {
+        Page<E> page;
+        // table versions change as soon as a transaction writes, so its pages would be cached for other threads
+        if (pageCache == null || tableVersions == null || isTransactionActive()) {
+            page = pageLoader.get();
+        } else {
+            PageCacheKey key = new PageCacheKey(pageType, position, itemsPerPage,
+                    tableVersions.version(getTableName()));
+            page = pageCache.get(key);
+            if (page == null) {
+                long cacheVersion = pageCache.version();
+                page = pageLoader.get();
+                pageCache.putIfNotInvalidated(key, page, cacheVersion);
+            }
+        }
+        return new Page<>(loadRelatedEntities(new ArrayList<>(page.getContent())), page.getNextPageToken(),
+                page.getTotalCount());
+    }
+
+    private Page<E> findOffsetPage(int page, int itemsPerPage) {
         int offsetToPage = page * itemsPerPage;
         try (final Connection connection = connector.getConnection();
              final PreparedStatement preparedStatement = connection.prepareStatement(findAllPageableQuery)) {
             preparedStatement.setInt(1, itemsPerPage);
             preparedStatement.setInt(2, offsetToPage);
-            ResultSet resultSet = preparedStatement.executeQuery();
-            List<E> entities = new ArrayList<>();
-            while (resultSet.next()) {
-                entities.add(mapResultSetToEntity(resultSet));
-            }
-            return entities;
+            return new Page<>(mapFoundEntitiesToList(preparedStatement), null);
         } catch (SQLException e) {
             LOG.error("Entities wasn't found in DB by SQL query: {}. Thrown exception: {}",
                     findAllPageableQuery, e);
@@ -47,19 +123,135 @@ public abstract class AbstractPageableCrudDaoImpl<E> extends AbstractCrudDaoImpl
         }
     }
 
+    private Page<E> findOffsetPageWithTotal(int page, int itemsPerPage) {
+        int offsetToPage = page * itemsPerPage;
+        try (final Connection connection = connector.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(findPageWithTotalQuery)) {
+            preparedStatement.setInt(1, itemsPerPage);
+            preparedStatement.setInt(2, offsetToPage);
+            List<E> content = new ArrayList<>();
+            long totalCount = 0;
+            try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                final RowMapper<E> rowMapper = createRowMapper(resultSet);
+                final int totalCountColumn = resultSet.findColumn(TOTAL_COUNT_COLUMN);
+                while (resultSet.next()) {
+                    content.add(rowMapper.mapRow(resultSet));
+                    totalCount = resultSet.getLong(totalCountColumn);
+                }
+            }
+            if (content.isEmpty()) {
+                // a page behind the last row has no row to carry the window count
+                totalCount = countExact(connection);
+            }
+            Integer nextPageToken = offsetToPage + content.size() < totalCount
+                    ? getEntityId(content.get(content.size() - 1))
+                    : null;
+            return new Page<>(content, nextPageToken, totalCount);
+        } catch (SQLException e) {
+            LOG.error("Entities wasn't found in DB by SQL query: {}. Thrown exception: {}",
+                    findPageWithTotalQuery, e);
+            throw new DataBaseSqlRuntimeException("", e);
+        }
+    }
+
+    private Page<E> findPageAfterId(int lastId, int itemsPerPage) {
+        try (final Connection connection = connector.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(findPageAfterQuery)) {
+            preparedStatement.setInt(1, lastId);
+            preparedStatement.setInt(2, itemsPerPage + 1);
+            List<E> entities = mapFoundEntitiesToList(preparedStatement);
+            if (entities.size() <= itemsPerPage) {
+                return new Page<>(entities, null);
+            }
+            List<E> content = new ArrayList<>(entities.subList(0, itemsPerPage));
+            return new Page<>(content, getEntityId(content.get(itemsPerPage - 1)));
+        } catch (SQLException e) {
+            LOG.error("Entities wasn't found in DB after id = {} by SQL query: {}. Thrown exception: {}",
+                    lastId, findPageAfterQuery, e);
+            throw new DataBaseSqlRuntimeException("", e);
+        }
+    }
+
     @Override
     public long count() {
-        try (final Connection connection = connector.getConnection();
-             final PreparedStatement preparedStatement = connection.prepareStatement(countTableRowsQuery)) {
-            ResultSet resultSet = preparedStatement.executeQuery();
-            if (resultSet.next()) {
-                return resultSet.getLong(1);
+        return count(CountMode.EXACT);
+    }
+
+    @Override
+    public long count(CountMode countMode) {
+        switch (countMode) {
+            case CACHED:
+                return countCached();
+            case ESTIMATED:
+                return countEstimated();
+            default:
+                return countExact();
+        }
+    }
+
+    @Override
+    protected void onRowsCountChanged(int delta) {
+        cachedRowsCount.getAndUpdate(count -> count == UNKNOWN_ROWS_COUNT ? count : Math.max(count + delta, 0));
+        // a rolled back transaction would leave the counter wrong, so it is recounted after completion
+        runAfterTransactionCompletion(() -> cachedRowsCount.set(UNKNOWN_ROWS_COUNT));
+    }
+
+    @Override
+    protected void onRowsCountUnknown() {
+        cachedRowsCount.set(UNKNOWN_ROWS_COUNT);
+        runAfterTransactionCompletion(() -> cachedRowsCount.set(UNKNOWN_ROWS_COUNT));
+    }
+
+    private long countCached() {
+        long count = cachedRowsCount.get();
+        long now = System.currentTimeMillis();
+        if (count == UNKNOWN_ROWS_COUNT || now - cachedRowsCountReconciledAtMillis >= countReconcileIntervalMillis) {
+            count = countExact();
+            cachedRowsCount.set(count);
+            cachedRowsCountReconciledAtMillis = now;
+            LOG.debug("Cached count of rows in {} was reconciled: {}", getTableName(), count);
+        }
+        return count;
+    }
+
+    private long countEstimated() {
+        try (final Connection connection = connector.getConnection()) {
+            if (POSTGRESQL_PRODUCT_NAME.equals(connection.getMetaData().getDatabaseProductName())) {
+                try (final PreparedStatement preparedStatement =
+                             connection.prepareStatement(ESTIMATE_TABLE_ROWS_QUERY)) {
+                    preparedStatement.setString(1, getTableName());
+                    try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                        // reltuples is 0 or -1 until the table is analyzed for the first time
+                        if (resultSet.next() && resultSet.getLong(1) > 0) {
+                            return resultSet.getLong(1);
+                        }
+                    }
+                }
             }
+            return countExact(connection);
+        } catch (SQLException e) {
+            LOG.error("Rows weren't estimated in DB table {}. Thrown exception: {}", getTableName(), e);
+            throw new DataBaseSqlRuntimeException("", e);
+        }
+    }
+
+    private long countExact() {
+        try (final Connection connection = connector.getConnection()) {
+            return countExact(connection);
         } catch (SQLException e) {
             LOG.error("Rows weren't counted in DB table by SQL query: {}. Thrown exception: {}",
                     countTableRowsQuery, e);
             throw new DataBaseSqlRuntimeException("", e);
         }
+    }
+
+    private long countExact(Connection connection) throws SQLException {
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(countTableRowsQuery);
+             final ResultSet resultSet = preparedStatement.executeQuery()) {
+            if (resultSet.next()) {
+                return resultSet.getLong(1);
+            }
+        }
         return 0;
     }
 
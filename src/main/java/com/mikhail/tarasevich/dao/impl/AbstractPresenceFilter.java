@@ -0,0 +1,140 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import com.mikhail.tarasevich.dao.PresenceFilterStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/*
+ * Keys present in a table, loaded by a scan on the first lookup and after every invalidation. Keys added or removed
+ * while the scan runs are applied to its result, so no change is lost.
+ */
+public abstract class AbstractPresenceFilter<S> {
+
+    private final Supplier<S> loader;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object loadMonitor = new Object();
+    private final AtomicLong lookupCount = new AtomicLong();
+    private final AtomicLong definiteMissCount = new AtomicLong();
+    private final AtomicLong falsePositiveCount = new AtomicLong();
+    private S presentKeys;
+    private List<Consumer<S>> changesDuringLoad;
+    private long invalidations;
+
+    protected AbstractPresenceFilter(Supplier<S> loader) {
+        this.loader = loader;
+    }
+
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            presentKeys = null;
+            changesDuringLoad = null;
+            invalidations++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // the key passed the filter, but the table had no row for it
+    public void recordFalsePositive() {
+        falsePositiveCount.incrementAndGet();
+    }
+
+    public PresenceFilterStatistics getStatistics() {
+        lock.readLock().lock();
+        try {
+            return new PresenceFilterStatistics(lookupCount.get(), definiteMissCount.get(), falsePositiveCount.get(),
+                    presentKeys == null ? 0 : memoryBytes(presentKeys),
+                    presentKeys == null ? 0 : expectedFalsePositiveRate(presentKeys));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    protected boolean mightContain(Predicate<S> lookup) {
+        lookupCount.incrementAndGet();
+        while (true) {
+            lock.readLock().lock();
+            try {
+                if (presentKeys != null) {
+                    boolean present = lookup.test(presentKeys);
+                    if (!present) {
+                        definiteMissCount.incrementAndGet();
+                    }
+                    return present;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            load();
+        }
+    }
+
+    protected void change(Consumer<S> change) {
+        lock.writeLock().lock();
+        try {
+            if (presentKeys != null) {
+                change.accept(presentKeys);
+            } else if (changesDuringLoad != null) {
+                changesDuringLoad.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    protected void invalidateIf(Predicate<S> condition) {
+        lock.writeLock().lock();
+        try {
+            if (presentKeys != null && condition.test(presentKeys)) {
+                invalidate();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    protected abstract long memoryBytes(S keys);
+
+    protected abstract double expectedFalsePositiveRate(S keys);
+
+    // keys loaded across an invalidation may miss the changes it stands for, so they are thrown away
+    private void load() {
+        synchronized (loadMonitor) {
+            long invalidationsBeforeLoad;
+            lock.writeLock().lock();
+            try {
+                if (presentKeys != null) {
+                    return;
+                }
+                changesDuringLoad = new ArrayList<>();
+                invalidationsBeforeLoad = invalidations;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            S loadedKeys = null;
+            try {
+                loadedKeys = loader.get();
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    if (loadedKeys != null && invalidations == invalidationsBeforeLoad) {
+                        presentKeys = loadedKeys;
+                        changesDuringLoad.forEach(change -> change.accept(presentKeys));
+                    }
+                    changesDuringLoad = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import com.google.inject.Inject;
+import com.mikhail.tarasevich.dao.AsyncCourseDao;
+import com.mikhail.tarasevich.dao.CourseDao;
+import com.mikhail.tarasevich.entity.Course;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncCourseDaoImpl extends AbstractAsyncCrudDaoImpl<Course, CourseDao> implements AsyncCourseDao {
+
+    @Inject
+    public AsyncCourseDaoImpl(CourseDao courseDao, DaoExecutor executor) {
+        super(courseDao, executor);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Course>> findByCourseName(String courseName) {
+        return supplyAsync(() -> dao.findByCourseName(courseName));
+    }
+
+    @Override
+    public CompletableFuture<List<Course>> findCoursesByStudentId(int id) {
+        return supplyAsync(() -> dao.findCoursesByStudentId(id));
+    }
+
+    @Override
+    public CompletableFuture<Map<Integer, List<Course>>> findCoursesByStudentIds(List<Integer> ids) {
+        return supplyAsync(() -> dao.findCoursesByStudentIds(ids));
+    }
+
+    @Override
+    public CompletableFuture<List<Course>> upsertAll(List<Course> courses) {
+        return supplyWriteAsync(() -> dao.upsertAll(courses));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteCourseById(int id) {
+        return runWriteAsync(() -> dao.deleteCourseById(id));
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import com.google.inject.Inject;
+import com.mikhail.tarasevich.dao.AsyncGroupDao;
+import com.mikhail.tarasevich.dao.GroupDao;
+import com.mikhail.tarasevich.entity.Group;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncGroupDaoImpl extends AbstractAsyncCrudDaoImpl<Group, GroupDao> implements AsyncGroupDao {
+
+    @Inject
+    public AsyncGroupDaoImpl(GroupDao groupDao, DaoExecutor executor) {
+        super(groupDao, executor);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Group>> findByGroupName(String groupName) {
+        return supplyAsync(() -> dao.findByGroupName(groupName));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Group>> findGroupByStudentId(Integer id) {
+        return supplyAsync(() -> dao.findGroupByStudentId(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Group>> findGroupsWithLessEqualCountOfStudents(int countOfStudents) {
+        return supplyAsync(() -> dao.findGroupsWithLessEqualCountOfStudents(countOfStudents));
+    }
+
+    @Override
+    public CompletableFuture<List<Group>> upsertAll(List<Group> groups) {
+        return supplyWriteAsync(() -> dao.upsertAll(groups));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteGroupById(Integer id) {
+        return runWriteAsync(() -> dao.deleteGroupById(id));
+    }
+
+}
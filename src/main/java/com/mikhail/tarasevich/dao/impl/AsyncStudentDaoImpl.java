@@ -0,0 +1,79 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import com.google.inject.Inject;
+import com.mikhail.tarasevich.dao.AsyncStudentDao;
+import com.mikhail.tarasevich.dao.StudentDao;
+import com.mikhail.tarasevich.entity.Student;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncStudentDaoImpl extends AbstractAsyncCrudDaoImpl<Student, StudentDao> implements AsyncStudentDao {
+
+    @Inject
+    public AsyncStudentDaoImpl(StudentDao studentDao, DaoExecutor executor) {
+        super(studentDao, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> subscribeStudentToCourses(Student student) {
+        return runWriteAsync(() -> dao.subscribeStudentToCourses(student));
+    }
+
+    @Override
+    public CompletableFuture<Void> subscribeStudentsToCourses(List<Student> students) {
+        return runWriteAsync(() -> dao.subscribeStudentsToCourses(students));
+    }
+
+    @Override
+    public CompletableFuture<Void> subscribeStudentToCourse(int studentId, int courseId) {
+        return runWriteAsync(() -> dao.subscribeStudentToCourse(studentId, courseId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> subscribeStudentToCourseIfAbsent(int studentId, int courseId) {
+        return supplyWriteAsync(() -> dao.subscribeStudentToCourseIfAbsent(studentId, courseId));
+    }
+
+    @Override
+    public CompletableFuture<Void> flushWrites() {
+        return runWriteAsync(dao::flushWrites);
+    }
+
+    @Override
+    public CompletableFuture<List<Student>> findByFirstName(String firstName) {
+        return supplyAsync(() -> dao.findByFirstName(firstName));
+    }
+
+    @Override
+    public CompletableFuture<List<Student>> findStudentsRelatedToCourse(int courseId) {
+        return supplyAsync(() -> dao.findStudentsRelatedToCourse(courseId));
+    }
+
+    @Override
+    public CompletableFuture<List<Student>> findStudentsByGroupId(int id) {
+        return supplyAsync(() -> dao.findStudentsByGroupId(id));
+    }
+
+    @Override
+    public CompletableFuture<Map<Integer, List<Student>>> findStudentsByGroupIds(List<Integer> ids) {
+        return supplyAsync(() -> dao.findStudentsByGroupIds(ids));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteStudentById(int id) {
+        return runWriteAsync(() -> dao.deleteStudentById(id));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeStudentFromCourse(int studentId, int courseId) {
+        return runWriteAsync(() -> dao.removeStudentFromCourse(studentId, courseId));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeStudentFromGroup(int studentId) {
+        return runWriteAsync(() -> dao.removeStudentFromGroup(studentId));
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.mikhail.tarasevich.dao.impl;
+
+/*
+ * Bits of a string are chosen by double hashing of one 64-bit FNV-1a hash. The filter is sized for
+ * expectedInsertions strings at falsePositiveRate, past that number the rate grows.
+ */
+public class BloomFilter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final double LN_2 = Math.log(2);
+    private final long[] bits;
+    private final long bitSize;
+    private final int hashFunctionCount;
+    private final long expectedInsertions;
+    private long insertionCount;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        this.expectedInsertions = Math.max(expectedInsertions, 1);
+        long optimalBitSize = (long) Math.ceil(-this.expectedInsertions * Math.log(falsePositiveRate) / (LN_2 * LN_2));
+        this.bits = new long[(int) ((Math.max(optimalBitSize, Long.SIZE) + Long.SIZE - 1) / Long.SIZE)];
+        this.bitSize = (long) bits.length * Long.SIZE;
+        this.hashFunctionCount = Math.max((int) Math.round((double) bitSize / this.expectedInsertions * LN_2), 1);
+    }
+
+    public void put(String value) {
+        long hash = hash(value);
+        int firstHash = (int) hash;
+        int secondHash = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctionCount; i++) {
+            long bitIndex = Math.floorMod(firstHash + (long) i * secondHash, bitSize);
+            bits[(int) (bitIndex / Long.SIZE)] |= 1L << bitIndex;
+        }
+        insertionCount++;
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int firstHash = (int) hash;
+        int secondHash = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctionCount; i++) {
+            long bitIndex = Math.floorMod(firstHash + (long) i * secondHash, bitSize);
+            if ((bits[(int) (bitIndex / Long.SIZE)] & (1L << bitIndex)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // (1 - e^(-k * n / m))^k for k hash functions, n insertions and m bits
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashFunctionCount * (double) insertionCount / bitSize), hashFunctionCount);
+    }
+
+    public boolean isOverCapacity() {
+        return insertionCount > expectedInsertions;
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashFunctionCount() {
+        return hashFunctionCount;
+    }
+
+    public long getInsertionCount() {
+        return insertionCount;
+    }
+
+    public long memoryBytes() {
+        return (long) bits.length * Long.BYTES;
+    }
+
+    private static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+}
@@ -0,0 +1,211 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import com.google.inject.Inject;
+import com.mikhail.tarasevich.cache.TableVersions;
+import com.mikhail.tarasevich.dao.BulkLoader;
+import com.mikhail.tarasevich.dao.ConnectorDB;
+import com.mikhail.tarasevich.dao.TransactionManager;
+import com.mikhail.tarasevich.dao.exception.DataBaseSqlRuntimeException;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class BulkLoaderImpl implements BulkLoader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkLoaderImpl.class);
+    private static final String POSTGRESQL_PRODUCT_NAME = "PostgreSQL";
+    private static final String RESERVE_IDS_QUERY =
+            "SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)";
+    // the id column of other databases takes its default from a sequence named like the one of a SERIAL column
+    private static final String RESERVE_NAMED_SEQUENCE_IDS_QUERY =
+            "SELECT NEXT VALUE FOR %s_id_seq FROM SYSTEM_RANGE(1, ?)";
+    private static final String COPY_QUERY = "COPY %s (%s) FROM STDIN";
+    private static final String INSERT_QUERY = "INSERT INTO %s (%s) VALUES (%s)";
+    private static final String COPY_NULL = "\\N";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final int INSERT_BATCH_SIZE = 1000;
+    private final ConnectorDB connector;
+    private TransactionManager transactionManager;
+    private TableVersions tableVersions;
+
+    @Inject
+    public BulkLoaderImpl(ConnectorDB connector) {
+        this.connector = connector;
+    }
+
+    @Inject(optional = true)
+    public void setTransactionManager(TransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    @Inject(optional = true)
+    public void setTableVersions(TableVersions tableVersions) {
+        this.tableVersions = tableVersions;
+    }
+
+    @Override
+    public int[] reserveIds(String table, int quantity) {
+        if (quantity <= 0) {
+            return new int[0];
+        }
+        try (final Connection connection = connector.getConnection()) {
+            if (isPostgreSql(connection)) {
+                return reserveSequenceIds(connection, table, quantity);
+            }
+            return reserveNamedSequenceIds(connection, table, quantity);
+        } catch (SQLException e) {
+            LOG.error("{} ids weren't reserved in DB table {}. Thrown exception: {}", quantity, table, e);
+            throw new DataBaseSqlRuntimeException("", e);
+        }
+    }
+
+    @Override
+    public long load(String table, List<String> columns, Stream<Object[]> rows) {
+        try (final Connection connection = connector.getConnection()) {
+            long loadedRows = isPostgreSql(connection)
+                    ? copy(connection, table, columns, rows.iterator())
+                    : insertInBatches(connection, table, columns, rows.iterator());
+            markTableChanged(table);
+            LOG.info("{} rows were loaded to DB table {}", loadedRows, table);
+            return loadedRows;
+        } catch (SQLException e) {
+            LOG.error("Rows weren't loaded to DB table {}. Thrown exception: {}", table, e);
+            throw new DataBaseSqlRuntimeException("", e);
+        }
+    }
+
+    private int[] reserveSequenceIds(Connection connection, String table, int quantity) throws SQLException {
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(RESERVE_IDS_QUERY)) {
+            preparedStatement.setString(1, table);
+            preparedStatement.setInt(2, quantity);
+            return readIds(preparedStatement, quantity);
+        }
+    }
+
+    // sequences aren't transactional, so concurrent writers get other ids and no DDL commits an open transaction
+    private int[] reserveNamedSequenceIds(Connection connection, String table, int quantity) throws SQLException {
+        try (final PreparedStatement preparedStatement = connection
+                .prepareStatement(String.format(RESERVE_NAMED_SEQUENCE_IDS_QUERY, table))) {
+            preparedStatement.setInt(1, quantity);
+            return readIds(preparedStatement, quantity);
+        }
+    }
+
+    private static int[] readIds(PreparedStatement preparedStatement, int quantity) throws SQLException {
+        int[] ids = new int[quantity];
+        try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+            for (int i = 0; i < quantity && resultSet.next(); i++) {
+                ids[i] = resultSet.getInt(1);
+            }
+        }
+        return ids;
+    }
+
+    private long copy(Connection connection, String table, List<String> columns, Iterator<Object[]> rows)
+            throws SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn(String.format(COPY_QUERY, table, String.join(", ", columns)));
+        try {
+            StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE);
+            while (rows.hasNext()) {
+                appendCopyRow(buffer, rows.next());
+                if (buffer.length() >= COPY_BUFFER_SIZE) {
+                    writeToCopy(copyIn, buffer);
+                }
+            }
+            writeToCopy(copyIn, buffer);
+            return copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    // a row of COPY text format: tab separated values, \N for NULL, backslash escapes in values
+    static void appendCopyRow(StringBuilder buffer, Object[] row) {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                buffer.append('\t');
+            }
+            if (row[i] == null) {
+                buffer.append(COPY_NULL);
+                continue;
+            }
+            String value = row[i].toString();
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                switch (c) {
+                    case '\\':
+                        buffer.append("\\\\");
+                        break;
+                    case '\t':
+                        buffer.append("\\t");
+                        break;
+                    case '\n':
+                        buffer.append("\\n");
+                        break;
+                    case '\r':
+                        buffer.append("\\r");
+                        break;
+                    default:
+                        buffer.append(c);
+                }
+            }
+        }
+        buffer.append('\n');
+    }
+
+    private long insertInBatches(Connection connection, String table, List<String> columns, Iterator<Object[]> rows)
+            throws SQLException {
+        String insertQuery = String.format(INSERT_QUERY, table, String.join(", ", columns),
+                String.join(", ", Collections.nCopies(columns.size(), "?")));
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(insertQuery)) {
+            long loadedRows = 0;
+            while (rows.hasNext()) {
+                Object[] row = rows.next();
+                for (int i = 0; i < row.length; i++) {
+                    preparedStatement.setObject(i + 1, row[i]);
+                }
+                preparedStatement.addBatch();
+                if (++loadedRows % INSERT_BATCH_SIZE == 0) {
+                    preparedStatement.executeBatch();
+                }
+            }
+            preparedStatement.executeBatch();
+            return loadedRows;
+        }
+    }
+
+    private static boolean isPostgreSql(Connection connection) throws SQLException {
+        return POSTGRESQL_PRODUCT_NAME.equals(connection.getMetaData().getDatabaseProductName());
+    }
+
+    private void markTableChanged(String table) {
+        if (tableVersions == null) {
+            return;
+        }
+        tableVersions.increment(table);
+        if (transactionManager != null && transactionManager.isActive()) {
+            transactionManager.afterCompletion(() -> tableVersions.increment(table));
+        }
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/*
+ * Ids requested within windowMillis of the first one are loaded together by one call of the batch loader, a batch
+ * of maxBatchSize ids is loaded at once without waiting for the window to end. Requests of an id that is already
+ * waiting or being loaded share its future. The scheduler thread only cuts a batch when its window ends, the batch
+ * is loaded by loadExecutor, so a slow load doesn't hold back the batches of the next windows.
+ */
+public class CoalescingLoader<E> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CoalescingLoader.class);
+    private static final AtomicInteger LOAD_THREAD_NUMBER = new AtomicInteger();
+    private final Function<Collection<Integer>, Map<Integer, E>> batchLoader;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final Executor loadExecutor;
+    private final ConcurrentMap<Integer, CompletableFuture<Optional<E>>> inFlight = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private Map<Integer, CompletableFuture<Optional<E>>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledDispatch;
+
+    /*
+     * Not DaoExecutor: an async DAO call waiting there for a coalesced findById would wait for a load queued
+     * behind it. Loads are limited by the connection pool anyway
+     */
+    public CoalescingLoader(Function<Collection<Integer>, Map<Integer, E>> batchLoader, long windowMillis,
+                            int maxBatchSize) {
+        this(batchLoader, windowMillis, maxBatchSize, Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "coalescing-loader-load-" + LOAD_THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    public CoalescingLoader(Function<Collection<Integer>, Map<Integer, E>> batchLoader, long windowMillis,
+                            int maxBatchSize, Executor loadExecutor) {
+        this.batchLoader = batchLoader;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = Math.max(maxBatchSize, 1);
+        this.loadExecutor = loadExecutor;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "coalescing-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<Optional<E>> load(Integer id) {
+        CompletableFuture<Optional<E>> future = inFlight.get(id);
+        if (future != null) {
+            return future;
+        }
+        Map<Integer, CompletableFuture<Optional<E>>> fullBatch = null;
+        synchronized (lock) {
+            future = inFlight.get(id);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            inFlight.put(id, future);
+            pending.put(id, future);
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = takePending();
+            } else if (pending.size() == 1) {
+                scheduledDispatch = scheduler.schedule(this::dispatchPending, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return future;
+    }
+
+    /*
+     * Later requests of the id start a new batch instead of sharing the load that may have read the row before it
+     * was written. A request that is still pending isn't loaded yet, so it stays
+     */
+    public void invalidate(Integer id) {
+        synchronized (lock) {
+            if (!pending.containsKey(id)) {
+                inFlight.remove(id);
+            }
+        }
+    }
+
+    private void dispatchPending() {
+        Map<Integer, CompletableFuture<Optional<E>>> batch;
+        synchronized (lock) {
+            batch = takePending();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            loadExecutor.execute(() -> dispatch(batch));
+        } catch (RejectedExecutionException e) {
+            LOG.error("Batch of {} coalesced requests was rejected. Thrown exception: {}", batch.size(), e);
+            fail(batch, e);
+        }
+    }
+
+    // called under the lock
+    private Map<Integer, CompletableFuture<Optional<E>>> takePending() {
+        Map<Integer, CompletableFuture<Optional<E>>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (scheduledDispatch != null) {
+            scheduledDispatch.cancel(false);
+            scheduledDispatch = null;
+        }
+        return batch;
+    }
+
+    // waiters leave inFlight before they are completed, a later request reads the row again
+    private void dispatch(Map<Integer, CompletableFuture<Optional<E>>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            Map<Integer, E> loadedEntities = batchLoader.apply(batch.keySet());
+            LOG.debug("{} coalesced requests were loaded by one batch", batch.size());
+            batch.forEach((id, future) -> {
+                inFlight.remove(id, future);
+                future.complete(Optional.ofNullable(loadedEntities.get(id)));
+            });
+        } catch (Throwable e) {
+            // an Error as well, otherwise the waiters would wait forever and their ids would stay in inFlight
+            LOG.error("Batch of {} coalesced requests wasn't loaded. Thrown exception: {}", batch.size(), e);
+            fail(batch, e);
+        }
+    }
+
+    private void fail(Map<Integer, CompletableFuture<Optional<E>>> batch, Throwable e) {
+        batch.forEach((id, future) -> {
+            inFlight.remove(id, future);
+            future.completeExceptionally(e);
+        });
+    }
+
+}
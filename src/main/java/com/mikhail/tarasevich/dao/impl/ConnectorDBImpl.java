@@ -3,21 +3,28 @@ package com.mikhail.tarasevich.dao.impl;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import com.mikhail.tarasevich.dao.ConnectorDB;
+import com.mikhail.tarasevich.dao.TransactionManager;
 import com.mikhail.tarasevich.dao.exception.DataBaseSqlRuntimeException;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ResourceBundle;
 
-public class ConnectorDBImpl implements ConnectorDB {
+public class ConnectorDBImpl implements ConnectorDB, TransactionManager {
 
     private static final Logger LOG = LoggerFactory.getLogger(ConnectorDBImpl.class);
     private static HikariConfig config = new HikariConfig();
     private static HikariDataSource ds;
+    private final ThreadLocal<Connection> transactionConnection = new ThreadLocal<>();
+    private final ThreadLocal<List<Runnable>> completionActions = ThreadLocal.withInitial(ArrayList::new);
 
     @Inject
     public ConnectorDBImpl(@Named("filePath") String filePath) {
@@ -30,6 +37,10 @@ public class ConnectorDBImpl implements ConnectorDB {
     }
 
     public Connection getConnection() {
+        final Connection connection = transactionConnection.get();
+        if (connection != null) {
+            return withoutClose(connection);
+        }
         try {
             return ds.getConnection();
         } catch (SQLException e) {
@@ -38,4 +49,101 @@ public class ConnectorDBImpl implements ConnectorDB {
         }
     }
 
+    public int getMaximumPoolSize() {
+        return ds.getMaximumPoolSize();
+    }
+
+    @Override
+    public void begin() {
+        if (isActive()) {
+            throw new IllegalStateException("Transaction is already active in the current thread");
+        }
+        try {
+            final Connection connection = ds.getConnection();
+            connection.setAutoCommit(false);
+            transactionConnection.set(connection);
+            LOG.debug("Transaction was started");
+        } catch (SQLException e) {
+            LOG.error("Transaction wasn't started. Thrown exception: {}", e);
+            throw new DataBaseSqlRuntimeException("", e);
+        }
+    }
+
+    @Override
+    public void commit() {
+        final Connection connection = activeConnection();
+        try {
+            connection.commit();
+            LOG.debug("Transaction was committed");
+        } catch (SQLException e) {
+            LOG.error("Transaction wasn't committed. Thrown exception: {}", e);
+            rollback();
+            throw new DataBaseSqlRuntimeException("", e);
+        }
+        release(connection);
+    }
+
+    @Override
+    public void rollback() {
+        final Connection connection = activeConnection();
+        try {
+            connection.rollback();
+            LOG.debug("Transaction was rolled back");
+        } catch (SQLException e) {
+            LOG.error("Transaction wasn't rolled back. Thrown exception: {}", e);
+            throw new DataBaseSqlRuntimeException("", e);
+        } finally {
+            release(connection);
+        }
+    }
+
+    @Override
+    public boolean isActive() {
+        return transactionConnection.get() != null;
+    }
+
+    @Override
+    public void afterCompletion(Runnable action) {
+        activeConnection();
+        completionActions.get().add(action);
+    }
+
+    private Connection activeConnection() {
+        final Connection connection = transactionConnection.get();
+        if (connection == null) {
+            throw new IllegalStateException("There is no active transaction in the current thread");
+        }
+        return connection;
+    }
+
+    private void release(Connection connection) {
+        transactionConnection.remove();
+        List<Runnable> actions = completionActions.get();
+        completionActions.remove();
+        try {
+            connection.setAutoCommit(true);
+            connection.close();
+        } catch (SQLException e) {
+            LOG.error("Transaction connection wasn't released. Thrown exception: {}", e);
+            throw new DataBaseSqlRuntimeException("", e);
+        } finally {
+            actions.forEach(Runnable::run);
+        }
+    }
+
+    // DAO methods close every connection they get, inside a transaction that must not release the shared one
+    private static Connection withoutClose(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName())) {
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
 }
@@ -1,9 +1,13 @@
 package com.mikhail.tarasevich.dao.impl;
 
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.mikhail.tarasevich.dao.ConnectorDB;
 import com.mikhail.tarasevich.dao.CourseDao;
+import com.mikhail.tarasevich.dao.RowMapper;
+import com.mikhail.tarasevich.dao.StudentDao;
 import com.mikhail.tarasevich.dao.exception.DataBaseSqlRuntimeException;
+import com.mikhail.tarasevich.dao.transaction.Transactional;
 import com.mikhail.tarasevich.entity.Course;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,16 +16,26 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class CourseDaoImpl extends AbstractPageableCrudDaoImpl<Course> implements CourseDao {
 
     private static final Logger LOG = LoggerFactory.getLogger(CourseDaoImpl.class);
+    private static final String TABLE_NAME = "school.courses";
+    private static final String NATURAL_KEY_COLUMN = "course_name";
+    private static final String STUDENT_COURSES_TABLE_NAME = "school.student_courses";
     private static final String SAVE_COURSE_QUERY = "INSERT INTO school.courses (course_name, description) VALUES(?, ?)";
     private static final String FIND_BY_ID_QUERY = "SELECT * FROM school.courses WHERE id=?";
     private static final String FIND_ALL_QUERY = "SELECT * FROM school.courses ORDER BY id";
     private static final String FIND_ALL_PAGEABLE_QUERY = "SELECT * FROM school.courses ORDER BY id LIMIT ? OFFSET ?";
+    private static final String FIND_PAGE_AFTER_QUERY = "SELECT * FROM school.courses WHERE id > ? " +
+            "ORDER BY id LIMIT ?";
+    private static final String FIND_PAGE_WITH_TOTAL_QUERY = "SELECT *, COUNT(*) OVER() AS total_count " +
+            "FROM school.courses ORDER BY id LIMIT ? OFFSET ?";
     private static final String FIND_BY_COURSE_NAME_QUERY = "SELECT * FROM school.courses WHERE course_name=?";
     private static final String FIND_COURSES_BY_STUDENT_ID_QUERY =
             "SELECT courses.id, course_name, courses.description\n" +
@@ -30,22 +44,36 @@ public class CourseDaoImpl extends AbstractPageableCrudDaoImpl<Course> implement
                     "LEFT JOIN school.courses ON courses.id = course_id\n" +
                     "WHERE students.id = ?\n" +
                     "ORDER BY courses.id";
+    private static final String FIND_COURSES_BY_STUDENT_IDS_QUERY =
+            "SELECT student_id, courses.id, course_name, courses.description\n" +
+                    "FROM school.student_courses\n" +
+                    "JOIN school.courses ON courses.id = course_id\n" +
+                    "WHERE student_id = ANY(?)\n" +
+                    "ORDER BY student_id, courses.id";
     private static final String UPDATE_COURSE_QUERY = "UPDATE school.courses SET course_name = ?," +
             "description = ? WHERE id= ?";
     private static final String DELETE_COURSE_QUERY = "DELETE FROM school.courses WHERE id=?";
     private static final String DELETE_COURSE_DEPENDENCIES_QUERY =
             "DELETE FROM school.student_courses WHERE course_id=?";
     private static final String COUNT_TABLE_ROWS_QUERY = "SELECT COUNT(*) FROM school.courses";
+    private Provider<StudentDao> studentDaoProvider;
 
     @Inject
     public CourseDaoImpl(ConnectorDB connector) {
         super(connector, SAVE_COURSE_QUERY, FIND_BY_ID_QUERY, FIND_ALL_QUERY, FIND_ALL_PAGEABLE_QUERY,
-                UPDATE_COURSE_QUERY, DELETE_COURSE_QUERY, COUNT_TABLE_ROWS_QUERY);
+                FIND_PAGE_AFTER_QUERY, FIND_PAGE_WITH_TOTAL_QUERY, UPDATE_COURSE_QUERY, DELETE_COURSE_QUERY,
+                COUNT_TABLE_ROWS_QUERY);
+    }
+
+    // StudentDao depends on CourseDao, so it is looked up when a course is deleted
+    @Inject(optional = true)
+    public void setStudentDaoProvider(Provider<StudentDao> studentDaoProvider) {
+        this.studentDaoProvider = studentDaoProvider;
     }
 
     @Override
     public Optional<Course> findByCourseName(String courseName) {
-        return findByStringParam(courseName, FIND_BY_COURSE_NAME_QUERY);
+        return findByName(courseName, name -> findByStringParam(name, FIND_BY_COURSE_NAME_QUERY), Optional.empty());
     }
 
     @Override
@@ -54,17 +82,54 @@ public class CourseDaoImpl extends AbstractPageableCrudDaoImpl<Course> implement
     }
 
     @Override
+    public Map<Integer, List<Course>> findCoursesByStudentIds(List<Integer> ids) {
+        Map<Integer, List<Course>> coursesByStudentId = new HashMap<>();
+        if (ids.isEmpty()) {
+            return coursesByStudentId;
+        }
+        try (final Connection connection = connector.getConnection();
+             final PreparedStatement preparedStatement = connection
+                     .prepareStatement(FIND_COURSES_BY_STUDENT_IDS_QUERY)) {
+            preparedStatement.setArray(1, createIntArray(connection, ids));
+            try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                final RowMapper<Course> rowMapper = createRowMapper(resultSet);
+                final int studentIdColumn = resultSet.findColumn("student_id");
+                while (resultSet.next()) {
+                    coursesByStudentId.computeIfAbsent(resultSet.getInt(studentIdColumn), id -> new ArrayList<>())
+                            .add(rowMapper.mapRow(resultSet));
+                }
+            }
+            LOG.info("Courses of {} students were found by one SQL query", ids.size());
+            return coursesByStudentId;
+        } catch (SQLException e) {
+            LOG.error("Courses weren't found in DB by students ids = {} (SQL query: {}). Thrown exception: {}",
+                    ids, FIND_COURSES_BY_STUDENT_IDS_QUERY, e);
+            throw new DataBaseSqlRuntimeException("", e);
+        }
+    }
+
+    @Override
+    public List<Course> upsertAll(List<Course> courses) {
+        return upsertAllByNaturalKey(courses);
+    }
+
+    @Override
+    @Transactional
     public void deleteCourseById(int id) {
+        // a queued subscription to the course would violate the foreign key once the course is gone
+        if (studentDaoProvider != null) {
+            studentDaoProvider.get().flushWrites();
+        }
         deleteCourseFromCourseStudentsTable(id);
         deleteById(id);
         LOG.info("Course with id = {} was deleted", id);
     }
 
     @Override
-    protected void setStatementForSave(PreparedStatement preparedStatement, Course course) {
+    protected void setStatementForSave(PreparedStatement preparedStatement, Course course, int firstParameterIndex) {
         try {
-            preparedStatement.setString(1, course.getCourseName());
-            preparedStatement.setString(2, course.getDescription());
+            preparedStatement.setString(firstParameterIndex, course.getCourseName());
+            preparedStatement.setString(firstParameterIndex + 1, course.getDescription());
         } catch (SQLException e) {
             LOG.error("Course has incorrect data for save. Course parameters:  {}. Thrown exception: {}",
                     course, e);
@@ -86,12 +151,8 @@ public class CourseDaoImpl extends AbstractPageableCrudDaoImpl<Course> implement
     }
 
     @Override
-    protected Course mapResultSetToEntity(ResultSet resultSet) throws SQLException {
-        return Course.builder()
-                .withId(resultSet.getInt("id"))
-                .withCourseName(resultSet.getString("course_name"))
-                .withDescription(resultSet.getString("description"))
-                .build();
+    protected RowMapper<Course> createRowMapper(ResultSet resultSet) throws SQLException {
+        return new CourseRowMapper(resultSet);
     }
 
     @Override
@@ -103,12 +164,43 @@ public class CourseDaoImpl extends AbstractPageableCrudDaoImpl<Course> implement
                 .build();
     }
 
+    @Override
+    protected int getEntityId(Course course) {
+        return course.getId();
+    }
+
+    @Override
+    protected String getTableName() {
+        return TABLE_NAME;
+    }
+
+    @Override
+    protected String getNaturalKeyColumn() {
+        return NATURAL_KEY_COLUMN;
+    }
+
+    @Override
+    protected String getNaturalKey(Course course) {
+        return course.getCourseName();
+    }
+
+    @Override
+    protected String getNameColumn() {
+        return NATURAL_KEY_COLUMN;
+    }
+
+    @Override
+    protected String getName(Course course) {
+        return course.getCourseName();
+    }
+
     private void deleteCourseFromCourseStudentsTable(Integer id) {
         try (final Connection connection = connector.getConnection();
              final PreparedStatement preparedStatement = connection
                      .prepareStatement(DELETE_COURSE_DEPENDENCIES_QUERY)) {
             preparedStatement.setInt(1, id);
             preparedStatement.executeUpdate();
+            markTableChanged(STUDENT_COURSES_TABLE_NAME);
         } catch (SQLException e) {
             LOG.error("Course with id {} wasn't removed from table by SQL statement {}. Thrown exception: {}",
                     id, DELETE_COURSE_DEPENDENCIES_QUERY, e);
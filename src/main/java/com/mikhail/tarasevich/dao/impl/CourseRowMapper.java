@@ -0,0 +1,32 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import com.mikhail.tarasevich.dao.RowMapper;
+import com.mikhail.tarasevich.entity.Course;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class CourseRowMapper implements RowMapper<Course> {
+
+    private final int idColumn;
+    private final int courseNameColumn;
+    private final int descriptionColumn;
+    // every field is set for each row, so one builder serves the whole result set
+    private final Course.Builder builder = Course.builder();
+
+    public CourseRowMapper(ResultSet resultSet) throws SQLException {
+        this.idColumn = resultSet.findColumn("id");
+        this.courseNameColumn = resultSet.findColumn("course_name");
+        this.descriptionColumn = resultSet.findColumn("description");
+    }
+
+    @Override
+    public Course mapRow(ResultSet resultSet) throws SQLException {
+        return builder
+                .withId(resultSet.getInt(idColumn))
+                .withCourseName(resultSet.getString(courseNameColumn))
+                .withDescription(resultSet.getString(descriptionColumn))
+                .build();
+    }
+
+}
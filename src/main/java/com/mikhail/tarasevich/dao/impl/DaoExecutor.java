@@ -0,0 +1,106 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import com.google.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Runs DAO calls of the async DAOs. There are as many threads as connections in the pool, more of them would only
+// wait for a connection, and the queue is bounded, so a call over its capacity fails at once with
+// RejectedExecutionException instead of piling up
+public class DaoExecutor implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DaoExecutor.class);
+    private static final int QUEUED_CALLS_PER_THREAD = 16;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService timeoutScheduler;
+
+    @Inject
+    public DaoExecutor(ConnectorDBImpl connector) {
+        this(connector.getMaximumPoolSize(), connector.getMaximumPoolSize() * QUEUED_CALLS_PER_THREAD);
+    }
+
+    public DaoExecutor(int threads, int queueCapacity) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreadFactory("dao-async-"));
+        this.timeoutScheduler = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("dao-timeout-"));
+        LOG.debug("Object of DaoExecutor.class has been created with {} threads", threads);
+    }
+
+    public <R> CompletableFuture<R> supply(Supplier<R> call) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        try {
+            FutureTask<Void> task = new FutureTask<>(() -> {
+                // cancelled or timed out while waiting in the queue
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    result.complete(call.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            }, null);
+            executor.execute(task);
+            /*
+             * A call waiting in the queue gives its place up at once. A running call isn't interrupted: that doesn't
+             * cancel a JDBC statement, and on an H2 file database an interrupt inside a query can close the database
+             */
+            result.whenComplete((value, e) -> {
+                if (e instanceof CancellationException || e instanceof TimeoutException) {
+                    executor.remove(task);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOG.error("DAO call was rejected, the queue of calls is full. Thrown exception: {}", e);
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    public CompletableFuture<Void> run(Runnable call) {
+        return supply(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    // completes the future with TimeoutException unless it is completed in time. A call made by supply is skipped
+    // then if it hasn't started, a running call runs to its end and holds its connection until then
+    public <R> CompletableFuture<R> withTimeout(CompletableFuture<R> future, long timeout, TimeUnit unit) {
+        ScheduledFuture<?> timeoutTask = timeoutScheduler.schedule(() -> future.completeExceptionally(
+                new TimeoutException("DAO call didn't complete in " + timeout + " " + unit)), timeout, unit);
+        future.whenComplete((value, e) -> timeoutTask.cancel(false));
+        return future;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        timeoutScheduler.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThreadFactory(String namePrefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+}
@@ -1,10 +1,13 @@
 package com.mikhail.tarasevich.dao.impl;
 
 import com.google.inject.Inject;
+import com.mikhail.tarasevich.cache.Cache;
 import com.mikhail.tarasevich.dao.ConnectorDB;
 import com.mikhail.tarasevich.dao.GroupDao;
+import com.mikhail.tarasevich.dao.RowMapper;
 import com.mikhail.tarasevich.dao.StudentDao;
 import com.mikhail.tarasevich.dao.exception.DataBaseSqlRuntimeException;
+import com.mikhail.tarasevich.dao.transaction.Transactional;
 import com.mikhail.tarasevich.entity.Group;
 import com.mikhail.tarasevich.entity.Student;
 import org.slf4j.Logger;
@@ -14,16 +17,27 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 public class GroupDaoImpl extends AbstractPageableCrudDaoImpl<Group> implements GroupDao {
 
     private static final Logger LOG = LoggerFactory.getLogger(StudentDaoImpl.class);
+    private static final String TABLE_NAME = "school.groups";
+    private static final String NATURAL_KEY_COLUMN = "group_name";
+    private static final String STUDENTS_TABLE_NAME = "school.students";
     private static final String SAVE_GROUP_QUERY = "INSERT INTO school.groups (group_name) VALUES(?)";
     private static final String FIND_BY_ID_QUERY = "SELECT * FROM school.groups WHERE id=?";
     private static final String FIND_ALL_QUERY = "SELECT * FROM school.groups ORDER BY id";
     private static final String FIND_ALL_PAGEABLE_QUERY = "SELECT * FROM school.groups ORDER BY id LIMIT ? OFFSET ?";
+    private static final String FIND_PAGE_AFTER_QUERY = "SELECT * FROM school.groups WHERE id > ? " +
+            "ORDER BY id LIMIT ?";
+    private static final String FIND_PAGE_WITH_TOTAL_QUERY = "SELECT *, COUNT(*) OVER() AS total_count " +
+            "FROM school.groups ORDER BY id LIMIT ? OFFSET ?";
     private static final String FIND_BY_GROUP_NAME_QUERY = "SELECT * FROM school.groups WHERE group_name=?";
     private static final String FIND_GROUP_BY_STUDENT_ID_QUERY =
             "SELECT groups.id, groups.group_name\n" +
@@ -44,17 +58,30 @@ public class GroupDaoImpl extends AbstractPageableCrudDaoImpl<Group> implements
     private static final String DELETE_GROUP_QUERY = "DELETE FROM school.groups WHERE id = ?";
     private static final String COUNT_TABLE_ROWS_QUERY = "SELECT COUNT(*) FROM school.groups";
     private final StudentDao studentDao;
+    private Cache<Integer, Student> studentCache;
 
     @Inject
     public GroupDaoImpl(ConnectorDB connector, StudentDao studentDao) {
         super(connector, SAVE_GROUP_QUERY, FIND_BY_ID_QUERY, FIND_ALL_QUERY, FIND_ALL_PAGEABLE_QUERY,
-                UPDATE_GROUP_QUERY, DELETE_GROUP_QUERY, COUNT_TABLE_ROWS_QUERY);
+                FIND_PAGE_AFTER_QUERY, FIND_PAGE_WITH_TOTAL_QUERY, UPDATE_GROUP_QUERY, DELETE_GROUP_QUERY,
+                COUNT_TABLE_ROWS_QUERY);
         this.studentDao = studentDao;
     }
 
+    // deleting a group changes group id of its students, so cached students have to be dropped as well
+    @Inject(optional = true)
+    public void setStudentCache(Cache<Integer, Student> studentCache) {
+        this.studentCache = studentCache;
+    }
+
     @Override
     public Optional<Group> findByGroupName(String groupName) {
-        return findByStringParam(groupName, FIND_BY_GROUP_NAME_QUERY);
+        return findByName(groupName, name -> findByStringParam(name, FIND_BY_GROUP_NAME_QUERY), Optional.empty());
+    }
+
+    @Override
+    public List<Group> upsertAll(List<Group> groups) {
+        return upsertAllByNaturalKey(groups);
     }
 
     @Override
@@ -68,16 +95,19 @@ public class GroupDaoImpl extends AbstractPageableCrudDaoImpl<Group> implements
     }
 
     @Override
+    @Transactional
     public void deleteGroupById(Integer id) {
+        // a queued change of a student of the group would be written after the group is gone
+        studentDao.flushWrites();
         updateStudentBeforeDeleteGroup(id);
         deleteById(id);
         LOG.info("Group with id = {} was deleted", id);
     }
 
     @Override
-    protected void setStatementForSave(PreparedStatement preparedStatement, Group group) {
+    protected void setStatementForSave(PreparedStatement preparedStatement, Group group, int firstParameterIndex) {
         try {
-            preparedStatement.setString(1, group.getGroupName());
+            preparedStatement.setString(firstParameterIndex, group.getGroupName());
         } catch (SQLException e) {
             LOG.error("Group has incorrect data for save. Group parameters:  {}. Thrown exception: {}",
                     group, e);
@@ -98,13 +128,28 @@ public class GroupDaoImpl extends AbstractPageableCrudDaoImpl<Group> implements
     }
 
     @Override
-    protected Group mapResultSetToEntity(ResultSet resultSet) throws SQLException {
-        List<Student> students = studentDao.findStudentsByGroupId(resultSet.getInt("id"));
-        return Group.builder()
-                .withId(resultSet.getInt("id"))
-                .withGroupName(resultSet.getString("group_name"))
-                .withStudentsList(students)
-                .build();
+    protected RowMapper<Group> createRowMapper(ResultSet resultSet) throws SQLException {
+        return new GroupRowMapper(resultSet);
+    }
+
+    @Override
+    protected List<Group> loadRelatedEntities(List<Group> groups) {
+        if (groups.isEmpty()) {
+            return groups;
+        }
+        List<Integer> groupIds = groups.stream()
+                .map(Group::getId)
+                .collect(Collectors.toList());
+        Supplier<Map<Integer, List<Student>>> studentsByGroupId =
+                new MemoizingSupplier<>(() -> studentDao.findStudentsByGroupIds(groupIds));
+        return groups.stream()
+                .map(group -> Group.builder()
+                        .withId(group.getId())
+                        .withGroupName(group.getGroupName())
+                        .withStudentsList(new LazyLoadingList<>(() -> studentsByGroupId.get()
+                                .getOrDefault(group.getId(), Collections.emptyList())))
+                        .build())
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -116,12 +161,46 @@ public class GroupDaoImpl extends AbstractPageableCrudDaoImpl<Group> implements
                 .build();
     }
 
+    @Override
+    protected int getEntityId(Group group) {
+        return group.getId();
+    }
+
+    @Override
+    protected String getTableName() {
+        return TABLE_NAME;
+    }
+
+    @Override
+    protected String getNaturalKeyColumn() {
+        return NATURAL_KEY_COLUMN;
+    }
+
+    @Override
+    protected String getNaturalKey(Group group) {
+        return group.getGroupName();
+    }
+
+    @Override
+    protected String getNameColumn() {
+        return NATURAL_KEY_COLUMN;
+    }
+
+    @Override
+    protected String getName(Group group) {
+        return group.getGroupName();
+    }
+
     private void updateStudentBeforeDeleteGroup(Integer studentId) {
         try (final Connection connection = connector.getConnection();
              final PreparedStatement preparedStatement = connection
                      .prepareStatement(UPDATE_STUDENT_BEFORE_DELETE_GROUP_QUERY)) {
             preparedStatement.setInt(1, studentId);
             preparedStatement.executeUpdate();
+            if (studentCache != null) {
+                invalidateAfterWrite(studentCache::invalidateAll);
+            }
+            markTableChanged(STUDENTS_TABLE_NAME);
             LOG.info("Group with id = {} was deleted from student by SQL statement {}.",
                     studentId, UPDATE_STUDENT_BEFORE_DELETE_GROUP_QUERY);
         } catch (SQLException e) {
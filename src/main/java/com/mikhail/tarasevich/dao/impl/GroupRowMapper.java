@@ -0,0 +1,29 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import com.mikhail.tarasevich.dao.RowMapper;
+import com.mikhail.tarasevich.entity.Group;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class GroupRowMapper implements RowMapper<Group> {
+
+    private final int idColumn;
+    private final int groupNameColumn;
+    // every field is set for each row, so one builder serves the whole result set
+    private final Group.Builder builder = Group.builder();
+
+    public GroupRowMapper(ResultSet resultSet) throws SQLException {
+        this.idColumn = resultSet.findColumn("id");
+        this.groupNameColumn = resultSet.findColumn("group_name");
+    }
+
+    @Override
+    public Group mapRow(ResultSet resultSet) throws SQLException {
+        return builder
+                .withId(resultSet.getInt(idColumn))
+                .withGroupName(resultSet.getString(groupNameColumn))
+                .build();
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import java.util.BitSet;
+import java.util.function.Supplier;
+
+// One bit per id as ids of a SERIAL column are dense. Exact as long as rows are written through the DAO only
+public class IdPresenceIndex extends AbstractPresenceFilter<BitSet> {
+
+    public IdPresenceIndex(Supplier<BitSet> idsLoader) {
+        super(idsLoader);
+    }
+
+    public boolean contains(int id) {
+        return id >= 0 && mightContain(ids -> ids.get(id));
+    }
+
+    public void add(int id) {
+        change(ids -> ids.set(id));
+    }
+
+    public void remove(int id) {
+        change(ids -> ids.clear(id));
+    }
+
+    @Override
+    protected long memoryBytes(BitSet ids) {
+        return ids.size() / Byte.SIZE;
+    }
+
+    @Override
+    protected double expectedFalsePositiveRate(BitSet ids) {
+        return 0;
+    }
+
+}
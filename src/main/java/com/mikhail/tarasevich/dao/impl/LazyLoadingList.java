@@ -0,0 +1,30 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+public class LazyLoadingList<T> extends AbstractList<T> {
+
+    private final MemoizingSupplier<List<T>> elements;
+
+    public LazyLoadingList(Supplier<List<T>> loader) {
+        this.elements = new MemoizingSupplier<>(() -> Collections.unmodifiableList(loader.get()));
+    }
+
+    @Override
+    public T get(int index) {
+        return elements.get().get(index);
+    }
+
+    @Override
+    public int size() {
+        return elements.get().size();
+    }
+
+    public boolean isLoaded() {
+        return elements.isLoaded();
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import java.util.function.Supplier;
+
+public class MemoizingSupplier<T> implements Supplier<T> {
+
+    private Supplier<T> loader;
+    private T value;
+    private volatile boolean loaded;
+
+    public MemoizingSupplier(Supplier<T> loader) {
+        this.loader = loader;
+    }
+
+    @Override
+    public T get() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    value = loader.get();
+                    loaded = true;
+                    loader = null;
+                }
+            }
+        }
+        return value;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+}
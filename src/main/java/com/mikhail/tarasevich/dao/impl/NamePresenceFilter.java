@@ -0,0 +1,34 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import java.util.function.Supplier;
+
+/*
+ * A Bloom filter of the names in a table. A Bloom filter can't forget a name, so deleted and renamed rows leave
+ * false positives behind, and it is loaded again with room for more names once it holds more than it was sized for.
+ */
+public class NamePresenceFilter extends AbstractPresenceFilter<BloomFilter> {
+
+    public NamePresenceFilter(Supplier<BloomFilter> namesLoader) {
+        super(namesLoader);
+    }
+
+    public boolean mightContain(String name) {
+        return mightContain(names -> names.mightContain(name));
+    }
+
+    public void add(String name) {
+        change(names -> names.put(name));
+        invalidateIf(BloomFilter::isOverCapacity);
+    }
+
+    @Override
+    protected long memoryBytes(BloomFilter names) {
+        return names.memoryBytes();
+    }
+
+    @Override
+    protected double expectedFalsePositiveRate(BloomFilter names) {
+        return names.expectedFalsePositiveRate();
+    }
+
+}
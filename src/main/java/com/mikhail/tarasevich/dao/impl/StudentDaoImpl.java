@@ -1,10 +1,14 @@
 package com.mikhail.tarasevich.dao.impl;
 
 import com.google.inject.Inject;
+import com.google.inject.name.Named;
 import com.mikhail.tarasevich.dao.ConnectorDB;
 import com.mikhail.tarasevich.dao.CourseDao;
+import com.mikhail.tarasevich.dao.RowMapper;
 import com.mikhail.tarasevich.dao.StudentDao;
+import com.mikhail.tarasevich.dao.WriteBehindStatistics;
 import com.mikhail.tarasevich.dao.exception.DataBaseSqlRuntimeException;
+import com.mikhail.tarasevich.dao.transaction.Transactional;
 import com.mikhail.tarasevich.entity.Course;
 import com.mikhail.tarasevich.entity.Student;
 import org.slf4j.Logger;
@@ -14,16 +18,32 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class StudentDaoImpl extends AbstractPageableCrudDaoImpl<Student> implements StudentDao {
 
     private static final Logger LOG = LoggerFactory.getLogger(StudentDaoImpl.class);
+    private static final String TABLE_NAME = "school.students";
+    private static final String STUDENT_COURSES_TABLE_NAME = "school.student_courses";
+    private static final String NAME_COLUMN = "first_name";
+    private static final int SUBSCRIPTIONS_BATCH_SIZE = 1000;
+    private static final int WRITE_BEHIND_CAPACITY = 10_000;
+    private static final String WRITE_BEHIND_QUEUE_NAME = "student-mutations";
     private static final String SAVE_STUDENT_QUERY =
             "INSERT INTO school.students (first_name, last_name, group_id) VALUES(?, ?, ?)";
     private static final String FIND_BY_ID_QUERY = "SELECT * FROM school.students WHERE id = ?";
     private static final String FIND_ALL_QUERY = "SELECT * FROM school.students ORDER BY id";
     private static final String FIND_ALL_PAGEABLE_QUERY = "SELECT * FROM school.students ORDER BY id LIMIT ? OFFSET ?";
+    private static final String FIND_PAGE_AFTER_QUERY = "SELECT * FROM school.students WHERE id > ? " +
+            "ORDER BY id LIMIT ?";
+    private static final String FIND_PAGE_WITH_TOTAL_QUERY = "SELECT *, COUNT(*) OVER() AS total_count " +
+            "FROM school.students ORDER BY id LIMIT ? OFFSET ?";
     private static final String FIND_BY_FIRST_NAME_QUERY = "SELECT * FROM school.students " +
             "WHERE first_name = ? ORDER BY id";
     private static final String FIND_STUDENTS_RELATED_TO_COURSE_QUERY =
@@ -32,8 +52,18 @@ public class StudentDaoImpl extends AbstractPageableCrudDaoImpl<Student> impleme
                     "LEFT JOIN school.students ON students.id = student_id\n" +
                     "WHERE course_id = ?";
     private static final String FIND_STUDENTS_BY_GROUP_ID_QUERY = "SELECT * FROM school.students WHERE group_id = ?";
+    private static final String FIND_STUDENTS_BY_GROUP_IDS_QUERY = "SELECT * FROM school.students " +
+            "WHERE group_id = ANY(?) ORDER BY id";
     private static final String SUBSCRIBE_STUDENT_ON_COURSE_QUERY =
             "INSERT INTO school.student_courses (student_id, course_id) VALUES(?, ?)";
+    private static final String POSTGRESQL_PRODUCT_NAME = "PostgreSQL";
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+    private static final String SUBSCRIBE_STUDENT_ON_COURSE_IF_ABSENT_QUERY =
+            "INSERT INTO school.student_courses (student_id, course_id) VALUES(?, ?) ON CONFLICT DO NOTHING";
+    // for databases without ON CONFLICT, a concurrent insert of the same row still fails on the primary key
+    private static final String SUBSCRIBE_STUDENT_ON_COURSE_IF_NOT_EXISTS_QUERY =
+            "INSERT INTO school.student_courses (student_id, course_id) SELECT CAST(? AS INT), CAST(? AS INT) " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM school.student_courses WHERE student_id = ? AND course_id = ?)";
     private static final String UPDATE_STUDENT_QUERY =
             "UPDATE school.students SET first_name = ?, last_name = ?, group_id = ? WHERE id = ?";
     private static final String DELETE_STUDENT_QUERY = "DELETE FROM school.students WHERE id = ?";
@@ -45,40 +75,100 @@ public class StudentDaoImpl extends AbstractPageableCrudDaoImpl<Student> impleme
             "DELETE FROM school.student_courses WHERE student_id = ? AND course_id = ?";
     private static final String COUNT_TABLE_ROWS_QUERY = "SELECT COUNT(*) FROM school.students";
     private final CourseDao courseDao;
+    private WriteBehindQueue<List<Integer>, StudentMutation> writeBehindQueue;
 
     @Inject
     public StudentDaoImpl(ConnectorDB connector, CourseDao courseDao) {
         super(connector, SAVE_STUDENT_QUERY, FIND_BY_ID_QUERY, FIND_ALL_QUERY, FIND_ALL_PAGEABLE_QUERY,
-                UPDATE_STUDENT_QUERY, DELETE_STUDENT_QUERY, COUNT_TABLE_ROWS_QUERY);
+                FIND_PAGE_AFTER_QUERY, FIND_PAGE_WITH_TOTAL_QUERY, UPDATE_STUDENT_QUERY, DELETE_STUDENT_QUERY,
+                COUNT_TABLE_ROWS_QUERY);
         this.courseDao = courseDao;
     }
 
+    // enrollment and group changes are queued and written by batches every interval, 0 writes them at once
+    @Inject(optional = true)
+    public void setWriteBehindFlushIntervalMillis(@Named("studentWriteBehindFlushIntervalMillis") long intervalMillis) {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.close();
+        }
+        writeBehindQueue = intervalMillis > 0
+                ? new WriteBehindQueue<>(WRITE_BEHIND_QUEUE_NAME, WRITE_BEHIND_CAPACITY, intervalMillis,
+                StudentMutation::coalesce, this::writeMutations)
+                : null;
+    }
+
     @Override
     public void subscribeStudentToCourses(Student student) {
-        try (final Connection connection = connector.getConnection();
-             final PreparedStatement preparedStatement = connection
-                     .prepareStatement(SUBSCRIBE_STUDENT_ON_COURSE_QUERY)) {
-            for (Course course : student.getCoursesList()) {
-                preparedStatement.setInt(1, student.getId());
-                preparedStatement.setInt(2, course.getId());
-                preparedStatement.addBatch();
+        subscribeStudentsToCourses(Collections.singletonList(student));
+    }
+
+    @Override
+    public void subscribeStudentsToCourses(List<Student> students) {
+        flushQueuedWrites();
+        try (final Connection connection = connector.getConnection()) {
+            // joins the surrounding transaction, otherwise all the batches make one transaction of their own
+            boolean ownTransaction = connection.getAutoCommit();
+            if (ownTransaction) {
+                connection.setAutoCommit(false);
+            }
+            try {
+                int subscriptions = addSubscriptionsInBatches(connection, students);
+                if (ownTransaction) {
+                    connection.commit();
+                }
+                markTableChanged(STUDENT_COURSES_TABLE_NAME);
+                LOG.info("{} students were subscribed to courses, {} subscriptions were added",
+                        students.size(), subscriptions);
+            } catch (SQLException e) {
+                if (ownTransaction) {
+                    connection.rollback();
+                }
+                throw e;
+            } finally {
+                if (ownTransaction) {
+                    connection.setAutoCommit(true);
+                }
             }
-            preparedStatement.executeBatch();
-            LOG.info("Student was subscribed to courses.");
         } catch (SQLException e) {
-            LOG.error("Student wasn't subscribed to courses. Thrown exception: {}", e);
+            LOG.error("Students weren't subscribed to courses. Thrown exception: {}", e);
             throw new DataBaseSqlRuntimeException("", e);
         }
     }
 
+    private int addSubscriptionsInBatches(Connection connection, List<Student> students) throws SQLException {
+        try (final PreparedStatement preparedStatement = connection
+                .prepareStatement(SUBSCRIBE_STUDENT_ON_COURSE_QUERY)) {
+            int subscriptions = 0;
+            for (Student student : students) {
+                for (Course course : student.getCoursesList()) {
+                    preparedStatement.setInt(1, student.getId());
+                    preparedStatement.setInt(2, course.getId());
+                    preparedStatement.addBatch();
+                    if (++subscriptions % SUBSCRIPTIONS_BATCH_SIZE == 0) {
+                        preparedStatement.executeBatch();
+                    }
+                }
+            }
+            preparedStatement.executeBatch();
+            return subscriptions;
+        }
+    }
+
     @Override
     public void subscribeStudentToCourse(int studentId, int courseId) {
+        if (isWriteBehind()) {
+            writeBehindQueue.submit(Arrays.asList(studentId, courseId),
+                    new StudentMutation(MutationType.SUBSCRIBE, studentId, courseId));
+            return;
+        }
+        flushQueuedWrites();
         try (final Connection connection = connector.getConnection();
              final PreparedStatement preparedStatement = connection
                      .prepareStatement(SUBSCRIBE_STUDENT_ON_COURSE_QUERY)) {
             preparedStatement.setInt(1, studentId);
             preparedStatement.setInt(2, courseId);
             preparedStatement.executeUpdate();
+            markTableChanged(STUDENT_COURSES_TABLE_NAME);
             LOG.info("Student with id = {} was subscribed to course with id = {}", studentId, courseId);
         } catch (SQLException e) {
             LOG.error("Student with id = {} wasn't subscribed to course with id = {}. Thrown exception: {}",
@@ -87,9 +177,138 @@ public class StudentDaoImpl extends AbstractPageableCrudDaoImpl<Student> impleme
         }
     }
 
+    @Override
+    public boolean subscribeStudentToCourseIfAbsent(int studentId, int courseId) {
+        flushQueuedWrites();
+        try (final Connection connection = connector.getConnection();
+             final PreparedStatement preparedStatement = prepareSubscriptionIfAbsent(connection)) {
+            setSubscriptionIfAbsentParameters(preparedStatement, studentId, courseId, supportsOnConflict(connection));
+            boolean subscribed = preparedStatement.executeUpdate() > 0;
+            if (subscribed) {
+                markTableChanged(STUDENT_COURSES_TABLE_NAME);
+            }
+            LOG.info("Student with id = {} was subscribed to course with id = {}: {}", studentId, courseId,
+                    subscribed ? "the subscription was added" : "the subscription already existed");
+            return subscribed;
+        } catch (SQLException e) {
+            if (UNIQUE_VIOLATION_SQL_STATE.equals(e.getSQLState())) {
+                LOG.info("Student with id = {} was subscribed to course with id = {} concurrently",
+                        studentId, courseId);
+                return false;
+            }
+            LOG.error("Student with id = {} wasn't subscribed to course with id = {}. Thrown exception: {}",
+                    studentId, courseId, e);
+            throw new DataBaseSqlRuntimeException("", e);
+        }
+    }
+
+    private static boolean supportsOnConflict(Connection connection) throws SQLException {
+        return POSTGRESQL_PRODUCT_NAME.equals(connection.getMetaData().getDatabaseProductName());
+    }
+
+    private static PreparedStatement prepareSubscriptionIfAbsent(Connection connection) throws SQLException {
+        return connection.prepareStatement(supportsOnConflict(connection)
+                ? SUBSCRIBE_STUDENT_ON_COURSE_IF_ABSENT_QUERY
+                : SUBSCRIBE_STUDENT_ON_COURSE_IF_NOT_EXISTS_QUERY);
+    }
+
+    // the query without ON CONFLICT takes the ids twice
+    private static void setSubscriptionIfAbsentParameters(PreparedStatement preparedStatement, int studentId,
+                                                          int courseId, boolean onConflict) throws SQLException {
+        preparedStatement.setInt(1, studentId);
+        preparedStatement.setInt(2, courseId);
+        if (!onConflict) {
+            preparedStatement.setInt(3, studentId);
+            preparedStatement.setInt(4, courseId);
+        }
+    }
+
+    @Override
+    public void flushWrites() {
+        if (writeBehindQueue != null) {
+            joinUnwrapped(writeBehindQueue.flush());
+        }
+    }
+
+    @Override
+    public void closeWrites() {
+        WriteBehindQueue<List<Integer>, StudentMutation> queue = writeBehindQueue;
+        writeBehindQueue = null;
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+    @Override
+    public WriteBehindStatistics getWriteBehindStatistics() {
+        return writeBehindQueue == null
+                ? new WriteBehindStatistics(0, 0, 0, 0, 0, 0, 0)
+                : writeBehindQueue.getStatistics();
+    }
+
+    // a transaction writes its changes itself, they must commit or roll back with it
+    private boolean isWriteBehind() {
+        return writeBehindQueue != null && !isTransactionActive();
+    }
+
+    /*
+     * A write made at once must not be overwritten by an older queued change of the same row when the queue is
+     * flushed later, so what is queued is written first
+     */
+    private void flushQueuedWrites() {
+        flushWrites();
+    }
+
+    private void writeMutations(List<StudentMutation> mutations) {
+        try (final Connection connection = connector.getConnection()) {
+            connection.setAutoCommit(false);
+            boolean onConflict = supportsOnConflict(connection);
+            try (final PreparedStatement subscribeStatement = prepareSubscriptionIfAbsent(connection);
+                 final PreparedStatement unsubscribeStatement = connection
+                         .prepareStatement(REMOVE_STUDENT_FROM_COURSE_QUERY);
+                 final PreparedStatement removeFromGroupStatement = connection
+                         .prepareStatement(REMOVE_STUDENT_FROM_GROUP_QUERY)) {
+                for (StudentMutation mutation : mutations) {
+                    if (mutation.type == MutationType.REMOVE_FROM_GROUP) {
+                        removeFromGroupStatement.setInt(1, mutation.studentId);
+                        removeFromGroupStatement.addBatch();
+                    } else if (mutation.type == MutationType.SUBSCRIBE) {
+                        setSubscriptionIfAbsentParameters(subscribeStatement, mutation.studentId, mutation.courseId,
+                                onConflict);
+                        subscribeStatement.addBatch();
+                    } else {
+                        unsubscribeStatement.setInt(1, mutation.studentId);
+                        unsubscribeStatement.setInt(2, mutation.courseId);
+                        unsubscribeStatement.addBatch();
+                    }
+                }
+                subscribeStatement.executeBatch();
+                unsubscribeStatement.executeBatch();
+                removeFromGroupStatement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            markTableChanged(STUDENT_COURSES_TABLE_NAME);
+            mutations.stream()
+                    .filter(mutation -> mutation.type == MutationType.REMOVE_FROM_GROUP)
+                    .forEach(mutation -> invalidateCachedEntity(mutation.studentId));
+            markTableChanged(TABLE_NAME);
+            LOG.info("{} queued enrollment and group changes were written", mutations.size());
+        } catch (SQLException e) {
+            LOG.error("{} queued enrollment and group changes weren't written. Thrown exception: {}",
+                    mutations.size(), e);
+            throw new DataBaseSqlRuntimeException("", e);
+        }
+    }
+
     @Override
     public List<Student> findByFirstName(String firstName) {
-        return findManyByStringParam(firstName, FIND_BY_FIRST_NAME_QUERY);
+        return findByName(firstName, name -> findManyByStringParam(name, FIND_BY_FIRST_NAME_QUERY),
+                Collections.emptyList());
     }
 
     @Override
@@ -97,32 +316,74 @@ public class StudentDaoImpl extends AbstractPageableCrudDaoImpl<Student> impleme
         return findManyByIntParam(courseId, FIND_STUDENTS_RELATED_TO_COURSE_QUERY);
     }
 
+    @Override
+    public Stream<Student> streamStudentsRelatedToCourse(int courseId, int fetchSize) {
+        return streamManyByIntParam(courseId, FIND_STUDENTS_RELATED_TO_COURSE_QUERY, fetchSize);
+    }
+
     @Override
     public List<Student> findStudentsByGroupId(int id) {
         return findManyByIntParam(id, FIND_STUDENTS_BY_GROUP_ID_QUERY);
     }
 
     @Override
+    public Map<Integer, List<Student>> findStudentsByGroupIds(List<Integer> ids) {
+        return findManyByIntParams(ids, FIND_STUDENTS_BY_GROUP_IDS_QUERY).stream()
+                .collect(Collectors.groupingBy(Student::getGroupId));
+    }
+
+    @Override
+    @Transactional
     public void deleteStudentById(int id) {
+        // queued subscriptions of the student would violate the foreign key after it is deleted
+        flushQueuedWrites();
         removeStudentFromTable(id, DELETE_STUDENT_FROM_STUDENT_COURSES_TABLE_QUERY);
+        markTableChanged(STUDENT_COURSES_TABLE_NAME);
         deleteById(id);
         LOG.info("Student was deleted. Student id = {}", id);
     }
 
+    @Override
+    public void update(Student student) {
+        flushQueuedWrites();
+        super.update(student);
+    }
+
+    @Override
+    public void deleteById(Integer id) {
+        flushQueuedWrites();
+        super.deleteById(id);
+    }
+
     @Override
     public void removeStudentFromGroup(int studentId) {
+        if (isWriteBehind()) {
+            writeBehindQueue.submit(Collections.singletonList(studentId),
+                    new StudentMutation(MutationType.REMOVE_FROM_GROUP, studentId, 0));
+            return;
+        }
+        flushQueuedWrites();
         removeStudentFromTable(studentId, REMOVE_STUDENT_FROM_GROUP_QUERY);
+        invalidateCachedEntity(studentId);
+        markTableChanged(TABLE_NAME);
         LOG.info("Student with id = {} was removed from group", studentId);
     }
 
     @Override
     public void removeStudentFromCourse(int studentId, int courseId) {
+        if (isWriteBehind()) {
+            writeBehindQueue.submit(Arrays.asList(studentId, courseId),
+                    new StudentMutation(MutationType.UNSUBSCRIBE, studentId, courseId));
+            return;
+        }
+        flushQueuedWrites();
         try (final Connection connection = connector.getConnection();
              final PreparedStatement preparedStatement = connection
                      .prepareStatement(REMOVE_STUDENT_FROM_COURSE_QUERY)) {
             preparedStatement.setInt(1, studentId);
             preparedStatement.setInt(2, courseId);
             preparedStatement.executeUpdate();
+            markTableChanged(STUDENT_COURSES_TABLE_NAME);
             LOG.info("Student with id = {} was removed from course with id = {}.", studentId, courseId);
         } catch (SQLException e) {
             LOG.error("Student with id = {} wasn't removed from course with id = {}. Thrown exception: {}",
@@ -132,11 +393,11 @@ public class StudentDaoImpl extends AbstractPageableCrudDaoImpl<Student> impleme
     }
 
     @Override
-    protected void setStatementForSave(PreparedStatement preparedStatement, Student student) {
+    protected void setStatementForSave(PreparedStatement preparedStatement, Student student, int firstParameterIndex) {
         try {
-            preparedStatement.setString(1, student.getFirstName());
-            preparedStatement.setString(2, student.getLastName());
-            preparedStatement.setInt(3, student.getGroupId());
+            preparedStatement.setString(firstParameterIndex, student.getFirstName());
+            preparedStatement.setString(firstParameterIndex + 1, student.getLastName());
+            preparedStatement.setInt(firstParameterIndex + 2, student.getGroupId());
         } catch (SQLException e) {
             LOG.error("Student has incorrect data for save. Student parameters:  {}. Thrown exception: {}",
                     student, e);
@@ -159,16 +420,30 @@ public class StudentDaoImpl extends AbstractPageableCrudDaoImpl<Student> impleme
     }
 
     @Override
-    protected Student mapResultSetToEntity(ResultSet resultSet) throws SQLException {
-        int id = resultSet.getInt("id");
-        List<Course> courses = courseDao.findCoursesByStudentId(id);
-        return Student.builder()
-                .withId(id)
-                .withFirstName(resultSet.getString("first_name"))
-                .withLastName(resultSet.getString("last_name"))
-                .withGroupId(resultSet.getInt("group_id"))
-                .withCoursesList(courses)
-                .build();
+    protected RowMapper<Student> createRowMapper(ResultSet resultSet) throws SQLException {
+        return new StudentRowMapper(resultSet);
+    }
+
+    @Override
+    protected List<Student> loadRelatedEntities(List<Student> students) {
+        if (students.isEmpty()) {
+            return students;
+        }
+        List<Integer> studentIds = students.stream()
+                .map(Student::getId)
+                .collect(Collectors.toList());
+        Supplier<Map<Integer, List<Course>>> coursesByStudentId =
+                new MemoizingSupplier<>(() -> courseDao.findCoursesByStudentIds(studentIds));
+        return students.stream()
+                .map(student -> Student.builder()
+                        .withId(student.getId())
+                        .withFirstName(student.getFirstName())
+                        .withLastName(student.getLastName())
+                        .withGroupId(student.getGroupId())
+                        .withCoursesList(new LazyLoadingList<>(() -> coursesByStudentId.get()
+                                .getOrDefault(student.getId(), Collections.emptyList())))
+                        .build())
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -182,6 +457,26 @@ public class StudentDaoImpl extends AbstractPageableCrudDaoImpl<Student> impleme
                 .build();
     }
 
+    @Override
+    protected int getEntityId(Student student) {
+        return student.getId();
+    }
+
+    @Override
+    protected String getTableName() {
+        return TABLE_NAME;
+    }
+
+    @Override
+    protected String getNameColumn() {
+        return NAME_COLUMN;
+    }
+
+    @Override
+    protected String getName(Student student) {
+        return student.getFirstName();
+    }
+
     private void removeStudentFromTable(Integer id, String removeStudentFromTable) {
         try (final Connection connection = connector.getConnection();
              final PreparedStatement preparedStatement = connection.prepareStatement(removeStudentFromTable)) {
@@ -196,4 +491,39 @@ public class StudentDaoImpl extends AbstractPageableCrudDaoImpl<Student> impleme
         }
     }
 
+    private enum MutationType {
+        SUBSCRIBE, UNSUBSCRIBE, REMOVE_FROM_GROUP
+    }
+
+    private static final class StudentMutation {
+
+        private final MutationType type;
+        private final int studentId;
+        private final int courseId;
+
+        private StudentMutation(MutationType type, int studentId, int courseId) {
+            this.type = type;
+            this.studentId = studentId;
+            this.courseId = courseId;
+        }
+
+        /*
+         * The last mutation wins. A subscription unsubscribed before it is written still writes the DELETE,
+         * the student may have been subscribed before the queued subscription
+         */
+        private static StudentMutation coalesce(StudentMutation queued, StudentMutation next) {
+            return next;
+        }
+
+        @Override
+        public String toString() {
+            return "StudentMutation{" +
+                    "type=" + type +
+                    ", studentId=" + studentId +
+                    ", courseId=" + courseId +
+                    '}';
+        }
+
+    }
+
 }
@@ -0,0 +1,35 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import com.mikhail.tarasevich.dao.RowMapper;
+import com.mikhail.tarasevich.entity.Student;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class StudentRowMapper implements RowMapper<Student> {
+
+    private final int idColumn;
+    private final int firstNameColumn;
+    private final int lastNameColumn;
+    private final int groupIdColumn;
+    // every field is set for each row, so one builder serves the whole result set
+    private final Student.Builder builder = Student.builder();
+
+    public StudentRowMapper(ResultSet resultSet) throws SQLException {
+        this.idColumn = resultSet.findColumn("id");
+        this.firstNameColumn = resultSet.findColumn("first_name");
+        this.lastNameColumn = resultSet.findColumn("last_name");
+        this.groupIdColumn = resultSet.findColumn("group_id");
+    }
+
+    @Override
+    public Student mapRow(ResultSet resultSet) throws SQLException {
+        return builder
+                .withId(resultSet.getInt(idColumn))
+                .withFirstName(resultSet.getString(firstNameColumn))
+                .withLastName(resultSet.getString(lastNameColumn))
+                .withGroupId(resultSet.getInt(groupIdColumn))
+                .build();
+    }
+
+}
@@ -0,0 +1,249 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import com.mikhail.tarasevich.dao.WriteBehindStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+/*
+ * Keeps at most capacity mutations, one per key, and writes them by batches from a flusher thread every
+ * flushIntervalMillis or as soon as the queue is full. A mutation of a key that is already queued is merged
+ * with the queued one by the coalescer, null from the coalescer means they cancel out. When the queue is full
+ * submit waits for the flusher. A batch that fails is written again mutation by mutation, so one bad row
+ * doesn't take the others with it.
+ */
+public class WriteBehindQueue<K, M> implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriteBehindQueue.class);
+    private final String name;
+    private final int capacity;
+    private final long flushIntervalNanos;
+    private final BinaryOperator<M> coalescer;
+    private final Consumer<List<M>> batchWriter;
+    private final Thread flusher;
+    private final Object lock = new Object();
+    private final List<FlushRequest> flushRequests = new ArrayList<>();
+    private Map<K, M> pending = new LinkedHashMap<>();
+    private long submittedSequence;
+    private long writtenSequence;
+    private boolean flushRequested;
+    private boolean closed;
+    private Throwable flusherFailure;
+    private long coalescedCount;
+    private long writtenCount;
+    private long failedCount;
+    private long flushCount;
+    private long totalFlushNanos;
+    private long maxFlushNanos;
+
+    public WriteBehindQueue(String name, int capacity, long flushIntervalMillis, BinaryOperator<M> coalescer,
+                            Consumer<List<M>> batchWriter) {
+        this.name = name;
+        this.capacity = Math.max(capacity, 1);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.coalescer = coalescer;
+        this.batchWriter = batchWriter;
+        this.flusher = new Thread(this::flushContinuously, name + "-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public void submit(K key, M mutation) {
+        synchronized (lock) {
+            while (!closed && pending.size() >= capacity && !pending.containsKey(key)) {
+                lock.notifyAll();
+                waitQuietly(0);
+            }
+            if (closed) {
+                throw new IllegalStateException("Write-behind queue " + name + " is closed");
+            }
+            submittedSequence++;
+            M queuedMutation = pending.remove(key);
+            M mutationToWrite = queuedMutation == null ? mutation : coalescer.apply(queuedMutation, mutation);
+            if (queuedMutation != null) {
+                coalescedCount++;
+            }
+            if (mutationToWrite != null) {
+                pending.put(key, mutationToWrite);
+            }
+            if (pending.size() >= capacity) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    // completes when every mutation submitted before the call is written, exceptionally if some of them failed
+    public CompletableFuture<Void> flush() {
+        synchronized (lock) {
+            if (submittedSequence == writtenSequence) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (flusherFailure != null) {
+                CompletableFuture<Void> failedFlush = new CompletableFuture<>();
+                failedFlush.completeExceptionally(flusherFailure);
+                return failedFlush;
+            }
+            FlushRequest flushRequest = new FlushRequest(submittedSequence);
+            flushRequests.add(flushRequest);
+            flushRequested = true;
+            lock.notifyAll();
+            return flushRequest.future;
+        }
+    }
+
+    public WriteBehindStatistics getStatistics() {
+        synchronized (lock) {
+            return new WriteBehindStatistics(submittedSequence, coalescedCount, writtenCount, failedCount,
+                    flushCount, totalFlushNanos, maxFlushNanos);
+        }
+    }
+
+    // writes what is queued and stops the flusher
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOG.info("Write-behind queue {} was closed. {}", name, getStatistics());
+    }
+
+    // if the flusher dies anyway, the queue is closed and every waiter is released with the failure
+    private void flushContinuously() {
+        try {
+            flushUntilClosed();
+        } catch (Throwable e) {
+            LOG.error("Flusher of {} was stopped. Thrown exception: {}", name, e);
+            synchronized (lock) {
+                closed = true;
+                flusherFailure = e;
+                flushRequests.forEach(flushRequest -> flushRequest.future.completeExceptionally(e));
+                flushRequests.clear();
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void flushUntilClosed() {
+        while (true) {
+            Map<K, M> batch;
+            long batchSequence;
+            synchronized (lock) {
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                long remainingNanos = flushIntervalNanos;
+                while (!closed && !flushRequested && pending.size() < capacity && remainingNanos > 0) {
+                    waitQuietly(TimeUnit.NANOSECONDS.toMillis(remainingNanos) + 1);
+                    remainingNanos = deadline - System.nanoTime();
+                }
+                if (closed && pending.isEmpty() && flushRequests.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                batchSequence = submittedSequence;
+                pending = new LinkedHashMap<>();
+                flushRequested = false;
+                lock.notifyAll();
+            }
+            RuntimeException failure = batch.isEmpty() ? null : write(new ArrayList<>(batch.values()));
+            synchronized (lock) {
+                writtenSequence = batchSequence;
+                Iterator<FlushRequest> iterator = flushRequests.iterator();
+                while (iterator.hasNext()) {
+                    FlushRequest flushRequest = iterator.next();
+                    if (failure != null) {
+                        flushRequest.failure = failure;
+                    }
+                    if (flushRequest.sequence <= writtenSequence) {
+                        flushRequest.complete();
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    private RuntimeException write(List<M> batch) {
+        long startNanos = System.nanoTime();
+        RuntimeException failure = null;
+        int written = batch.size();
+        try {
+            batchWriter.accept(batch);
+        } catch (Throwable batchException) {
+            LOG.error("Batch of {} mutations of {} wasn't written, they are written one by one. " +
+                    "Thrown exception: {}", batch.size(), name, batchException);
+            for (M mutation : batch) {
+                try {
+                    batchWriter.accept(Collections.singletonList(mutation));
+                } catch (Throwable e) {
+                    LOG.error("Mutation {} of {} wasn't written. Thrown exception: {}", mutation, name, e);
+                    failure = asRuntimeException(e);
+                    written--;
+                }
+            }
+        }
+        long flushNanos = System.nanoTime() - startNanos;
+        synchronized (lock) {
+            writtenCount += written;
+            failedCount += batch.size() - written;
+            flushCount++;
+            totalFlushNanos += flushNanos;
+            maxFlushNanos = Math.max(maxFlushNanos, flushNanos);
+        }
+        LOG.debug("{} mutations of {} were flushed in {} ms", written, name,
+                TimeUnit.NANOSECONDS.toMillis(flushNanos));
+        return failure;
+    }
+
+    // an Error must fail the flush futures as well instead of ending the flusher with them incomplete
+    private RuntimeException asRuntimeException(Throwable e) {
+        return e instanceof RuntimeException
+                ? (RuntimeException) e
+                : new IllegalStateException("Mutation of " + name + " wasn't written", e);
+    }
+
+    // called under the lock
+    private void waitQuietly(long millis) {
+        try {
+            lock.wait(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Waiting for write-behind queue " + name + " was interrupted", e);
+        }
+    }
+
+    private static class FlushRequest {
+
+        private final long sequence;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private RuntimeException failure;
+
+        private FlushRequest(long sequence) {
+            this.sequence = sequence;
+        }
+
+        private void complete() {
+            if (failure == null) {
+                future.complete(null);
+            } else {
+                future.completeExceptionally(failure);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.mikhail.tarasevich.dao.transaction;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.mikhail.tarasevich.dao.TransactionManager;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class TransactionalInterceptor implements MethodInterceptor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransactionalInterceptor.class);
+    private Provider<TransactionManager> transactionManagerProvider;
+
+    @Inject
+    public void setTransactionManagerProvider(Provider<TransactionManager> transactionManagerProvider) {
+        this.transactionManagerProvider = transactionManagerProvider;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        final TransactionManager transactionManager = transactionManagerProvider.get();
+        if (transactionManager.isActive()) {
+            return invocation.proceed();
+        }
+        transactionManager.begin();
+        LOG.debug("Transaction was started for method {}", invocation.getMethod().getName());
+        final Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            transactionManager.rollback();
+            LOG.debug("Transaction was rolled back for method {}", invocation.getMethod().getName());
+            throw e;
+        }
+        transactionManager.commit();
+        LOG.debug("Transaction was committed for method {}", invocation.getMethod().getName());
+        return result;
+    }
+
+}
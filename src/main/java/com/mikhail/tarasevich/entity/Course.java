@@ -1,13 +1,9 @@
 package com.mikhail.tarasevich.entity;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import java.util.Objects;
 
 public class Course {
 
-    private static final Logger LOG = LoggerFactory.getLogger(Course.class);
     private final int id;
     private final String courseName;
     private final String description;
@@ -16,8 +12,6 @@ public class Course {
         this.id = builder.id;
         this.courseName = builder.courseName;
         this.description = builder.description;
-        LOG.info("Course was made with parameters: id = {}, courseName = {}, description = {}",
-                id, courseName, description);
     }
 
     public int getId() {
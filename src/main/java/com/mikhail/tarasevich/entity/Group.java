@@ -1,14 +1,10 @@
 package com.mikhail.tarasevich.entity;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import java.util.List;
 import java.util.Objects;
 
 public class Group {
 
-    private static final Logger LOG = LoggerFactory.getLogger(Group.class);
     private final int id;
     private final String groupName;
     private final List<Student> studentsList;
@@ -17,8 +13,6 @@ public class Group {
         this.id = builder.id;
         this.groupName = builder.groupName;
         this.studentsList = builder.studentsList;
-        LOG.info("Group was made with parameters: id = {}, groupName = {}, studentsLIst = {}",
-                id, groupName, studentsList);
     }
 
     public int getId() {
@@ -33,13 +27,13 @@ public class Group {
         return studentsList;
     }
 
+    // the students list may be loaded lazily, it is left out so that comparing and printing don't run its query
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Group)) return false;
         Group group = (Group) o;
-        return getId() == group.getId() && Objects.equals(getGroupName(), group.getGroupName()) &&
-                Objects.equals(getStudentsList(), group.getStudentsList());
+        return getId() == group.getId() && Objects.equals(getGroupName(), group.getGroupName());
     }
 
     @Override
@@ -47,13 +41,12 @@ public class Group {
         return "Group{" +
                 "id=" + id +
                 ", groupName='" + groupName + '\'' +
-                ", studentsList=" + studentsList +
                 '}';
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getId(), getGroupName(), getStudentsList());
+        return Objects.hash(getId(), getGroupName());
     }
 
     public static Builder builder() {
@@ -1,14 +1,10 @@
 package com.mikhail.tarasevich.entity;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import java.util.List;
 import java.util.Objects;
 
 public class Student {
 
-    private static final Logger LOG = LoggerFactory.getLogger(Student.class);
     private final int id;
     private final String firstName;
     private final String lastName;
@@ -21,8 +17,6 @@ public class Student {
         this.lastName = builder.lastName;
         this.groupId = builder.groupId;
         this.coursesList = builder.coursesList;
-        LOG.info("Student was made with parameters: id = {}, firstName = {}, lastName = {}, groupId = {}, coursesList = {}",
-                id, firstName, lastName, groupId, coursesList);
     }
 
     public int getId() {
@@ -45,19 +39,19 @@ public class Student {
         return coursesList;
     }
 
+    // the courses list may be loaded lazily, it is left out so that comparing and printing don't run its query
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Student)) return false;
         Student student = (Student) o;
         return getId() == student.getId() && getGroupId() == student.getGroupId() && Objects.equals(getFirstName(),
-                student.getFirstName()) && Objects.equals(getLastName(),
-                student.getLastName()) && Objects.equals(getCoursesList(), student.getCoursesList());
+                student.getFirstName()) && Objects.equals(getLastName(), student.getLastName());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getId(), getFirstName(), getLastName(), getGroupId(), getCoursesList());
+        return Objects.hash(getId(), getFirstName(), getLastName(), getGroupId());
     }
 
     @Override
@@ -67,7 +61,6 @@ public class Student {
                 ", firstName='" + firstName + '\'' +
                 ", lastName='" + lastName + '\'' +
                 ", groupId=" + groupId +
-                ", coursesList=" + coursesList +
                 '}';
     }
 
@@ -4,58 +4,71 @@ import com.mikhail.tarasevich.entity.Group;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class GroupFactory {
 
     private static final Logger LOG = LoggerFactory.getLogger(GroupFactory.class);
+    private static final int LETTERS = 26;
+    private static final int TWO_DIGIT_NUMBERS = 90;
+    // names of the xx-NN pattern, from aa-10 to zz-99
+    private static final int BASE_NAMES = LETTERS * LETTERS * TWO_DIGIT_NUMBERS;
 
-    public List<Group> generateGroups(int groupQuantity){
+    public List<Group> generateGroups(int groupQuantity) {
+        return generateGroups(groupQuantity, ThreadLocalRandom.current().nextLong());
+    }
+
+    // names are positions 0, 1, 2... run through a permutation of the xx-NN names chosen by the seed, once all of
+    // them are taken the next names get a -1, -2... suffix. So names are unique without any lookup and the same
+    // seed gives the same names whatever number of threads generates them
+    public List<Group> generateGroups(int groupQuantity, long seed) {
+        return generateGroups(0, groupQuantity, seed);
+    }
 
-        LOG.debug("Method generateGroups(int groupQuantity) was called");
+    // groups of the positions from fromIndex to toIndex, names stay unique across ranges made by the same seed
+    public List<Group> generateGroups(int fromIndex, int toIndex, long seed) {
 
-        List<Group> groups = new ArrayList<>();
-        List<String> generatedGroupNames = generateGroupNames(groupQuantity);
+        LOG.debug("Method generateGroups(int {}, int {}, long {}) was called", fromIndex, toIndex, seed);
 
-        for(String groupName : generatedGroupNames){
-            Group group = Group.builder()
-                    .withGroupName(groupName)
-                    .build();
-            groups.add(group);
-            LOG.debug("Group was added to output method list, group parameters: {}", group);
+        SplittableRandom random = new SplittableRandom(seed);
+        int multiplier = random.nextInt(1, BASE_NAMES);
+        while (greatestCommonDivisor(multiplier, BASE_NAMES) != 1) {
+            multiplier = random.nextInt(1, BASE_NAMES);
         }
-        LOG.debug("Output method group's list: {}", groups);
+        int shift = random.nextInt(BASE_NAMES);
+        int coprimeMultiplier = multiplier;
+
+        List<Group> groups = IntStream.range(fromIndex, toIndex)
+                .parallel()
+                .mapToObj(index -> Group.builder()
+                        .withGroupName(groupName(index, coprimeMultiplier, shift))
+                        .build())
+                .collect(Collectors.toList());
+
+        LOG.debug("{} groups were generated", groups.size());
         return groups;
     }
 
-    private List<String> generateGroupNames(int groupQuantity){
-
-        LOG.debug("Method generateGroupNames(int groupQuantity) was called");
-
-        int successIterationQuantity = 0;
-        List<String> groupNames = new ArrayList<>();
-        Random random = new Random();
-
-        while (successIterationQuantity < groupQuantity){
-            StringBuilder generatedName = new StringBuilder();
-            generatedName.append((char)(random.nextInt(122 - 97 + 1) + 97))
-                    .append((char)(random.nextInt(122 - 97 + 1) + 97))
-                    .append("-")
-                    .append(random.nextInt(9 - 1 + 1) + 1)
-                    .append(random.nextInt(9 - 0 + 1) + 0);
-            if(!groupNames.contains(generatedName.toString())){
-                groupNames.add(generatedName.toString());
-                successIterationQuantity++;
-                LOG.debug("Group name = {} was added to output method groupNameS list", generatedName);
-            } else {
-                LOG.debug("Group name {} wasn't added to output method group name list," +
-                        " because list already has the same group name", generatedName);
-            }
+    private static String groupName(int index, int multiplier, int shift) {
+        int baseName = (int) (((long) multiplier * (index % BASE_NAMES) + shift) % BASE_NAMES);
+        int round = index / BASE_NAMES;
+        StringBuilder name = new StringBuilder(10)
+                .append((char) ('a' + baseName / (LETTERS * TWO_DIGIT_NUMBERS)))
+                .append((char) ('a' + baseName / TWO_DIGIT_NUMBERS % LETTERS))
+                .append('-')
+                .append(10 + baseName % TWO_DIGIT_NUMBERS);
+        if (round > 0) {
+            name.append('-').append(round);
         }
-        LOG.debug("Output method group names list: {}", groupNames);
-        return groupNames;
+        return name.toString();
+    }
+
+    private static int greatestCommonDivisor(int a, int b) {
+        return b == 0 ? a : greatestCommonDivisor(b, a % b);
     }
 
 }
@@ -1,17 +1,28 @@
 package com.mikhail.tarasevich.factory;
 
 import com.mikhail.tarasevich.entity.Course;
+import com.mikhail.tarasevich.entity.Group;
 import com.mikhail.tarasevich.entity.Student;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class StudentFactory {
 
     private static final Logger LOG = LoggerFactory.getLogger(StudentFactory.class);
+    private static final int COURSES_PER_STUDENT = 3;
+    private static final int MAX_ATTEMPTS_FOR_UNIQUE_STUDENT = 1000;
+    private static final long INDEX_SEED_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final long ATTEMPT_SEED_MULTIPLIER = 0xC2B2AE3D27D4EB4FL;
     private static final String[] FIRST_NAMES = {"Andy", "Carlos", "John", "Lenny", "Leonard", "Henry", "Bob",
             "Bill", "Benjamin", "Leonel", "James", "Tracy", "Steven", "Robbie", "Harry", "Garold", "Yan", "Richard",
             "Vincent", "Hernandez", "Luis", "Kevin", "Neil", "Benny", "Dennis", "Lory", "Kenny", "Daniel", "Rupert",
@@ -21,63 +32,107 @@ public class StudentFactory {
             "Wade", "Hernandez", "Ivanov", "Cox", "Don", "Brown", "Yellow", "Allen", "Green", "Oreo", "Lord", "Smith",
             "Howard", "George", "Storm", "Seagull", "Snow", "Durant", "Henderson"};
 
-    public List<Student> generateStudents(int studentQuantity, int groupQuantity, List<Course> courses) {
-
-        LOG.debug("Method generateStudents(int studentQuantity, int groupQuantity, List<Course> courses) was called");
+    public List<Student> generateStudents(int studentQuantity, List<Group> groups, List<Course> courses) {
+        return generateStudents(studentQuantity, groups, courses, ThreadLocalRandom.current().nextLong());
+    }
 
-        int successIterationQuantity = 1;
-        int groupIdDistributor = 1;
-        int groupIdChanger = (int) Math.round((double)studentQuantity / (double)groupQuantity);
-        int groupIdChangerStep = (int) Math.ceil((double)studentQuantity / (double)groupQuantity);
-        Random random = new Random();
-        List<Student> students = new ArrayList<>();
+    // students are spread over the given groups in a row, the groups must be saved already to have their ids.
+    // Every student is made by its own generator derived from the seed and its position, so the same seed gives
+    // the same students whatever number of threads generates them
+    public List<Student> generateStudents(int studentQuantity, List<Group> groups, List<Course> courses, long seed) {
+        return generateStudents(0, studentQuantity, studentQuantity, groups, courses, seed);
+    }
 
-        while (successIterationQuantity <= studentQuantity) {
+    // students of the positions from fromIndex to toIndex of a dataset of studentQuantity students, they are the same
+    // as in the whole dataset made by the same seed. Duplicates are only looked for among the students of the range
+    public List<Student> generateStudents(int fromIndex, int toIndex, int studentQuantity, List<Group> groups,
+                                          List<Course> courses, long seed) {
+
+        LOG.debug("Method generateStudents(int {}, int {}, int {}, List<Group> groups, List<Course> courses, " +
+                "long {}) was called", fromIndex, toIndex, studentQuantity, seed);
+
+        List<Student> candidates = IntStream.range(fromIndex, toIndex)
+                .parallel()
+                .mapToObj(index -> generateStudent(index, 0, studentQuantity, groups, courses, seed))
+                .collect(Collectors.toList());
+
+        Set<List<Object>> uniqueStudents = new HashSet<>(candidates.size() * 4 / 3 + 1);
+        List<Student> students = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            Student student = candidates.get(i);
+            int attempt = 0;
+            while (!uniqueStudents.add(uniquenessKey(student))) {
+                if (++attempt == MAX_ATTEMPTS_FOR_UNIQUE_STUDENT) {
+                    throw new IllegalArgumentException("There aren't enough unique combinations of names, groups " +
+                            "and courses for " + candidates.size() + " students");
+                }
+                student = generateStudent(fromIndex + i, attempt, studentQuantity, groups, courses, seed);
+            }
+            students.add(student);
+        }
 
-            LOG.debug("Number of Success iteration successIterationQuantity = {} ", successIterationQuantity);
+        LOG.debug("{} students were generated", students.size());
+        return students;
+    }
 
-            int successCourseIteration = 0;
-            List<Course> studentCourses = new ArrayList<>();
+    // Student equals leaves the courses out, but students differing only in courses are different ones here
+    private static List<Object> uniquenessKey(Student student) {
+        return Arrays.asList(student.getFirstName(), student.getLastName(), student.getGroupId(),
+                student.getCoursesList());
+    }
 
-            while(successCourseIteration < 3){
-                Course course = courses.get(random.nextInt(courses.size()));
-                if(!studentCourses.contains(course)){
-                    studentCourses.add(course);
-                    successCourseIteration++;
-                }
-            }
+    private static Student generateStudent(int index, int attempt, int studentQuantity, List<Group> groups,
+                                           List<Course> courses, long seed) {
+        SplittableRandom random = randomFor(seed, index, attempt);
+        return Student.builder()
+                .withFirstName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)])
+                .withLastName(LAST_NAMES[random.nextInt(LAST_NAMES.length)])
+                .withGroupId(groups.get(groupIndex(index, studentQuantity, groups.size())).getId())
+                .withCoursesList(pickCourses(courses, random))
+                .build();
+    }
 
-            LOG.debug("Courses list for next generated student was made {}", courses);
+    /*
+     * Seeds spaced by a constant step give streams shifted against each other by whole draws, when the step is the
+     * gamma of SplittableRandom. The seed is mixed, so generators of neighbouring positions are independent
+     */
+    static SplittableRandom randomFor(long seed, int index, int attempt) {
+        return new SplittableRandom(mix64(seed ^ (index * INDEX_SEED_MULTIPLIER + attempt * ATTEMPT_SEED_MULTIPLIER)));
+    }
 
-            if (successIterationQuantity > groupIdChanger) {
-                groupIdDistributor++;
-                groupIdChanger += groupIdChangerStep;
-            }
+    // finaliser of the 64-bit MurmurHash3
+    private static long mix64(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
 
-            LOG.debug("Next students will be generated with group id = {}", groupIdDistributor);
-
-            Student student = Student.builder()
-                    .withId(successIterationQuantity)
-                    .withFirstName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)])
-                    .withLastName(LAST_NAMES[random.nextInt(LAST_NAMES.length)])
-                    .withGroupId(groupIdDistributor)
-                    .withCoursesList(studentCourses)
-                    .build();
-
-            LOG.debug("Student was generated with parameters: {}", student);
-
-            if (!students.contains(student)) {
-                students.add(student);
-                successIterationQuantity++;
-                LOG.debug("Student was added to output method student list");
-            } else {
-                LOG.debug("Student wasn't added to output method student list," +
-                        " because list already has the same student");
-            }
+    // the first round(n / g) students go to the first group, every next ceil(n / g) students to the next one
+    private static int groupIndex(int index, int studentQuantity, int groupQuantity) {
+        int firstGroupSize = (int) Math.round((double) studentQuantity / (double) groupQuantity);
+        int groupSize = (int) Math.ceil((double) studentQuantity / (double) groupQuantity);
+        if (index < firstGroupSize) {
+            return 0;
         }
+        return Math.min(1 + (index - firstGroupSize) / groupSize, groupQuantity - 1);
+    }
 
-        LOG.debug("Output method student's list: {}", students);
-        return students;
+    // partial Fisher-Yates shuffle of course positions, only as many swaps as courses are taken
+    private static List<Course> pickCourses(List<Course> courses, SplittableRandom random) {
+        int coursesToPick = Math.min(COURSES_PER_STUDENT, courses.size());
+        int[] positions = new int[courses.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        List<Course> pickedCourses = new ArrayList<>(coursesToPick);
+        for (int i = 0; i < coursesToPick; i++) {
+            int j = i + random.nextInt(positions.length - i);
+            int position = positions[j];
+            positions[j] = positions[i];
+            positions[i] = position;
+            pickedCourses.add(courses.get(position));
+        }
+        return pickedCourses;
     }
 
 }
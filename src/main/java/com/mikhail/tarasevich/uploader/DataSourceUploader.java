@@ -1,9 +1,11 @@
 package com.mikhail.tarasevich.uploader;
 
 import com.google.inject.Inject;
+import com.mikhail.tarasevich.dao.BulkLoader;
 import com.mikhail.tarasevich.dao.CourseDao;
 import com.mikhail.tarasevich.dao.GroupDao;
 import com.mikhail.tarasevich.dao.StudentDao;
+import com.mikhail.tarasevich.dao.transaction.Transactional;
 import com.mikhail.tarasevich.entity.Course;
 import com.mikhail.tarasevich.entity.Group;
 import com.mikhail.tarasevich.entity.Student;
@@ -13,51 +15,147 @@ import com.mikhail.tarasevich.factory.StudentFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
 
 public class DataSourceUploader {
 
     private static final Logger LOG = LoggerFactory.getLogger(DataSourceUploader.class);
+    // from this quantity students and their courses are written by the bulk loader instead of the DAO
+    private static final int BULK_LOAD_STUDENT_QUANTITY = 10_000;
+    private static final int BULK_LOAD_GROUP_QUANTITY = 10_000;
+    private static final String GROUPS_TABLE_NAME = "school.groups";
+    private static final String STUDENTS_TABLE_NAME = "school.students";
+    private static final String STUDENT_COURSES_TABLE_NAME = "school.student_courses";
+    private static final List<String> GROUPS_COLUMNS = Arrays.asList("id", "group_name");
+    private static final List<String> STUDENTS_COLUMNS = Arrays.asList("id", "first_name", "last_name", "group_id");
+    private static final List<String> STUDENT_COURSES_COLUMNS = Arrays.asList("student_id", "course_id");
+    private static final int PIPELINE_CHUNK_SIZE = 1000;
+    private static final int PIPELINE_WRITER_THREADS = 4;
+    private static final int PIPELINE_QUEUE_CAPACITY = 8;
     private final StudentFactory studentFactory;
     private final CourseFactory courseFactory;
     private final GroupFactory groupFactory;
     private final StudentDao studentDao;
     private final CourseDao courseDao;
     private final GroupDao groupDao;
+    private final BulkLoader bulkLoader;
 
     @Inject
-    public DataSourceUploader(StudentDao studentDao, CourseDao courseDao, GroupDao groupDao,
+    public DataSourceUploader(StudentDao studentDao, CourseDao courseDao, GroupDao groupDao, BulkLoader bulkLoader,
                               StudentFactory studentFactory, CourseFactory courseFactory, GroupFactory groupFactory) {
         this.studentDao = studentDao;
         this.courseDao = courseDao;
         this.groupDao = groupDao;
+        this.bulkLoader = bulkLoader;
         this.studentFactory = studentFactory;
         this.courseFactory = courseFactory;
         this.groupFactory = groupFactory;
     }
 
+    @Transactional
     public void uploadRandomDataToDB(int groupQuantity, int studentQuantity) {
 
         LOG.debug("Method uploadRandomDataToDB (int groupQuantity, int studentQuantity) was called");
 
-        List<Course> generatedCourses = courseFactory.generateCourses();
-        courseDao.saveAll(generatedCourses);
-        List<Course> coursesFromDB = courseDao.findAll();
-        LOG.info("Generated courses, uploaded to DB, parsed saved courses from DB. Courses parameters: {}",
-                coursesFromDB);
+        List<Course> savedCourses = courseDao.saveAll(courseFactory.generateCourses());
+        LOG.info("Generated {} courses, uploaded to DB", savedCourses.size());
 
+        // the courses are a short fixed list, they are always saved by the DAO
         List<Group> generatedGroups = groupFactory.generateGroups(groupQuantity);
-        groupDao.saveAll(generatedGroups);
-        LOG.info("Generated groups, uploaded to DB. Groups parameters: {}", generatedGroups);
+        List<Group> savedGroups = generatedGroups.size() >= BULK_LOAD_GROUP_QUANTITY
+                ? bulkLoadGroups(generatedGroups)
+                : saveGroups(generatedGroups);
 
-        List<Student> generatedStudents = studentFactory.generateStudents(studentQuantity, groupQuantity, coursesFromDB);
-        studentDao.saveAll(generatedStudents);
-        LOG.info("Generated students, uploaded to DB. Students parameters: {}", generatedStudents);
+        List<Student> generatedStudents = studentFactory.generateStudents(studentQuantity, savedGroups, savedCourses);
+        if (generatedStudents.size() >= BULK_LOAD_STUDENT_QUANTITY) {
+            bulkLoadStudents(generatedStudents);
+        } else {
+            saveStudents(generatedStudents);
+        }
+    }
+
+    // Groups and students are generated in chunks while the chunks generated before are written by several threads,
+    // so memory doesn't grow with the quantities. Not transactional: every chunk is committed on its own, and
+    // students are checked for duplicates only within their chunk
+    public List<StageStatistics> uploadRandomDataToDBPipelined(int groupQuantity, int studentQuantity) {
+
+        LOG.debug("Method uploadRandomDataToDBPipelined (int groupQuantity, int studentQuantity) was called");
+
+        List<Course> savedCourses = courseDao.saveAll(courseFactory.generateCourses());
+        LOG.info("Generated {} courses, uploaded to DB", savedCourses.size());
+
+        long groupSeed = ThreadLocalRandom.current().nextLong();
+        List<Group> savedGroups = Collections.synchronizedList(new ArrayList<>(groupQuantity));
+        StageStatistics groupStatistics = new SeedingPipeline<Group>("groups", PIPELINE_WRITER_THREADS,
+                PIPELINE_QUEUE_CAPACITY).run(groupQuantity, PIPELINE_CHUNK_SIZE,
+                (fromIndex, toIndex) -> groupFactory.generateGroups(fromIndex, toIndex, groupSeed),
+                groups -> savedGroups.addAll(groupDao.saveAll(groups)));
+        LOG.info("Generated groups, uploaded to DB. {}", groupStatistics);
+
+        // chunks are written in any order, the students are spread over the groups in the order of their ids
+        List<Group> groups = new ArrayList<>(savedGroups);
+        groups.sort(Comparator.comparingInt(Group::getId));
+
+        long studentSeed = ThreadLocalRandom.current().nextLong();
+        StageStatistics studentStatistics = new SeedingPipeline<Student>("students", PIPELINE_WRITER_THREADS,
+                PIPELINE_QUEUE_CAPACITY).run(studentQuantity, PIPELINE_CHUNK_SIZE,
+                (fromIndex, toIndex) -> studentFactory.generateStudents(fromIndex, toIndex, studentQuantity, groups,
+                        savedCourses, studentSeed),
+                students -> studentDao.subscribeStudentsToCourses(studentDao.saveAll(students)));
+        LOG.info("Generated students, uploaded to DB and subscribed on courses. {}", studentStatistics);
+
+        return Arrays.asList(groupStatistics, studentStatistics);
+    }
+
+    private List<Group> saveGroups(List<Group> groups) {
+        List<Group> savedGroups = groupDao.saveAll(groups);
+        LOG.info("Generated {} groups, uploaded to DB", savedGroups.size());
+        return savedGroups;
+    }
 
-        for (Student student : generatedStudents) {
-            studentDao.subscribeStudentToCourses(student);
+    private List<Group> bulkLoadGroups(List<Group> groups) {
+        int[] groupIds = bulkLoader.reserveIds(GROUPS_TABLE_NAME, groups.size());
+        List<Group> loadedGroups = new ArrayList<>(groups.size());
+        for (int i = 0; i < groups.size(); i++) {
+            loadedGroups.add(Group.builder()
+                    .withId(groupIds[i])
+                    .withGroupName(groups.get(i).getGroupName())
+                    .build());
         }
+        bulkLoader.load(GROUPS_TABLE_NAME, GROUPS_COLUMNS, loadedGroups.stream()
+                .map(group -> new Object[]{group.getId(), group.getGroupName()}));
+        groupDao.onRowsWrittenExternally();
+        LOG.info("Generated {} groups, bulk loaded to DB", loadedGroups.size());
+        return loadedGroups;
+    }
+
+    private void saveStudents(List<Student> students) {
+        List<Student> savedStudents = studentDao.saveAll(students);
+        LOG.info("Generated {} students, uploaded to DB", savedStudents.size());
+
+        studentDao.subscribeStudentsToCourses(savedStudents);
         LOG.info("Students was subscribed on courses. Information added to DB");
     }
 
+    private void bulkLoadStudents(List<Student> students) {
+        int[] studentIds = bulkLoader.reserveIds(STUDENTS_TABLE_NAME, students.size());
+        bulkLoader.load(STUDENTS_TABLE_NAME, STUDENTS_COLUMNS, IntStream.range(0, students.size())
+                .mapToObj(i -> new Object[]{studentIds[i], students.get(i).getFirstName(),
+                        students.get(i).getLastName(), students.get(i).getGroupId()}));
+        studentDao.onRowsWrittenExternally();
+        LOG.info("Generated {} students, bulk loaded to DB", students.size());
+
+        bulkLoader.load(STUDENT_COURSES_TABLE_NAME, STUDENT_COURSES_COLUMNS, IntStream.range(0, students.size())
+                .boxed()
+                .flatMap(i -> students.get(i).getCoursesList().stream()
+                        .map(course -> new Object[]{studentIds[i], course.getId()})));
+        LOG.info("Students was subscribed on courses. Information bulk loaded to DB");
+    }
+
 }
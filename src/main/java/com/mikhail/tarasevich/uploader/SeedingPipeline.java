@@ -0,0 +1,140 @@
+package com.mikhail.tarasevich.uploader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+// The calling thread generates the rows chunk by chunk into a bounded queue and the writer threads take the chunks
+// out of it and write them, so generation and writing overlap and at most queueCapacity + writerThreads chunks are
+// held in memory whatever quantity of rows is seeded. The writers don't see the caller's transaction, every chunk
+// is written through a connection of its own
+public class SeedingPipeline<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SeedingPipeline.class);
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+    private final String stageName;
+    private final int writerThreads;
+    private final int queueCapacity;
+
+    public SeedingPipeline(String stageName, int writerThreads, int queueCapacity) {
+        if (writerThreads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Writer threads and queue capacity must be positive");
+        }
+        this.stageName = stageName;
+        this.writerThreads = writerThreads;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public StageStatistics run(int quantity, int chunkSize, ChunkGenerator<T> generator, Consumer<List<T>> writer) {
+
+        LOG.debug("Method run(int {}, int {}, ChunkGenerator<T> generator, Consumer<List<T>> writer) was called " +
+                "for the stage {}", quantity, chunkSize, stageName);
+
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+
+        long startNanos = System.nanoTime();
+        BlockingQueue<List<T>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        // compared by identity, tells a writer that there are no more chunks
+        List<T> endOfStage = new ArrayList<>(0);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        AtomicLong writingNanos = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(writerThreads, writerThreadFactory());
+
+        for (int i = 0; i < writerThreads; i++) {
+            executor.execute(() -> writeChunks(queue, endOfStage, writer, failure, writingNanos));
+        }
+
+        long generationNanos = 0;
+        try {
+            for (int fromIndex = 0; fromIndex < quantity && failure.get() == null; fromIndex += chunkSize) {
+                long generationStartNanos = System.nanoTime();
+                List<T> chunk = generator.generate(fromIndex, Math.min(quantity, fromIndex + chunkSize));
+                generationNanos += System.nanoTime() - generationStartNanos;
+                offer(queue, chunk, failure);
+            }
+            for (int i = 0; i < writerThreads; i++) {
+                offer(queue, endOfStage, failure);
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (failure.get() != null) {
+                    executor.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Stage " + stageName + " was interrupted", e);
+        } catch (RuntimeException e) {
+            executor.shutdownNow();
+            throw e;
+        }
+
+        if (failure.get() != null) {
+            LOG.error("Stage {} was stopped. Thrown exception: {}", stageName, failure.get());
+            throw failure.get();
+        }
+
+        StageStatistics statistics = new StageStatistics(stageName, quantity, generationNanos, writingNanos.get(),
+                System.nanoTime() - startNanos);
+        LOG.debug("Stage {} was finished: {}", stageName, statistics);
+        return statistics;
+    }
+
+    // gives up as soon as a writer fails, otherwise the producer could wait for a free place forever
+    private void offer(BlockingQueue<List<T>> queue, List<T> chunk, AtomicReference<RuntimeException> failure)
+            throws InterruptedException {
+        while (failure.get() == null) {
+            if (queue.offer(chunk, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        }
+    }
+
+    private void writeChunks(BlockingQueue<List<T>> queue, List<T> endOfStage, Consumer<List<T>> writer,
+                             AtomicReference<RuntimeException> failure, AtomicLong writingNanos) {
+        try {
+            List<T> chunk = queue.take();
+            while (chunk != endOfStage && failure.get() == null) {
+                long writingStartNanos = System.nanoTime();
+                writer.accept(chunk);
+                writingNanos.addAndGet(System.nanoTime() - writingStartNanos);
+                chunk = queue.take();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        } catch (Throwable e) {
+            // an Error would end the writer silently and leave the producer waiting for the full queue forever
+            failure.compareAndSet(null, new IllegalStateException("Writer of stage " + stageName + " failed", e));
+        }
+    }
+
+    private ThreadFactory writerThreadFactory() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> new Thread(runnable, stageName + "-writer-" + threadNumber.incrementAndGet());
+    }
+
+    @FunctionalInterface
+    public interface ChunkGenerator<T> {
+
+        List<T> generate(int fromIndex, int toIndex);
+
+    }
+
+}
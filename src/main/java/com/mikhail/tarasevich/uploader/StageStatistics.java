@@ -0,0 +1,88 @@
+package com.mikhail.tarasevich.uploader;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+public class StageStatistics {
+
+    private final String stageName;
+    private final long rowCount;
+    private final long generationNanos;
+    private final long writingNanos;
+    private final long elapsedNanos;
+
+    public StageStatistics(String stageName, long rowCount, long generationNanos, long writingNanos,
+                           long elapsedNanos) {
+        this.stageName = stageName;
+        this.rowCount = rowCount;
+        this.generationNanos = generationNanos;
+        this.writingNanos = writingNanos;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getStageName() {
+        return stageName;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getGenerationNanos() {
+        return generationNanos;
+    }
+
+    // summed over all the writer threads
+    public long getWritingNanos() {
+        return writingNanos;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double generatedRowsPerSecond() {
+        return rowsPerSecond(generationNanos);
+    }
+
+    public double writtenRowsPerSecond() {
+        return rowsPerSecond(writingNanos);
+    }
+
+    public double rowsPerSecond() {
+        return rowsPerSecond(elapsedNanos);
+    }
+
+    private double rowsPerSecond(long nanos) {
+        return nanos == 0 ? 0 : (double) rowCount * TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StageStatistics)) return false;
+        StageStatistics that = (StageStatistics) o;
+        return getRowCount() == that.getRowCount() &&
+                getGenerationNanos() == that.getGenerationNanos() &&
+                getWritingNanos() == that.getWritingNanos() &&
+                getElapsedNanos() == that.getElapsedNanos() &&
+                Objects.equals(getStageName(), that.getStageName());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getStageName(), getRowCount(), getGenerationNanos(), getWritingNanos(), getElapsedNanos());
+    }
+
+    @Override
+    public String toString() {
+        return "StageStatistics{" +
+                "stageName='" + stageName + '\'' +
+                ", rowCount=" + rowCount +
+                ", generatedRowsPerSecond=" + generatedRowsPerSecond() +
+                ", writtenRowsPerSecond=" + writtenRowsPerSecond() +
+                ", rowsPerSecond=" + rowsPerSecond() +
+                '}';
+    }
+
+}
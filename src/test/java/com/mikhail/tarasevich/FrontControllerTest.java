@@ -1,7 +1,9 @@
 package com.mikhail.tarasevich;
 
+import com.mikhail.tarasevich.dao.CountMode;
 import com.mikhail.tarasevich.dao.CourseDao;
 import com.mikhail.tarasevich.dao.GroupDao;
+import com.mikhail.tarasevich.dao.Page;
 import com.mikhail.tarasevich.dao.StudentDao;
 import com.mikhail.tarasevich.entity.Course;
 import com.mikhail.tarasevich.entity.Group;
@@ -21,6 +23,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -209,159 +212,174 @@ class FrontControllerTest {
     }
 
     @Test
-    void findAllStudents_inputExistingPage_expectedNothing() {
+    void findAllStudents_inputNextPageThenReturn_expectedTwoPagesShown() {
 
         when(consoleReader.readInt()).thenReturn(2, 1, 0);
         when(consoleReader.read()).thenReturn("any");
-        when(studentDao.count()).thenReturn(3L);
-        when(studentDao.findAll(0, 3)).thenReturn(students);
+        when(studentDao.findPage(0, 3)).thenReturn(new Page<>(students, 3, 6L));
+        when(studentDao.findPageAfter(3, 3)).thenReturn(new Page<>(students, null));
         when(entityViewProvider.provideStudentTableView(students)).thenReturn(students.toString());
 
         frontController.startMenu(ITEM_PER_PAGE);
 
         verify(consoleReader, times(3)).readInt();
         verify(consoleReader, times(1)).read();
-        verify(studentDao, times(1)).findAll(0, 3);
-        verify(entityViewProvider, times(1)).provideStudentTableView(students);
+        verify(studentDao, never()).count(any(CountMode.class));
+        verify(studentDao, times(1)).findPage(0, 3);
+        verify(studentDao, times(1)).findPageAfter(3, 3);
+        verify(entityViewProvider, times(2)).provideStudentTableView(students);
         verifyNoInteractions(courseDao);
         verifyNoInteractions(groupDao);
     }
 
     @Test
-    void findAllStudents_inputPageLessThanOne_expectedNothing() {
+    void findAllStudents_inputReturnAfterFirstPage_expectedOnePageShown() {
 
-        when(consoleReader.readInt()).thenReturn(2, 0, 0);
+        when(consoleReader.readInt()).thenReturn(2, 5, 0);
         when(consoleReader.read()).thenReturn("any");
-        when(studentDao.count()).thenReturn(3L);
+        when(studentDao.findPage(0, 3)).thenReturn(new Page<>(students, 3, 6L));
+        when(entityViewProvider.provideStudentTableView(students)).thenReturn(students.toString());
 
         frontController.startMenu(ITEM_PER_PAGE);
 
         verify(consoleReader, times(3)).readInt();
         verify(consoleReader, times(1)).read();
-        verify(studentDao, times(1)).count();
+        verify(studentDao, times(1)).findPage(0, 3);
+        verify(studentDao, never()).findPageAfter(3, 3);
+        verify(entityViewProvider, times(1)).provideStudentTableView(students);
         verifyNoInteractions(courseDao);
         verifyNoInteractions(groupDao);
-        verifyNoInteractions(entityViewProvider);
     }
 
     @Test
-    void findAllStudents_inputPageMoreThanPagesQuantity_expectedNothing() {
+    void findAllStudents_inputEmptyTable_expectedNothing() {
 
-        when(consoleReader.readInt()).thenReturn(2, 4, 0);
+        when(consoleReader.readInt()).thenReturn(2, 0);
         when(consoleReader.read()).thenReturn("any");
-        when(studentDao.count()).thenReturn(3L);
+        when(studentDao.findPage(0, 3)).thenReturn(new Page<>(new ArrayList<>(), null, 0L));
 
         frontController.startMenu(ITEM_PER_PAGE);
 
-        verify(consoleReader, times(3)).readInt();
+        verify(consoleReader, times(2)).readInt();
         verify(consoleReader, times(1)).read();
-        verify(studentDao, times(1)).count();
+        verify(studentDao, never()).count(any(CountMode.class));
+        verify(studentDao, times(1)).findPage(0, 3);
         verifyNoInteractions(courseDao);
         verifyNoInteractions(groupDao);
         verifyNoInteractions(entityViewProvider);
     }
 
     @Test
-    void findAllCourses_inputExistingPage_expectedNothing() {
+    void findAllCourses_inputNextPageThenReturn_expectedTwoPagesShown() {
 
         when(consoleReader.readInt()).thenReturn(3, 1, 0);
         when(consoleReader.read()).thenReturn("any");
-        when(courseDao.count()).thenReturn(3L);
-        when(courseDao.findAll(0, 3)).thenReturn(courses);
+        when(courseDao.findPage(0, 3)).thenReturn(new Page<>(courses, 3, 6L));
+        when(courseDao.findPageAfter(3, 3)).thenReturn(new Page<>(courses, null));
         when(entityViewProvider.provideCourseTableView(courses)).thenReturn(courses.toString());
 
         frontController.startMenu(ITEM_PER_PAGE);
 
         verify(consoleReader, times(3)).readInt();
         verify(consoleReader, times(1)).read();
-        verify(courseDao, times(1)).findAll(0, 3);
-        verify(entityViewProvider, times(1)).provideCourseTableView(courses);
+        verify(courseDao, never()).count(any(CountMode.class));
+        verify(courseDao, times(1)).findPage(0, 3);
+        verify(courseDao, times(1)).findPageAfter(3, 3);
+        verify(entityViewProvider, times(2)).provideCourseTableView(courses);
         verifyNoInteractions(studentDao);
         verifyNoInteractions(groupDao);
     }
 
     @Test
-    void findAllCourses_inputPageLessThanOne_expectedNothing() {
+    void findAllCourses_inputReturnAfterFirstPage_expectedOnePageShown() {
 
-        when(consoleReader.readInt()).thenReturn(3, 0, 0);
+        when(consoleReader.readInt()).thenReturn(3, 5, 0);
         when(consoleReader.read()).thenReturn("any");
-        when(courseDao.count()).thenReturn(3L);
+        when(courseDao.findPage(0, 3)).thenReturn(new Page<>(courses, 3, 6L));
+        when(entityViewProvider.provideCourseTableView(courses)).thenReturn(courses.toString());
 
         frontController.startMenu(ITEM_PER_PAGE);
 
         verify(consoleReader, times(3)).readInt();
         verify(consoleReader, times(1)).read();
-        verify(courseDao, times(1)).count();
+        verify(courseDao, times(1)).findPage(0, 3);
+        verify(courseDao, never()).findPageAfter(3, 3);
+        verify(entityViewProvider, times(1)).provideCourseTableView(courses);
         verifyNoInteractions(studentDao);
         verifyNoInteractions(groupDao);
-        verifyNoInteractions(entityViewProvider);
     }
 
     @Test
-    void findAllCourses_inputPageMoreThanPagesQuantity_expectedNothingu() {
+    void findAllCourses_inputEmptyTable_expectedNothing() {
 
-        when(consoleReader.readInt()).thenReturn(3, 4, 0);
+        when(consoleReader.readInt()).thenReturn(3, 0);
         when(consoleReader.read()).thenReturn("any");
-        when(courseDao.count()).thenReturn(3L);
+        when(courseDao.findPage(0, 3)).thenReturn(new Page<>(new ArrayList<>(), null, 0L));
 
         frontController.startMenu(ITEM_PER_PAGE);
 
-        verify(consoleReader, times(3)).readInt();
+        verify(consoleReader, times(2)).readInt();
         verify(consoleReader, times(1)).read();
-        verify(courseDao, times(1)).count();
+        verify(courseDao, never()).count(any(CountMode.class));
+        verify(courseDao, times(1)).findPage(0, 3);
         verifyNoInteractions(studentDao);
         verifyNoInteractions(groupDao);
         verifyNoInteractions(entityViewProvider);
     }
 
     @Test
-    void findAllGroups_inputExistingPage_expectedNothing() {
+    void findAllGroups_inputNextPageThenReturn_expectedTwoPagesShown() {
 
         when(consoleReader.readInt()).thenReturn(4, 1, 0);
         when(consoleReader.read()).thenReturn("any");
-        when(groupDao.count()).thenReturn(3L);
-        when(groupDao.findAll(0, 3)).thenReturn(groups);
+        when(groupDao.findPage(0, 3)).thenReturn(new Page<>(groups, 3, 6L));
+        when(groupDao.findPageAfter(3, 3)).thenReturn(new Page<>(groups, null));
         when(entityViewProvider.provideGroupTableView(groups)).thenReturn(groups.toString());
 
         frontController.startMenu(ITEM_PER_PAGE);
 
         verify(consoleReader, times(3)).readInt();
         verify(consoleReader, times(1)).read();
-        verify(groupDao, times(1)).findAll(0, 3);
-        verify(entityViewProvider, times(1)).provideGroupTableView(groups);
-        verifyNoInteractions(courseDao);
+        verify(groupDao, never()).count(any(CountMode.class));
+        verify(groupDao, times(1)).findPage(0, 3);
+        verify(groupDao, times(1)).findPageAfter(3, 3);
+        verify(entityViewProvider, times(2)).provideGroupTableView(groups);
         verifyNoInteractions(studentDao);
+        verifyNoInteractions(courseDao);
     }
 
     @Test
-    void findAllGroups_inputPageLessThanOne_expectedNothing() {
+    void findAllGroups_inputReturnAfterFirstPage_expectedOnePageShown() {
 
-        when(consoleReader.readInt()).thenReturn(4, 0, 0);
+        when(consoleReader.readInt()).thenReturn(4, 5, 0);
         when(consoleReader.read()).thenReturn("any");
-        when(groupDao.count()).thenReturn(3L);
+        when(groupDao.findPage(0, 3)).thenReturn(new Page<>(groups, 3, 6L));
+        when(entityViewProvider.provideGroupTableView(groups)).thenReturn(groups.toString());
 
         frontController.startMenu(ITEM_PER_PAGE);
 
         verify(consoleReader, times(3)).readInt();
         verify(consoleReader, times(1)).read();
-        verify(groupDao, times(1)).count();
+        verify(groupDao, times(1)).findPage(0, 3);
+        verify(groupDao, never()).findPageAfter(3, 3);
+        verify(entityViewProvider, times(1)).provideGroupTableView(groups);
         verifyNoInteractions(studentDao);
         verifyNoInteractions(courseDao);
-        verifyNoInteractions(entityViewProvider);
     }
 
     @Test
-    void findAllGroups_inputPageMoreThanPagesQuantity_expectedNothing() {
+    void findAllGroups_inputEmptyTable_expectedNothing() {
 
-        when(consoleReader.readInt()).thenReturn(4, 4, 0);
+        when(consoleReader.readInt()).thenReturn(4, 0);
         when(consoleReader.read()).thenReturn("any");
-        when(groupDao.count()).thenReturn(3L);
+        when(groupDao.findPage(0, 3)).thenReturn(new Page<>(new ArrayList<>(), null, 0L));
 
         frontController.startMenu(ITEM_PER_PAGE);
 
-        verify(consoleReader, times(3)).readInt();
+        verify(consoleReader, times(2)).readInt();
         verify(consoleReader, times(1)).read();
-        verify(groupDao, times(1)).count();
+        verify(groupDao, never()).count(any(CountMode.class));
+        verify(groupDao, times(1)).findPage(0, 3);
         verifyNoInteractions(studentDao);
         verifyNoInteractions(courseDao);
         verifyNoInteractions(entityViewProvider);
@@ -383,7 +401,7 @@ class FrontControllerTest {
         when(consoleReader.read()).thenReturn("John", "Locke", "John", "Locke", "John", "Locke", "any");
         when(studentDao.save(studentOneWithOutId)).thenReturn(student1);
         when(groupDao.findAll()).thenReturn(groups);
-        when(groupDao.count()).thenReturn(3L);
+        when(groupDao.existsById(anyInt())).thenAnswer(invocation -> invocation.<Integer>getArgument(0) == 3);
         when(entityViewProvider.provideGroupTableView(groups)).thenReturn(groups.toString());
         when(entityViewProvider.provideStudentTableView(studentsWithStudent1))
                 .thenReturn(studentsWithStudent1.toString());
@@ -394,7 +412,10 @@ class FrontControllerTest {
         verify(consoleReader, times(7)).read();
         verify(studentDao, times(1)).save(studentOneWithOutId);
         verify(groupDao, times(3)).findAll();
-        verify(groupDao, times(2)).count();
+        verify(groupDao, times(1)).existsById(4);
+        verify(groupDao, times(1)).existsById(0);
+        verify(groupDao, times(1)).existsById(3);
+        verify(groupDao, never()).count(any(CountMode.class));
         verify(entityViewProvider, times(3)).provideGroupTableView(groups);
         verify(entityViewProvider, times(1)).provideStudentTableView(studentsWithStudent1);
         verifyNoInteractions(courseDao);
@@ -411,7 +432,7 @@ class FrontControllerTest {
         when(studentDao.findById(10)).thenReturn(optionalEmpty);
         when(studentDao.findById(1)).thenReturn(optionalStudent1);
         when(groupDao.findAll()).thenReturn(groups);
-        when(groupDao.count()).thenReturn(3L);
+        when(groupDao.existsById(anyInt())).thenAnswer(invocation -> invocation.<Integer>getArgument(0) == 3);
         doNothing().when(studentDao).update(student1);
         when(entityViewProvider.provideGroupTableView(groups)).thenReturn(groups.toString());
 
@@ -423,7 +444,11 @@ class FrontControllerTest {
         verify(studentDao, times(1)).findById(10);
         verify(studentDao, times(3)).findById(1);
         verify(groupDao, times(3)).findAll();
-        verify(groupDao, times(2)).count();
+        verify(groupDao, times(1)).existsById(0);
+        verify(groupDao, times(1)).existsById(4);
+        verify(groupDao, times(1)).existsById(3);
+        verify(groupDao, never()).count(any(CountMode.class));
+        verify(studentDao, never()).count(any(CountMode.class));
         verify(studentDao, times(1)).update(student1);
         verify(entityViewProvider, times(3)).provideGroupTableView(groups);
         verifyNoInteractions(courseDao);
@@ -432,55 +457,68 @@ class FrontControllerTest {
     @Test
     void subscribeStudentToCourse_inputFirstlyStudentIsNotExistThenIncorrectCourseNumbersThenCorrectData_expectedNothing() {
 
-        Optional<Student> optionalStudentEmpty = Optional.empty();
-        Optional<Student> optionalStudent1 = Optional.of(student1);
-        Optional<Course> optionalCourseEmpty = Optional.empty();
-        Optional<Course> optionalCourse1 = Optional.of(course1);
-
         when(consoleReader.readInt()).thenReturn(7, 10, 1, 10, 1, 1, 0);
         when(consoleReader.read()).thenReturn("any");
-        when(studentDao.findById(10)).thenReturn(optionalStudentEmpty);
-        when(studentDao.findById(1)).thenReturn(optionalStudent1);
-        when(courseDao.findById(10)).thenReturn(optionalCourseEmpty);
-        when(courseDao.findById(1)).thenReturn(optionalCourse1);
+        when(studentDao.existsById(10)).thenReturn(false);
+        when(studentDao.existsById(1)).thenReturn(true);
         when(courseDao.findAll()).thenReturn(courses);
-        when(courseDao.findCoursesByStudentId(1)).thenReturn(new ArrayList<>());
-        doNothing().when(studentDao).subscribeStudentToCourse(1, 1);
+        when(courseDao.existsById(10)).thenReturn(false);
+        when(courseDao.existsById(1)).thenReturn(true);
+        when(studentDao.subscribeStudentToCourseIfAbsent(1, 1)).thenReturn(true);
         when(entityViewProvider.provideCourseTableView(courses)).thenReturn(courses.toString());
 
         frontController.startMenu(ITEM_PER_PAGE);
 
         verify(consoleReader, times(7)).readInt();
         verify(consoleReader, times(1)).read();
-        verify(studentDao, times(1)).findById(10);
-        verify(studentDao, times(2)).findById(1);
-        verify(studentDao, times(1)).subscribeStudentToCourse(1, 1);
-        verify(courseDao, times(1)).findById(10);
-        verify(courseDao, times(1)).findById(1);
+        verify(studentDao, times(1)).existsById(10);
+        verify(studentDao, times(2)).existsById(1);
+        verify(studentDao, never()).findById(anyInt());
+        verify(studentDao, times(1)).subscribeStudentToCourseIfAbsent(1, 1);
         verify(courseDao, times(2)).findAll();
-        verify(courseDao, times(1)).findCoursesByStudentId(1);
+        verify(courseDao, times(1)).existsById(10);
+        verify(courseDao, times(1)).existsById(1);
         verify(entityViewProvider, times(2)).provideCourseTableView(courses);
+        verifyNoMoreInteractions(courseDao);
         verifyNoInteractions(groupDao);
     }
 
     @Test
-    void deleteStudent_inputFirstlyStudentNotExistThenCorrectData_expectedNothing() {
+    void subscribeStudentToCourse_inputStudentAlreadySubscribedToCourse_expectedSubscriptionNotAdded() {
 
-        Optional<Student> optionalStudentEmpty = Optional.empty();
-        Optional<Student> optionalStudent1 = Optional.of(student1);
+        when(consoleReader.readInt()).thenReturn(7, 1, 2, 0);
+        when(consoleReader.read()).thenReturn("any");
+        when(studentDao.existsById(1)).thenReturn(true);
+        when(courseDao.findAll()).thenReturn(courses);
+        when(courseDao.existsById(2)).thenReturn(true);
+        when(studentDao.subscribeStudentToCourseIfAbsent(1, 2)).thenReturn(false);
+        when(entityViewProvider.provideCourseTableView(courses)).thenReturn(courses.toString());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out));
+        frontController.startMenu(ITEM_PER_PAGE);
+
+        assertTrue(out.toString().contains("The student has already been subscribed to this course"));
+        verify(studentDao, times(1)).subscribeStudentToCourseIfAbsent(1, 2);
+        verify(studentDao, never()).subscribeStudentToCourse(anyInt(), anyInt());
+    }
+
+    @Test
+    void deleteStudent_inputFirstlyStudentNotExistThenCorrectData_expectedNothing() {
 
         when(consoleReader.readInt()).thenReturn(8, 10, 1, 0);
         when(consoleReader.read()).thenReturn("any");
-        when(studentDao.findById(10)).thenReturn(optionalStudentEmpty);
-        when(studentDao.findById(1)).thenReturn(optionalStudent1);
+        when(studentDao.existsById(10)).thenReturn(false);
+        when(studentDao.existsById(1)).thenReturn(true);
         doNothing().when(studentDao).deleteStudentById(1);
 
         frontController.startMenu(ITEM_PER_PAGE);
 
         verify(consoleReader, times(4)).readInt();
         verify(consoleReader, times(1)).read();
-        verify(studentDao, times(1)).findById(10);
-        verify(studentDao, times(1)).findById(1);
+        verify(studentDao, times(1)).existsById(10);
+        verify(studentDao, times(1)).existsById(1);
+        verify(studentDao, never()).findById(anyInt());
         verify(studentDao, times(1)).deleteStudentById(1);
         verifyNoInteractions(courseDao);
         verifyNoInteractions(groupDao);
@@ -490,21 +528,19 @@ class FrontControllerTest {
     @Test
     void removeStudentFromGroup_inputFirstlyStudentNotExistThenCorrectData_expectedNothing() {
 
-        Optional<Student> optionalStudentEmpty = Optional.empty();
-        Optional<Student> optionalStudent1 = Optional.of(student1);
-
         when(consoleReader.readInt()).thenReturn(9, 10, 1, 0);
         when(consoleReader.read()).thenReturn("any");
-        when(studentDao.findById(10)).thenReturn(optionalStudentEmpty);
-        when(studentDao.findById(1)).thenReturn(optionalStudent1);
+        when(studentDao.existsById(10)).thenReturn(false);
+        when(studentDao.existsById(1)).thenReturn(true);
         doNothing().when(studentDao).removeStudentFromGroup(1);
 
         frontController.startMenu(ITEM_PER_PAGE);
 
         verify(consoleReader, times(4)).readInt();
         verify(consoleReader, times(1)).read();
-        verify(studentDao, times(1)).findById(10);
-        verify(studentDao, times(1)).findById(1);
+        verify(studentDao, times(1)).existsById(10);
+        verify(studentDao, times(1)).existsById(1);
+        verify(studentDao, never()).findById(anyInt());
         verify(studentDao, times(1)).removeStudentFromGroup(1);
         verifyNoInteractions(courseDao);
         verifyNoInteractions(groupDao);
@@ -519,17 +555,14 @@ class FrontControllerTest {
                 .build();
         Optional<Student> optionalStudentEmpty = Optional.empty();
         Optional<Student> optionalStudent1 = Optional.of(student1);
-        Optional<Course> optionalCourseEmpty = Optional.empty();
-        Optional<Course> optionalCourse1 = Optional.of(course1);
-        Optional<Course> optionalCourseNotRelateToStudent = Optional.of(courseNotRelateToStudent);
 
         when(consoleReader.readInt()).thenReturn(10, 10, 1, 0, 1, 4, 1, 1, 0);
         when(consoleReader.read()).thenReturn("any");
         when(studentDao.findById(10)).thenReturn(optionalStudentEmpty);
         when(studentDao.findById(1)).thenReturn(optionalStudent1);
-        when(courseDao.findById(0)).thenReturn(optionalCourseEmpty);
-        when(courseDao.findById(4)).thenReturn(optionalCourseNotRelateToStudent);
-        when(courseDao.findById(1)).thenReturn(optionalCourse1);
+        when(courseDao.existsById(0)).thenReturn(false);
+        when(courseDao.existsById(courseNotRelateToStudent.getId())).thenReturn(true);
+        when(courseDao.existsById(1)).thenReturn(true);
         when(entityViewProvider.provideCourseTableView(student1Courses)).thenReturn(student1Courses.toString());
 
         doNothing().when(studentDao).removeStudentFromCourse(1, 1);
@@ -540,9 +573,10 @@ class FrontControllerTest {
         verify(consoleReader, times(1)).read();
         verify(studentDao, times(1)).findById(10);
         verify(studentDao, times(3)).findById(1);
-        verify(courseDao, times(1)).findById(0);
-        verify(courseDao, times(1)).findById(4);
-        verify(courseDao, times(1)).findById(1);
+        verify(courseDao, times(1)).existsById(0);
+        verify(courseDao, times(1)).existsById(4);
+        verify(courseDao, times(1)).existsById(1);
+        verify(courseDao, never()).findById(anyInt());
         verify(entityViewProvider, times(3)).provideCourseTableView(student1Courses);
         verify(studentDao, times(1)).removeStudentFromCourse(1, 1);
         verifyNoInteractions(groupDao);
@@ -589,6 +623,7 @@ class FrontControllerTest {
         when(consoleReader.readInt()).thenReturn(12, 1, 0);
         when(consoleReader.read()).thenReturn("any");
         when(courseDao.findAll()).thenReturn(courses);
+        when(courseDao.existsById(1)).thenReturn(true);
         when(studentDao.findStudentsRelatedToCourse(1)).thenReturn(students);
         when(entityViewProvider.provideCourseTableView(courses)).thenReturn(courses.toString());
         when(entityViewProvider.provideStudentTableView(students)).thenReturn(students.toString());
@@ -610,7 +645,7 @@ class FrontControllerTest {
         when(consoleReader.readInt()).thenReturn(12, 12, 0);
         when(consoleReader.read()).thenReturn("any");
         when(courseDao.findAll()).thenReturn(courses);
-        when(studentDao.findStudentsRelatedToCourse(12)).thenReturn(new ArrayList<>());
+        when(courseDao.existsById(12)).thenReturn(false);
         when(entityViewProvider.provideCourseTableView(courses)).thenReturn(courses.toString());
 
         frontController.startMenu(ITEM_PER_PAGE);
@@ -618,11 +653,31 @@ class FrontControllerTest {
         verify(consoleReader, times(3)).readInt();
         verify(consoleReader, times(1)).read();
         verify(courseDao, times(1)).findAll();
-        verify(studentDao, times(1)).findStudentsRelatedToCourse(12);
+        verify(courseDao, times(1)).existsById(12);
+        verify(studentDao, never()).findStudentsRelatedToCourse(anyInt());
         verify(entityViewProvider, times(1)).provideCourseTableView(courses);
         verifyNoInteractions(groupDao);
     }
 
+    @Test
+    void findAllStudentsRelateToCourse_inputCourseWithoutStudents_expectedNoStudentsMessage() {
+
+        when(consoleReader.readInt()).thenReturn(12, 4, 0);
+        when(consoleReader.read()).thenReturn("any");
+        when(courseDao.findAll()).thenReturn(courses);
+        when(courseDao.existsById(4)).thenReturn(true);
+        when(studentDao.findStudentsRelatedToCourse(4)).thenReturn(new ArrayList<>());
+        when(entityViewProvider.provideCourseTableView(courses)).thenReturn(courses.toString());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out));
+        frontController.startMenu(ITEM_PER_PAGE);
+
+        assertTrue(out.toString().contains("No students is subscribed to the course with id = 4"));
+        verify(studentDao, times(1)).findStudentsRelatedToCourse(4);
+        verify(entityViewProvider, never()).provideStudentTableView(anyList());
+    }
+
     @Test
     void startMenu_IncorrectCaseNumber_expectedNothing() {
 
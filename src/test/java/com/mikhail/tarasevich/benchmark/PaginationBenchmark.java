@@ -0,0 +1,75 @@
+package com.mikhail.tarasevich.benchmark;
+
+import com.mikhail.tarasevich.dao.ConnectorDB;
+import com.mikhail.tarasevich.dao.Page;
+import com.mikhail.tarasevich.dao.StudentDao;
+import com.mikhail.tarasevich.dao.impl.ConnectorDBImpl;
+import com.mikhail.tarasevich.dao.impl.CourseDaoImpl;
+import com.mikhail.tarasevich.dao.impl.ScriptRunnerImpl;
+import com.mikhail.tarasevich.dao.impl.StudentDaoImpl;
+import com.mikhail.tarasevich.entity.Student;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares OFFSET paging with keyset paging over 1M students. Run with {@code mvn verify -P benchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaginationBenchmark {
+
+    private static final int STUDENTS_QUANTITY = 1_000_000;
+    private static final int ITEMS_PER_PAGE = 10;
+    private static final int ROTATED_PAGES = 16;
+    private static final String SEED_STUDENTS_QUERY = "INSERT INTO school.students (first_name, last_name, group_id) " +
+            "SELECT 'First' || X, 'Last' || X, MOD(X, 4) + 1 FROM SYSTEM_RANGE(1, ?)";
+
+    @Param({"1", "1000", "50000", "99980"})
+    private int page;
+
+    private StudentDao studentDao;
+    private final int[] lastIdsBeforePages = new int[ROTATED_PAGES];
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        ConnectorDB connectorDB = new ConnectorDBImpl("database");
+        new ScriptRunnerImpl(connectorDB).runScript("src/test/resources/sql/testDB.SQL");
+        try (Connection connection = connectorDB.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(SEED_STUDENTS_QUERY)) {
+            preparedStatement.setInt(1, STUDENTS_QUANTITY);
+            preparedStatement.executeUpdate();
+        }
+        studentDao = new StudentDaoImpl(connectorDB, new CourseDaoImpl(connectorDB));
+        for (int i = 0; i < ROTATED_PAGES; i++) {
+            List<Student> previousPage = studentDao.findAll(page + i - 1, ITEMS_PER_PAGE);
+            lastIdsBeforePages[i] = previousPage.get(previousPage.size() - 1).getId();
+        }
+    }
+
+    // H2 reuses the result of a repeated query with unchanged parameters, so each call moves to a neighbouring page
+    private int nextRotation() {
+        invocation = (invocation + 1) % ROTATED_PAGES;
+        return invocation;
+    }
+
+    @Benchmark
+    public List<Student> offsetPage() {
+        return studentDao.findAll(page + nextRotation(), ITEMS_PER_PAGE);
+    }
+
+    @Benchmark
+    public Page<Student> keysetPage() {
+        return studentDao.findPageAfter(lastIdsBeforePages[nextRotation()], ITEMS_PER_PAGE);
+    }
+
+}
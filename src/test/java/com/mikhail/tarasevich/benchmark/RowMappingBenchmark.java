@@ -0,0 +1,72 @@
+package com.mikhail.tarasevich.benchmark;
+
+import com.mikhail.tarasevich.dao.RowMapper;
+import com.mikhail.tarasevich.dao.impl.StudentRowMapper;
+import com.mikhail.tarasevich.entity.Student;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares mapping students by column names and a fresh builder per row with the index based
+ * {@link StudentRowMapper}. The rows come from an in-memory result set, so only the mapping is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    @Param({"10", "1000"})
+    private int rows;
+
+    private SimpleResultSet resultSet;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        resultSet = new SimpleResultSet();
+        resultSet.setAutoClose(false);
+        resultSet.addColumn("id", Types.INTEGER, 10, 0);
+        resultSet.addColumn("first_name", Types.VARCHAR, 255, 0);
+        resultSet.addColumn("last_name", Types.VARCHAR, 255, 0);
+        resultSet.addColumn("group_id", Types.INTEGER, 10, 0);
+        for (int i = 1; i <= rows; i++) {
+            resultSet.addRow(i, "First" + i, "Last" + i, i % 4 + 1);
+        }
+    }
+
+    @Benchmark
+    public void columnNameMapping(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        while (resultSet.next()) {
+            blackhole.consume(mapByColumnNames(resultSet));
+        }
+    }
+
+    @Benchmark
+    public void columnIndexMapping(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        RowMapper<Student> rowMapper = new StudentRowMapper(resultSet);
+        while (resultSet.next()) {
+            blackhole.consume(rowMapper.mapRow(resultSet));
+        }
+    }
+
+    // the mapping StudentDaoImpl did before row mappers
+    private static Student mapByColumnNames(ResultSet resultSet) throws SQLException {
+        return Student.builder()
+                .withId(resultSet.getInt("id"))
+                .withFirstName(resultSet.getString("first_name"))
+                .withLastName(resultSet.getString("last_name"))
+                .withGroupId(resultSet.getInt("group_id"))
+                .build();
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.mikhail.tarasevich.cache.impl;
+
+import com.mikhail.tarasevich.cache.CacheStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LruCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final LruCache<Integer, String> cache = new LruCache<>(2, 10, TimeUnit.SECONDS, value -> 1, clock::get);
+
+    @Test
+    void get_inputPutKey_expectedValueAndHitCounted() {
+
+        cache.putIfNotInvalidated(1, "one", cache.version());
+
+        assertEquals("one", cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals(new CacheStatistics(1, 1, 0), cache.getStatistics());
+    }
+
+    @Test
+    void putIfNotInvalidated_inputMoreKeysThanMaxSize_expectedLeastRecentlyUsedEvicted() {
+
+        cache.putIfNotInvalidated(1, "one", cache.version());
+        cache.putIfNotInvalidated(2, "two", cache.version());
+        cache.get(1);
+        cache.putIfNotInvalidated(3, "three", cache.version());
+
+        assertEquals("one", cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals("three", cache.get(3));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    void putIfNotInvalidated_inputWeightedValuesOverMaxWeight_expectedLeastRecentlyUsedEvicted() {
+
+        LruCache<Integer, String> weightedCache = new LruCache<>(5, 10, TimeUnit.SECONDS, String::length);
+
+        weightedCache.putIfNotInvalidated(1, "aa", weightedCache.version());
+        weightedCache.putIfNotInvalidated(2, "bbb", weightedCache.version());
+        weightedCache.putIfNotInvalidated(3, "c", weightedCache.version());
+
+        assertNull(weightedCache.get(1));
+        assertEquals("bbb", weightedCache.get(2));
+        assertEquals("c", weightedCache.get(3));
+        assertEquals(4, weightedCache.weight());
+        assertEquals(1, weightedCache.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    void putIfNotInvalidated_inputReplacedValue_expectedWeightRecalculated() {
+
+        LruCache<Integer, String> weightedCache = new LruCache<>(5, 10, TimeUnit.SECONDS, String::length);
+
+        weightedCache.putIfNotInvalidated(1, "aaaa", weightedCache.version());
+        weightedCache.putIfNotInvalidated(1, "a", weightedCache.version());
+        weightedCache.invalidate(2);
+
+        assertEquals(1, weightedCache.weight());
+        weightedCache.invalidate(1);
+        assertEquals(0, weightedCache.weight());
+    }
+
+    @Test
+    void get_inputExpiredKey_expectedNullAndEvictionCounted() {
+
+        cache.putIfNotInvalidated(1, "one", cache.version());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertNull(cache.get(1));
+        assertEquals(0, cache.size());
+        assertEquals(new CacheStatistics(0, 1, 1), cache.getStatistics());
+    }
+
+    @Test
+    void putIfNotInvalidated_inputVersionReadBeforeInvalidation_expectedValueNotCached() {
+
+        long version = cache.version();
+        cache.invalidate(1);
+
+        assertFalse(cache.putIfNotInvalidated(1, "stale", version));
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    void invalidateAll_inputTwoKeys_expectedEmptyCache() {
+
+        cache.putIfNotInvalidated(1, "one", cache.version());
+        cache.putIfNotInvalidated(2, "two", cache.version());
+        cache.invalidateAll();
+
+        assertEquals(0, cache.size());
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    void get_inputConcurrentReadersAndWriters_expectedSizeNeverExceedsMaxSize() throws Exception {
+
+        LruCache<Integer, Integer> sharedCache = new LruCache<>(50, 1, TimeUnit.MINUTES);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[4];
+            for (int thread = 0; thread < futures.length; thread++) {
+                final int seed = thread;
+                futures[thread] = executorService.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        int key = (i * 31 + seed) % 200;
+                        if (sharedCache.get(key) == null) {
+                            sharedCache.putIfNotInvalidated(key, key, sharedCache.version());
+                        }
+                        if (i % 10 == seed) {
+                            sharedCache.invalidate(key);
+                        }
+                        assertTrue(sharedCache.size() <= 50);
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        CacheStatistics statistics = sharedCache.getStatistics();
+        assertEquals(40_000, statistics.getHitCount() + statistics.getMissCount());
+    }
+
+    @Test
+    void constructor_inputNotPositiveSize_expectedException() {
+
+        assertThatThrownBy(() -> new LruCache<Integer, String>(0, 1, TimeUnit.SECONDS))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.mikhail.tarasevich.cache.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TableVersionsImplTest {
+
+    private final TableVersionsImpl tableVersions = new TableVersionsImpl();
+
+    @Test
+    void increment_inputTwoTables_expectedOnlyIncrementedTableChanged() {
+
+        tableVersions.increment("school.students");
+        tableVersions.increment("school.students");
+
+        assertEquals(2, tableVersions.version("school.students"));
+        assertEquals(0, tableVersions.version("school.groups"));
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import com.mikhail.tarasevich.dao.ConnectorDB;
+import com.mikhail.tarasevich.dao.CountMode;
+import com.mikhail.tarasevich.dao.ScriptRunner;
+import com.mikhail.tarasevich.dao.StudentDao;
+import com.mikhail.tarasevich.entity.Student;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AsyncStudentDaoImplTest {
+
+    private static final String SCRIPT_TEST_DB_PATH = "src/test/resources/sql/testDB.SQL";
+    private static final String PATH_TO_TEST_DB_PROP = "database";
+    private final ConnectorDBImpl connectorDB = new ConnectorDBImpl(PATH_TO_TEST_DB_PROP);
+    private final ScriptRunner scriptRunner = new ScriptRunnerImpl(connectorDB);
+    private final StudentDao studentDao = new StudentDaoImpl(connectorDB, new CourseDaoImpl(connectorDB));
+    private final DaoExecutor executor = new DaoExecutor(connectorDB);
+    private final AsyncStudentDaoImpl asyncStudentDao = new AsyncStudentDaoImpl(studentDao, executor);
+
+    @BeforeEach
+    public void runScript() {
+        scriptRunner.runScript(SCRIPT_TEST_DB_PATH);
+    }
+
+    @AfterEach
+    void closeExecutor() {
+        executor.close();
+    }
+
+    @Test
+    void findById_inputIdTogetherWithCountAndFindByFirstName_expectedResultsOfSyncDao() {
+
+        CompletableFuture<Optional<Student>> student = asyncStudentDao.findById(1);
+        CompletableFuture<Long> count = asyncStudentDao.count(CountMode.EXACT);
+        CompletableFuture<List<Student>> studentsByFirstName = asyncStudentDao.findByFirstName("Jack");
+
+        CompletableFuture.allOf(student, count, studentsByFirstName).join();
+
+        assertEquals(studentDao.findById(1), student.join());
+        assertEquals(5L, count.join());
+        assertEquals(studentDao.findByFirstName("Jack"), studentsByFirstName.join());
+    }
+
+    @Test
+    void save_inputStudent_expectedStudentSavedAndFoundAfterComposition() {
+
+        Student student = Student.builder()
+                .withFirstName("Anna")
+                .withLastName("Smirnova")
+                .withGroupId(2)
+                .build();
+
+        Optional<Student> foundStudent = asyncStudentDao.save(student)
+                .thenCompose(savedStudent -> asyncStudentDao.findById(savedStudent.getId()))
+                .join();
+
+        assertEquals("Anna", foundStudent.get().getFirstName());
+        assertEquals(6L, asyncStudentDao.count().join());
+    }
+
+    @Test
+    void save_inputTimeoutShorterThanCall_expectedWriteNotTimedOut() {
+
+        StudentDao slowStudentDao = mock(StudentDao.class);
+        Student student = Student.builder().withId(6).withFirstName("Anna").build();
+        when(slowStudentDao.save(student)).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return student;
+        });
+        AsyncStudentDaoImpl slowAsyncStudentDao = new AsyncStudentDaoImpl(slowStudentDao, executor);
+        slowAsyncStudentDao.setTimeoutMillis(50);
+
+        assertEquals(student, slowAsyncStudentDao.save(student).join());
+    }
+
+    @Test
+    void save_inputFutureCancelled_expectedStudentSavedAnyway() throws Exception {
+
+        Student student = Student.builder()
+                .withFirstName("Anna")
+                .withLastName("Smirnova")
+                .withGroupId(2)
+                .build();
+
+        try (DaoExecutor singleThreadExecutor = new DaoExecutor(1, 10)) {
+            AsyncStudentDaoImpl orderedAsyncStudentDao = new AsyncStudentDaoImpl(studentDao, singleThreadExecutor);
+
+            orderedAsyncStudentDao.save(student).cancel(true);
+
+            assertEquals(6L, orderedAsyncStudentDao.count().get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void findAll_inputTimeoutShorterThanCall_expectedTimeoutException() {
+
+        StudentDao slowStudentDao = mock(StudentDao.class);
+        when(slowStudentDao.findAll()).thenAnswer(invocation -> {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(5));
+            return studentDao.findAll();
+        });
+        AsyncStudentDaoImpl slowAsyncStudentDao = new AsyncStudentDaoImpl(slowStudentDao, executor);
+        slowAsyncStudentDao.setTimeoutMillis(50);
+
+        assertThatThrownBy(() -> slowAsyncStudentDao.findAll().join()).hasCauseInstanceOf(TimeoutException.class);
+    }
+
+}
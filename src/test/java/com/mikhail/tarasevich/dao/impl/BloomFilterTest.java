@@ -0,0 +1,59 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_inputPutNames_expectedNoFalseNegatives() {
+
+        BloomFilter bloomFilter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            bloomFilter.put("name" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(bloomFilter.mightContain("name" + i));
+        }
+        assertEquals(10_000, bloomFilter.getInsertionCount());
+        assertFalse(bloomFilter.isOverCapacity());
+    }
+
+    @Test
+    void mightContain_inputAbsentNamesAtExpectedInsertions_expectedFalsePositiveRateNearConfiguredOne() {
+
+        BloomFilter bloomFilter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            bloomFilter.put("name" + i);
+        }
+
+        long falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (bloomFilter.mightContain("absent" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives / 100_000.0 < 0.02);
+        assertEquals(0.01, bloomFilter.expectedFalsePositiveRate(), 0.005);
+        assertEquals(7, bloomFilter.getHashFunctionCount());
+        // about 9.6 bits per name at 1%
+        assertEquals(bloomFilter.getBitSize() / Byte.SIZE, bloomFilter.memoryBytes());
+        assertTrue(bloomFilter.memoryBytes() < 10_000 * 10 / Byte.SIZE + Long.BYTES);
+    }
+
+    @Test
+    void isOverCapacity_inputMoreNamesThanExpected_expectedTrueAndGrownFalsePositiveRate() {
+
+        BloomFilter bloomFilter = new BloomFilter(100, 0.01);
+        for (int i = 0; i < 300; i++) {
+            bloomFilter.put("name" + i);
+        }
+
+        assertTrue(bloomFilter.isOverCapacity());
+        assertTrue(bloomFilter.expectedFalsePositiveRate() > 0.1);
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import com.mikhail.tarasevich.cache.impl.TableVersionsImpl;
+import com.mikhail.tarasevich.dao.ConnectorDB;
+import com.mikhail.tarasevich.dao.ScriptRunner;
+import com.mikhail.tarasevich.dao.TransactionManager;
+import com.mikhail.tarasevich.dao.exception.DataBaseSqlRuntimeException;
+import com.mikhail.tarasevich.entity.Student;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class BulkLoaderImplTest {
+
+    private static final String SCRIPT_TEST_DB_PATH = "src/test/resources/sql/testDB.SQL";
+    private static final String PATH_TO_TEST_DB_PROP = "database";
+    private static final String STUDENTS_TABLE = "school.students";
+    private static final String STUDENT_COURSES_TABLE = "school.student_courses";
+    private static final List<String> STUDENT_COLUMNS = Arrays.asList("id", "first_name", "last_name", "group_id");
+    private final ConnectorDB connectorDB = new ConnectorDBImpl(PATH_TO_TEST_DB_PROP);
+    private final ScriptRunner scriptRunner = new ScriptRunnerImpl(connectorDB);
+    private final BulkLoaderImpl bulkLoader = new BulkLoaderImpl(connectorDB);
+
+    @BeforeEach
+    public void runScript() {
+        scriptRunner.runScript(SCRIPT_TEST_DB_PATH);
+    }
+
+    @Test
+    void reserveIds_inputThreeIds_expectedIdsAfterLastStudentAndNextSaveAfterThem() {
+
+        int[] reservedIds = bulkLoader.reserveIds(STUDENTS_TABLE, 3);
+
+        Student savedStudent = new StudentDaoImpl(connectorDB, mock(CourseDaoImpl.class)).save(Student.builder()
+                .withFirstName("Ivan")
+                .withLastName("Petrov")
+                .withGroupId(1)
+                .build());
+
+        assertArrayEquals(new int[]{6, 7, 8}, reservedIds);
+        assertEquals(9, savedStudent.getId());
+    }
+
+    @Test
+    void reserveIds_inputOpenTransaction_expectedEarlierWritesOfTransactionRolledBack() {
+
+        TransactionManager transactionManager = (TransactionManager) connectorDB;
+        StudentDaoImpl studentDao = new StudentDaoImpl(connectorDB, mock(CourseDaoImpl.class));
+        studentDao.setTransactionManager(transactionManager);
+        bulkLoader.setTransactionManager(transactionManager);
+
+        transactionManager.begin();
+        studentDao.save(Student.builder()
+                .withFirstName("Ivan")
+                .withLastName("Petrov")
+                .withGroupId(1)
+                .build());
+        int[] reservedIds = bulkLoader.reserveIds(STUDENTS_TABLE, 2);
+        transactionManager.rollback();
+
+        assertArrayEquals(new int[]{7, 8}, reservedIds);
+        assertEquals("", selectAsString("SELECT id FROM school.students WHERE id > 5"));
+    }
+
+    @Test
+    void load_inputStudentsWithReservedIds_expectedStudentsInDB() {
+
+        int[] ids = bulkLoader.reserveIds(STUDENTS_TABLE, 2);
+
+        long loadedRows = bulkLoader.load(STUDENTS_TABLE, STUDENT_COLUMNS, Stream.of(
+                new Object[]{ids[0], "Ivan", "Petrov", 1},
+                new Object[]{ids[1], "Petr", "Ivanov", null}));
+
+        assertEquals(2, loadedRows);
+        assertEquals("6 Ivan Petrov 1, 7 Petr Ivanov null",
+                selectAsString("SELECT id, first_name, last_name, group_id FROM school.students WHERE id > 5"));
+    }
+
+    @Test
+    void load_inputMoreRowsThanOneBatch_expectedAllRowsInDB() {
+
+        int[] ids = bulkLoader.reserveIds(STUDENTS_TABLE, 2500);
+        bulkLoader.load(STUDENTS_TABLE, STUDENT_COLUMNS, Arrays.stream(ids)
+                .mapToObj(id -> new Object[]{id, "First" + id, "Last" + id, id % 4 + 1}));
+
+        long loadedRows = bulkLoader.load(STUDENT_COURSES_TABLE, Arrays.asList("student_id", "course_id"),
+                IntStream.range(0, 2500).mapToObj(i -> new Object[]{ids[i], i % 4 + 1}));
+
+        assertEquals(2500, loadedRows);
+        assertEquals("2505", selectAsString("SELECT COUNT(*) FROM school.students"));
+        assertEquals("2500", selectAsString("SELECT COUNT(*) FROM school.student_courses WHERE student_id > 5"));
+    }
+
+    @Test
+    void load_inputTableVersions_expectedVersionOfLoadedTableIncremented() {
+
+        TableVersionsImpl tableVersions = new TableVersionsImpl();
+        bulkLoader.setTableVersions(tableVersions);
+        long versionBeforeLoad = tableVersions.version(STUDENT_COURSES_TABLE);
+
+        bulkLoader.load(STUDENT_COURSES_TABLE, Arrays.asList("student_id", "course_id"),
+                Stream.<Object[]>of(new Object[]{5, 1}));
+
+        assertEquals(versionBeforeLoad + 1, tableVersions.version(STUDENT_COURSES_TABLE));
+    }
+
+    @Test
+    void load_inputTableNotExist_expectedException() {
+
+        Stream<Object[]> rows = Stream.<Object[]>of(new Object[]{1, "History", "Modern history"});
+
+        assertThatThrownBy(() -> bulkLoader.load("school.lectures", Arrays.asList("id", "name", "description"), rows))
+                .isInstanceOf(DataBaseSqlRuntimeException.class);
+    }
+
+    @Test
+    void appendCopyRow_inputValuesWithNullAndSpecialChars_expectedEscapedTextFormatRow() {
+
+        StringBuilder buffer = new StringBuilder();
+
+        BulkLoaderImpl.appendCopyRow(buffer, new Object[]{1, "C:\\Courses", "a\tb\nc\rd", null});
+
+        assertEquals("1\tC:\\\\Courses\ta\\tb\\nc\\rd\t\\N\n", buffer.toString());
+    }
+
+    private String selectAsString(String query) {
+        StringBuilder result = new StringBuilder();
+        try (final Connection connection = connectorDB.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(query);
+             final ResultSet resultSet = preparedStatement.executeQuery()) {
+            int columns = resultSet.getMetaData().getColumnCount();
+            while (resultSet.next()) {
+                if (result.length() > 0) {
+                    result.append(", ");
+                }
+                for (int i = 1; i <= columns; i++) {
+                    result.append(i > 1 ? " " : "").append(resultSet.getString(i));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return result.toString();
+    }
+
+}
@@ -0,0 +1,214 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingLoaderTest {
+
+    private final List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+    // ids over 100 don't exist
+    private final Function<Collection<Integer>, Map<Integer, String>> batchLoader = ids -> {
+        batches.add(new ArrayList<>(ids));
+        return ids.stream()
+                .filter(id -> id <= 100)
+                .collect(Collectors.toMap(Function.identity(), id -> "entity" + id));
+    };
+
+    @Test
+    void load_inputDifferentIdsWithinWindow_expectedOneBatchForAllIds() {
+
+        CoalescingLoader<String> loader = new CoalescingLoader<>(batchLoader, 50, 100);
+
+        CompletableFuture<Optional<String>> first = loader.load(1);
+        CompletableFuture<Optional<String>> second = loader.load(2);
+        CompletableFuture<Optional<String>> missing = loader.load(101);
+
+        assertEquals(Optional.of("entity1"), first.join());
+        assertEquals(Optional.of("entity2"), second.join());
+        assertEquals(Optional.empty(), missing.join());
+        assertEquals(Collections.singletonList(Arrays.asList(1, 2, 101)), batches);
+    }
+
+    @Test
+    void load_inputSameIdFromConcurrentThreads_expectedOneSharedFuture() throws Exception {
+
+        CoalescingLoader<String> loader = new CoalescingLoader<>(batchLoader, 200, 100);
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<CompletableFuture<Optional<String>>>> requests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            requests.add(CompletableFuture.supplyAsync(() -> {
+                awaitQuietly(start);
+                return loader.load(7);
+            }));
+        }
+        start.countDown();
+
+        List<CompletableFuture<Optional<String>>> futures = requests.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+
+        assertTrue(futures.stream().allMatch(future -> future == futures.get(0)));
+        assertEquals(Optional.of("entity7"), futures.get(0).get(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(Collections.singletonList(7)), batches);
+    }
+
+    @Test
+    void load_inputMaxBatchSizeIds_expectedBatchLoadedWithoutWaitingForWindow() {
+
+        CoalescingLoader<String> loader = new CoalescingLoader<>(batchLoader, TimeUnit.MINUTES.toMillis(1), 2);
+
+        CompletableFuture<Optional<String>> first = loader.load(1);
+        CompletableFuture<Optional<String>> second = loader.load(2);
+
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+        assertEquals(Collections.singletonList(Arrays.asList(1, 2)), batches);
+    }
+
+    @Test
+    void load_inputIdAfterItsBatchCompleted_expectedIdLoadedAgain() {
+
+        CoalescingLoader<String> loader = new CoalescingLoader<>(batchLoader, 10, 100);
+
+        loader.load(3).join();
+        loader.load(3).join();
+
+        assertEquals(Arrays.asList(Collections.singletonList(3), Collections.singletonList(3)), batches);
+    }
+
+    @Test
+    void load_inputFailingBatchLoader_expectedEveryWaiterCompletedExceptionally() {
+
+        CoalescingLoader<String> loader = new CoalescingLoader<>(ids -> {
+            throw new IllegalStateException("batch failed");
+        }, 10, 100);
+
+        CompletableFuture<Optional<String>> first = loader.load(1);
+        CompletableFuture<Optional<String>> second = loader.load(2);
+
+        assertThatThrownBy(first::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(second::join).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void load_inputSlowBatchInLoadExecutor_expectedNextWindowBatchLoadedWithoutWaiting() throws Exception {
+
+        CountDownLatch release = new CountDownLatch(1);
+        CoalescingLoader<String> loader = new CoalescingLoader<>(ids -> {
+            Map<Integer, String> entities = batchLoader.apply(ids);
+            if (ids.contains(1)) {
+                awaitQuietly(release);
+            }
+            return entities;
+        }, 10, 100);
+
+        CompletableFuture<Optional<String>> slow = loader.load(1);
+        awaitBatches(1);
+        CompletableFuture<Optional<String>> next = loader.load(2);
+
+        assertEquals(Optional.of("entity2"), next.get(5, TimeUnit.SECONDS));
+        assertFalse(slow.isDone());
+        release.countDown();
+        assertEquals(Optional.of("entity1"), slow.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void load_inputBatchLoaderThrowingError_expectedWaitersFailedAndIdLoadedAgainLater() {
+
+        List<Integer> loadedIds = Collections.synchronizedList(new ArrayList<>());
+        CoalescingLoader<String> loader = new CoalescingLoader<>(ids -> {
+            if (loadedIds.isEmpty()) {
+                loadedIds.addAll(ids);
+                throw new AssertionError("batch failed");
+            }
+            return batchLoader.apply(ids);
+        }, 10, 100);
+
+        assertThatThrownBy(() -> loader.load(1).get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(AssertionError.class);
+
+        assertEquals(Optional.of("entity1"), loader.load(1).join());
+    }
+
+    @Test
+    void load_inputRejectingLoadExecutor_expectedWaitersCompletedExceptionally() {
+
+        CoalescingLoader<String> loader = new CoalescingLoader<>(batchLoader, 10, 100, command -> {
+            throw new RejectedExecutionException("no threads");
+        });
+
+        CompletableFuture<Optional<String>> future = loader.load(1);
+
+        assertThatThrownBy(future::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    void invalidate_inputIdBeingLoaded_expectedLaterRequestStartsNewBatch() throws Exception {
+
+        CountDownLatch release = new CountDownLatch(1);
+        CoalescingLoader<String> loader = new CoalescingLoader<>(ids -> {
+            if (batches.isEmpty()) {
+                batches.add(new ArrayList<>(ids));
+                awaitQuietly(release);
+                return Collections.singletonMap(5, "oldEntity5");
+            }
+            return batchLoader.apply(ids);
+        }, 10, 100);
+
+        CompletableFuture<Optional<String>> beforeWrite = loader.load(5);
+        awaitBatches(1);
+        loader.invalidate(5);
+        CompletableFuture<Optional<String>> afterWrite = loader.load(5);
+
+        assertNotSame(beforeWrite, afterWrite);
+        assertEquals(Optional.of("entity5"), afterWrite.get(5, TimeUnit.SECONDS));
+        release.countDown();
+        assertEquals(Optional.of("oldEntity5"), beforeWrite.get(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(Collections.singletonList(5), Collections.singletonList(5)), batches);
+    }
+
+    @Test
+    void invalidate_inputPendingId_expectedRequestsStillShareFuture() {
+
+        CoalescingLoader<String> loader = new CoalescingLoader<>(batchLoader, TimeUnit.MINUTES.toMillis(1), 2);
+
+        CompletableFuture<Optional<String>> first = loader.load(5);
+        loader.invalidate(5);
+
+        assertSame(first, loader.load(5));
+        loader.load(6);
+        assertEquals(Optional.of("entity5"), first.join());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitBatches(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (batches.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+}
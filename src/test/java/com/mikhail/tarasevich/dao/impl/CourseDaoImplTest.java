@@ -1,7 +1,14 @@
 package com.mikhail.tarasevich.dao.impl;
 
+import com.mikhail.tarasevich.cache.PageCacheKey;
+import com.mikhail.tarasevich.cache.impl.LruCache;
+import com.mikhail.tarasevich.cache.impl.TableVersionsImpl;
 import com.mikhail.tarasevich.dao.ConnectorDB;
+import com.mikhail.tarasevich.dao.CountMode;
+import com.mikhail.tarasevich.dao.Page;
+import com.mikhail.tarasevich.dao.PresenceFilterStatistics;
 import com.mikhail.tarasevich.dao.ScriptRunner;
+import com.mikhail.tarasevich.dao.TransactionManager;
 import com.mikhail.tarasevich.dao.exception.DataBaseSqlRuntimeException;
 import com.mikhail.tarasevich.entity.Course;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,13 +19,17 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -132,6 +143,36 @@ class CourseDaoImplTest {
         assertEquals(expectedSize, savedCourses.size());
     }
 
+    @Test
+    void saveAll_inputFiveCoursesChunkSizeTwo_expectedCoursesWithGeneratedIdsInListOrder() {
+
+        courseDao.setSaveChunkSize(2);
+        List<Course> courses = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            courses.add(Course.builder()
+                    .withCourseName("chunkedCourse" + i)
+                    .withDescription("chunkedCourse" + i)
+                    .build());
+        }
+
+        List<Course> savedCourses = courseDao.saveAll(courses);
+
+        assertEquals(5, savedCourses.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(5 + i, savedCourses.get(i).getId());
+            assertEquals("chunkedCourse" + (i + 1), savedCourses.get(i).getCourseName());
+        }
+        assertEquals(savedCourses, returnCoursesFromDB("SELECT * FROM school.courses " +
+                "WHERE course_name LIKE 'chunkedCourse%' ORDER BY id"));
+    }
+
+    @Test
+    void saveAll_inputEmptyList_expectedEmptyList() {
+
+        assertTrue(courseDao.saveAll(new ArrayList<>()).isEmpty());
+        assertEquals(4, courseDao.count());
+    }
+
     @Test
     void saveAll_inputNotCorrectCourseDataList_expectedException() {
 
@@ -145,6 +186,82 @@ class CourseDaoImplTest {
         assertThatThrownBy(() -> courseDao.saveAll(courses)).isInstanceOf(DataBaseSqlRuntimeException.class);
     }
 
+    @Test
+    void upsertAll_inputExistingAndNewCoursesChunkSizeTwo_expectedExistingUpdatedAndNewInsertedInListOrder() {
+
+        courseDao.setSaveChunkSize(2);
+        final Course updatedHistory = Course.builder()
+                .withCourseName("History")
+                .withDescription("Ancient history")
+                .build();
+        final Course newCourse1 = Course.builder()
+                .withCourseName("newCourse1")
+                .withDescription("newCourse1")
+                .build();
+        final Course updatedEnglish = Course.builder()
+                .withCourseName("English")
+                .withDescription("American english")
+                .build();
+        final Course newCourse2 = Course.builder()
+                .withCourseName("newCourse2")
+                .withDescription("newCourse2")
+                .build();
+
+        List<Course> upsertedCourses =
+                courseDao.upsertAll(Arrays.asList(updatedHistory, newCourse1, updatedEnglish, newCourse2));
+
+        List<Course> expected = Arrays.asList(
+                Course.builder().withId(1).withCourseName("History").withDescription("Ancient history").build(),
+                Course.builder().withId(5).withCourseName("newCourse1").withDescription("newCourse1").build(),
+                Course.builder().withId(2).withCourseName("English").withDescription("American english").build(),
+                Course.builder().withId(6).withCourseName("newCourse2").withDescription("newCourse2").build());
+
+        assertEquals(expected, upsertedCourses);
+        assertEquals(Arrays.asList(expected.get(0), expected.get(2), course3, course4, expected.get(1),
+                expected.get(3)), returnCoursesFromDB("SELECT * FROM school.courses ORDER BY id"));
+    }
+
+    @Test
+    void upsertAll_inputCoursesWithSameName_expectedOneRowWithLastDescription() {
+
+        final Course first = Course.builder()
+                .withCourseName("newCourse")
+                .withDescription("first")
+                .build();
+        final Course last = Course.builder()
+                .withCourseName("newCourse")
+                .withDescription("last")
+                .build();
+
+        List<Course> upsertedCourses = courseDao.upsertAll(Arrays.asList(first, last));
+
+        final Course expected = Course.builder()
+                .withId(5)
+                .withCourseName("newCourse")
+                .withDescription("last")
+                .build();
+
+        assertEquals(Arrays.asList(expected, expected), upsertedCourses);
+        assertEquals(Collections.singletonList(expected),
+                returnCoursesFromDB("SELECT * FROM school.courses WHERE course_name = 'newCourse'"));
+    }
+
+    @Test
+    void upsertAll_inputOneNewCourseAfterCachedCount_expectedCachedCountIncludesIt() {
+
+        assertEquals(4L, courseDao.count(CountMode.CACHED));
+
+        courseDao.upsertAll(Arrays.asList(course1, Course.builder().withCourseName("newCourse").build()));
+
+        assertEquals(5L, courseDao.count(CountMode.CACHED));
+    }
+
+    @Test
+    void upsertAll_inputEmptyList_expectedEmptyList() {
+
+        assertTrue(courseDao.upsertAll(new ArrayList<>()).isEmpty());
+    }
+
     @Test
     void findById_inputId_expectedCourseWithThisIdFromDB() {
 
@@ -170,6 +287,81 @@ class CourseDaoImplTest {
         assertThatThrownBy(() -> courseDao.findById(10)).isInstanceOf(DataBaseSqlRuntimeException.class);
     }
 
+    @Test
+    void existsById_inputExistingAndMissingIds_expectedPresence() {
+
+        assertTrue(courseDao.existsById(3));
+        assertFalse(courseDao.existsById(10));
+        assertFalse(courseDao.existsById(null));
+    }
+
+    @Test
+    void existAll_inputIds_expectedTrueOnlyIfEveryIdExists() {
+
+        assertTrue(courseDao.existAll(Arrays.asList(1, 4, 1)));
+        assertFalse(courseDao.existAll(Arrays.asList(1, 10)));
+        assertFalse(courseDao.existAll(Arrays.asList(1, null)));
+        assertTrue(courseDao.existAll(Collections.emptyList()));
+    }
+
+    @Test
+    void existsById_inputIdPresenceIndexEnabled_expectedAnswerFromLoadedIdsKeptInSyncByDaoWrites() {
+
+        courseDao.setIdPresenceIndexEnabled(true);
+        assertTrue(courseDao.existsById(4));
+
+        updateDataInDB("ALTER TABLE school.student_courses DROP CONSTRAINT fk_courses; " +
+                "DELETE FROM school.courses WHERE id = 4");
+        Course savedCourse = courseDao.save(Course.builder().withCourseName("newCourse").build());
+        courseDao.deleteById(1);
+
+        assertTrue(courseDao.existsById(4));
+        assertTrue(courseDao.existsById(savedCourse.getId()));
+        assertFalse(courseDao.existsById(1));
+        assertTrue(courseDao.existAll(Arrays.asList(2, 3, 4, savedCourse.getId())));
+
+        courseDao.invalidateIdPresenceIndex();
+
+        assertFalse(courseDao.existsById(4));
+    }
+
+    @Test
+    void existsById_inputIdPresenceIndexAndRolledBackSave_expectedIdsLoadedAgainAfterTransaction() {
+
+        TransactionManager transactionManager = (TransactionManager) connectorDB;
+        courseDao.setTransactionManager(transactionManager);
+        courseDao.setIdPresenceIndexEnabled(true);
+        assertFalse(courseDao.existsById(5));
+
+        transactionManager.begin();
+        courseDao.save(Course.builder().withCourseName("newCourse").build());
+        assertTrue(courseDao.existsById(5));
+        transactionManager.rollback();
+
+        assertFalse(courseDao.existsById(5));
+    }
+
+    @Test
+    void existsById_inputIdPresenceIndexAndSaveInOpenTransaction_expectedIdNotPresentForOtherThreadsUntilCommit()
+            throws Exception {
+
+        TransactionManager transactionManager = (TransactionManager) connectorDB;
+        courseDao.setTransactionManager(transactionManager);
+        courseDao.setIdPresenceIndexEnabled(true);
+        assertFalse(courseDao.existsById(5));
+
+        transactionManager.begin();
+        courseDao.save(Course.builder().withCourseName("newCourse").build());
+        ExecutorService otherThread = Executors.newSingleThreadExecutor();
+        try {
+            assertFalse(otherThread.submit(() -> courseDao.existsById(5)).get());
+            transactionManager.commit();
+            assertTrue(otherThread.submit(() -> courseDao.existsById(5)).get());
+        } finally {
+            otherThread.shutdown();
+        }
+    }
+
     @Test
     void findAll_inputNothing_expectedAllCoursesFromDB() {
 
@@ -192,6 +384,17 @@ class CourseDaoImplTest {
         assertThatThrownBy(() -> courseDao.findAll()).isInstanceOf(DataBaseSqlRuntimeException.class);
     }
 
+    @Test
+    void streamAll_inputFetchSizeThree_expectedAllCoursesFromDB() {
+
+        List<Course> foundCourses;
+        try (Stream<Course> courses = courseDao.streamAll(3)) {
+            foundCourses = courses.collect(Collectors.toList());
+        }
+
+        assertEquals(Arrays.asList(course1, course2, course3, course4), foundCourses);
+    }
+
     @Test
     void findAllPageable_inputPageOneItemsPerPageTwo_expectedTwoCourses() {
 
@@ -213,6 +416,155 @@ class CourseDaoImplTest {
                 .isInstanceOf(DataBaseSqlRuntimeException.class);
     }
 
+    @Test
+    void findPageAfter_inputLastIdZeroItemsPerPageTwo_expectedFirstTwoCoursesAndNextToken() {
+
+        Page<Course> page = courseDao.findPageAfter(0, 2);
+
+        assertEquals(Arrays.asList(course1, course2), page.getContent());
+        assertEquals(Integer.valueOf(2), page.getNextPageToken());
+        assertTrue(page.hasNext());
+    }
+
+    @Test
+    void findPageAfter_inputLastIdTwoItemsPerPageTwo_expectedLastTwoCoursesWithoutNextToken() {
+
+        Page<Course> page = courseDao.findPageAfter(2, 2);
+
+        assertEquals(Arrays.asList(course3, course4), page.getContent());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void findPageAfter_inputPageCacheAndSaveInRolledBackTransaction_expectedUncommittedPageNotCached() {
+
+        TransactionManager transactionManager = (TransactionManager) connectorDB;
+        LruCache<PageCacheKey, Page<Course>> pageCache =
+                new LruCache<>(100, 1, TimeUnit.MINUTES, page -> page.getContent().size());
+        courseDao.setTransactionManager(transactionManager);
+        courseDao.setTableVersions(new TableVersionsImpl());
+        courseDao.setPageCache(pageCache);
+
+        transactionManager.begin();
+        courseDao.save(Course.builder().withCourseName("Astronomy").build());
+        assertEquals(5, courseDao.findPageAfter(0, 10).getContent().size());
+        assertEquals(0, pageCache.size());
+        transactionManager.rollback();
+
+        assertEquals(4, courseDao.findPageAfter(0, 10).getContent().size());
+        assertEquals(1, pageCache.size());
+    }
+
+    @Test
+    void findPageAfter_inputPageCacheInvalidatedWhilePageLoads_expectedLoadedPageNotCached() {
+
+        LruCache<PageCacheKey, Page<Course>> pageCache =
+                new LruCache<>(100, 1, TimeUnit.MINUTES, page -> page.getContent().size());
+        CourseDaoImpl courseDaoInvalidatingOnLoad = new CourseDaoImpl(() -> {
+            pageCache.invalidateAll();
+            return connectorDB.getConnection();
+        });
+        courseDaoInvalidatingOnLoad.setTableVersions(new TableVersionsImpl());
+        courseDaoInvalidatingOnLoad.setPageCache(pageCache);
+
+        assertEquals(2, courseDaoInvalidatingOnLoad.findPageAfter(0, 2).getContent().size());
+
+        assertEquals(0, pageCache.size());
+    }
+
+    @Test
+    void findPageAfter_inputZeroItemsPerPage_expectedIllegalArgumentException() {
+
+        assertThatThrownBy(() -> courseDao.findPageAfter(0, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> courseDao.findPageAfter(0, -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void findPageAfter_inputTableNotExist_expectedException() {
+
+        updateDataInDB("DROP TABLE IF EXISTS school.courses CASCADE");
+
+        assertThatThrownBy(() -> courseDao.findPageAfter(0, 2))
+                .isInstanceOf(DataBaseSqlRuntimeException.class);
+    }
+
+    @Test
+    void findPage_inputPageZeroItemsPerPageThree_expectedFirstThreeCoursesTotalCountAndNextToken() {
+
+        Page<Course> page = courseDao.findPage(0, 3);
+
+        assertEquals(Arrays.asList(course1, course2, course3), page.getContent());
+        assertEquals(Long.valueOf(4), page.getTotalCount());
+        assertEquals(Integer.valueOf(3), page.getNextPageToken());
+    }
+
+    @Test
+    void findPage_inputPageOneItemsPerPageTwo_expectedLastTwoCoursesWithoutNextToken() {
+
+        Page<Course> page = courseDao.findPage(1, 2);
+
+        assertEquals(Arrays.asList(course3, course4), page.getContent());
+        assertEquals(Long.valueOf(4), page.getTotalCount());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void findPage_inputPageBehindLastRow_expectedEmptyContentAndTotalCount() {
+
+        Page<Course> page = courseDao.findPage(5, 2);
+
+        assertTrue(page.getContent().isEmpty());
+        assertEquals(Long.valueOf(4), page.getTotalCount());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void findPage_inputZeroItemsPerPage_expectedIllegalArgumentException() {
+
+        assertThatThrownBy(() -> courseDao.findPage(0, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> courseDao.findPage(0, -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void findPage_inputNegativePage_expectedIllegalArgumentException() {
+
+        assertThatThrownBy(() -> courseDao.findPage(-1, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void findPage_inputTableNotExist_expectedException() {
+
+        updateDataInDB("DROP TABLE IF EXISTS school.courses CASCADE");
+
+        assertThatThrownBy(() -> courseDao.findPage(0, 2))
+                .isInstanceOf(DataBaseSqlRuntimeException.class);
+    }
+
+    @Test
+    void onRowsWrittenExternally_inputCourseBulkLoaded_expectedFiltersAndCachedCountSeeLoadedCourse() {
+
+        courseDao.setIdPresenceIndexEnabled(true);
+        courseDao.setNameLookupFilterEnabled(true);
+        assertFalse(courseDao.existsById(5));
+        assertEquals(Optional.empty(), courseDao.findByCourseName("Astronomy"));
+        assertEquals(4L, courseDao.count(CountMode.CACHED));
+        BulkLoaderImpl bulkLoader = new BulkLoaderImpl(connectorDB);
+        int[] ids = bulkLoader.reserveIds("school.courses", 1);
+        bulkLoader.load("school.courses", Arrays.asList("id", "course_name"),
+                Stream.<Object[]>of(new Object[]{ids[0], "Astronomy"}));
+
+        courseDao.onRowsWrittenExternally();
+
+        assertTrue(courseDao.existsById(5));
+        assertEquals(5, courseDao.findByCourseName("Astronomy").map(Course::getId).orElse(0));
+        assertEquals(5L, courseDao.count(CountMode.CACHED));
+    }
+
     @Test
     void findByCourseName_inputCourseName_expectedCourseWithThisNameFromDB() {
 
@@ -224,6 +576,107 @@ class CourseDaoImplTest {
         }
     }
 
+    @Test
+    void findById_inputEntityCacheAndUpdateInRolledBackTransaction_expectedUncommittedCourseNotCached() {
+
+        TransactionManager transactionManager = (TransactionManager) connectorDB;
+        LruCache<Integer, Course> courseCache = new LruCache<>(10, 1, TimeUnit.MINUTES);
+        courseDao.setTransactionManager(transactionManager);
+        courseDao.setEntityCache(courseCache);
+        Course renamedCourse = Course.builder().withId(1).withCourseName("Renamed").withDescription("none").build();
+
+        transactionManager.begin();
+        courseDao.update(renamedCourse);
+        assertEquals(Optional.of(renamedCourse), courseDao.findById(1));
+        assertEquals(Collections.singletonMap(1, renamedCourse), courseDao.findByIds(Collections.singletonList(1)));
+        assertEquals(0, courseCache.size());
+        transactionManager.rollback();
+
+        assertEquals(Optional.of(course1), courseDao.findById(1));
+        assertEquals(1, courseCache.size());
+    }
+
+    @Test
+    void findById_inputMissingIdWithIdPresenceIndex_expectedEmptyWithoutQuery() {
+
+        courseDao.setIdPresenceIndexEnabled(true);
+        assertEquals(Optional.of(course1), courseDao.findById(1));
+
+        updateDataInDB("DROP TABLE IF EXISTS school.courses CASCADE");
+
+        assertEquals(Optional.empty(), courseDao.findById(10));
+        assertEquals(Collections.emptyMap(), courseDao.findByIds(Arrays.asList(10, 11)));
+        PresenceFilterStatistics statistics = courseDao.getIdPresenceStatistics();
+        assertEquals(4, statistics.getLookupCount());
+        assertEquals(3, statistics.getDefiniteMissCount());
+        assertEquals(0, statistics.getExpectedFalsePositiveRate());
+        assertTrue(statistics.getMemoryBytes() > 0);
+    }
+
+    @Test
+    void findByCourseName_inputNameLookupFilter_expectedMissesWithoutQueryAndSavedNamesFound() {
+
+        courseDao.setNameLookupFilterEnabled(true);
+        assertEquals(Optional.of(course3), courseDao.findByCourseName("Geography"));
+        Course savedCourse = courseDao.save(Course.builder().withCourseName("Astronomy").build());
+
+        assertEquals(Optional.of(savedCourse), courseDao.findByCourseName("Astronomy"));
+
+        updateDataInDB("DROP TABLE IF EXISTS school.courses CASCADE");
+
+        assertEquals(Optional.empty(), courseDao.findByCourseName("Geografy"));
+        PresenceFilterStatistics statistics = courseDao.getNameLookupStatistics();
+        assertEquals(3, statistics.getLookupCount());
+        assertEquals(1, statistics.getDefiniteMissCount());
+        assertEquals(0, statistics.getFalsePositiveCount());
+        assertTrue(statistics.getExpectedFalsePositiveRate() < 0.01);
+        assertTrue(statistics.getMemoryBytes() > 0);
+    }
+
+    @Test
+    void findByCourseName_inputNameOfDeletedCourse_expectedFalsePositiveCounted() {
+
+        courseDao.setNameLookupFilterEnabled(true);
+        assertEquals(Optional.of(course4), courseDao.findByCourseName("RPA"));
+        updateDataInDB("ALTER TABLE school.student_courses DROP CONSTRAINT fk_courses");
+        courseDao.deleteById(4);
+
+        assertEquals(Optional.empty(), courseDao.findByCourseName("RPA"));
+        assertEquals(1, courseDao.getNameLookupStatistics().getFalsePositiveCount());
+        assertEquals(1.0, courseDao.getNameLookupStatistics().observedFalsePositiveRate());
+    }
+
+    @Test
+    void findByCourseName_inputNameLookupFilterRebuiltWhileSavingTransactionIsOpen_expectedSavedCourseFoundAfterCommit()
+            throws Exception {
+
+        TransactionManager transactionManager = (TransactionManager) connectorDB;
+        courseDao.setTransactionManager(transactionManager);
+        courseDao.setNameLookupFilterEnabled(true);
+
+        transactionManager.begin();
+        Course savedCourse = courseDao.save(Course.builder().withCourseName("Astronomy").build());
+        courseDao.invalidateNameLookupFilter();
+        ExecutorService otherThread = Executors.newSingleThreadExecutor();
+        try {
+            // the filter is loaded again by a scan that can't see the uncommitted course
+            assertEquals(Optional.of(course3), otherThread.submit(() -> courseDao.findByCourseName("Geography")).get());
+            transactionManager.commit();
+        } finally {
+            otherThread.shutdown();
+        }
+
+        assertEquals(Optional.of(savedCourse), courseDao.findByCourseName("Astronomy"));
+    }
+
+    @Test
+    void getNameLookupStatistics_inputFilterDisabled_expectedZeros() {
+
+        courseDao.findByCourseName("Geography");
+
+        assertEquals(new PresenceFilterStatistics(0, 0, 0, 0, 0), courseDao.getNameLookupStatistics());
+    }
+
     @Test
     void findCoursesByStudentId_inputStudentId_expectedCoursesListRelateToThisStudent() {
 
@@ -236,6 +689,36 @@ class CourseDaoImplTest {
         assertEquals(expectedSize, foundCourses.size());
     }
 
+    @Test
+    void findCoursesByStudentIds_inputStudentsIds_expectedCoursesGroupedByStudentId() {
+
+        Map<Integer, List<Course>> foundCourses = courseDao.findCoursesByStudentIds(Arrays.asList(1, 2, 5));
+
+        int expectedSize = 2;
+
+        assertEquals(Arrays.asList(course1, course2), foundCourses.get(1));
+        assertEquals(Arrays.asList(course2, course3), foundCourses.get(2));
+        assertFalse(foundCourses.containsKey(5));
+        assertEquals(expectedSize, foundCourses.size());
+    }
+
+    @Test
+    void findCoursesByStudentIds_inputEmptyList_expectedEmptyMapWithoutQuery() {
+
+        assertTrue(sutCourseDao.findCoursesByStudentIds(new ArrayList<>()).isEmpty());
+
+        verifyNoInteractions(sutConnectorDB);
+    }
+
+    @Test
+    void findCoursesByStudentIds_inputTableNotExist_expectedException() {
+
+        updateDataInDB("DROP TABLE IF EXISTS school.student_courses CASCADE");
+
+        assertThatThrownBy(() -> courseDao.findCoursesByStudentIds(Arrays.asList(1, 2)))
+                .isInstanceOf(DataBaseSqlRuntimeException.class);
+    }
+
     @Test
     void findManyByParam_inputTableNotExist_expectedException() {
 
@@ -301,6 +784,23 @@ class CourseDaoImplTest {
         assertEquals(expectedSize, leftCoursesAfterDelete.size());
     }
 
+    @Test
+    void deleteCourseById_inputWriteBehindSubscriptionToCourseQueued_expectedQueueFlushedBeforeDelete() {
+
+        StudentDaoImpl studentDao = new StudentDaoImpl(connectorDB, courseDao);
+        studentDao.setWriteBehindFlushIntervalMillis(TimeUnit.MINUTES.toMillis(1));
+        courseDao.setStudentDaoProvider(() -> studentDao);
+
+        studentDao.subscribeStudentToCourse(5, 1);
+        courseDao.deleteCourseById(1);
+        studentDao.flushWrites();
+
+        assertEquals(0, countRowsInDB("SELECT COUNT(*) FROM school.student_courses WHERE course_id = 1"));
+        assertEquals(1, studentDao.getWriteBehindStatistics().getWrittenCount());
+        assertEquals(0, studentDao.getWriteBehindStatistics().getFailedCount());
+        studentDao.closeWrites();
+    }
+
     @Test
     void deleteCourseById_inputConnectionDBThrowsException_expectedException() throws SQLException {
 
@@ -411,6 +911,17 @@ class CourseDaoImplTest {
         return courses;
     }
 
+    private long countRowsInDB(String query) {
+        try (final Connection connection = connectorDB.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(query);
+             final ResultSet resultSet = preparedStatement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private void updateDataInDB(String query) {
         try (final Connection connection = connectorDB.getConnection();
              final PreparedStatement preparedStatement = connection.prepareStatement(query)) {
@@ -0,0 +1,123 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DaoExecutorTest {
+
+    private final DaoExecutor executor = new DaoExecutor(2, 1);
+
+    @AfterEach
+    void closeExecutor() {
+        executor.close();
+    }
+
+    @Test
+    void supply_inputTwoBlockingCalls_expectedCallsRunConcurrently() throws Exception {
+
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        CompletableFuture<Boolean> first = executor.supply(() -> awaitOther(bothStarted));
+        CompletableFuture<Boolean> second = executor.supply(() -> awaitOther(bothStarted));
+
+        assertTrue(first.thenCombine(second, Boolean::logicalAnd).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void supply_inputFailingCall_expectedFutureCompletedExceptionally() {
+
+        CompletableFuture<Object> future = executor.supply(() -> {
+            throw new IllegalStateException("call failed");
+        });
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void supply_inputMoreCallsThanThreadsAndQueue_expectedCallRejected() throws Exception {
+
+        CountDownLatch release = new CountDownLatch(1);
+        executor.run(() -> await(release));
+        executor.run(() -> await(release));
+        executor.run(() -> await(release));
+
+        CompletableFuture<Object> rejected = executor.supply(Object::new);
+        release.countDown();
+
+        assertThatThrownBy(() -> rejected.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void supply_inputCancelledWhileQueued_expectedCallSkipped() throws Exception {
+
+        CountDownLatch release = new CountDownLatch(1);
+        executor.run(() -> await(release));
+        executor.run(() -> await(release));
+        AtomicBoolean called = new AtomicBoolean();
+        CompletableFuture<Void> queued = executor.run(() -> called.set(true));
+
+        assertTrue(queued.cancel(true));
+        release.countDown();
+        executor.run(() -> {
+        }).get(5, TimeUnit.SECONDS);
+
+        assertFalse(called.get());
+    }
+
+    @Test
+    void withTimeout_inputCallLongerThanTimeout_expectedTimeoutAndRunningCallNotInterrupted() throws Exception {
+
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CompletableFuture<Void> future = executor.withTimeout(executor.run(() -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            finished.countDown();
+        }), 50, TimeUnit.MILLISECONDS);
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertFalse(interrupted.get());
+    }
+
+    @Test
+    void withTimeout_inputCallShorterThanTimeout_expectedValue() throws Exception {
+
+        assertEquals("value", executor.withTimeout(executor.supply(() -> "value"), 5, TimeUnit.SECONDS).get());
+    }
+
+    private static boolean awaitOther(CountDownLatch bothStarted) {
+        bothStarted.countDown();
+        try {
+            return bothStarted.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
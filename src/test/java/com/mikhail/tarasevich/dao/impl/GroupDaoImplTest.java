@@ -1,6 +1,9 @@
 package com.mikhail.tarasevich.dao.impl;
 
+import com.mikhail.tarasevich.cache.impl.LruCache;
+import com.mikhail.tarasevich.cache.impl.TableVersionsImpl;
 import com.mikhail.tarasevich.dao.ConnectorDB;
+import com.mikhail.tarasevich.dao.Page;
 import com.mikhail.tarasevich.dao.ScriptRunner;
 import com.mikhail.tarasevich.dao.StudentDao;
 import com.mikhail.tarasevich.dao.exception.DataBaseSqlRuntimeException;
@@ -15,13 +18,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -218,6 +222,24 @@ class GroupDaoImplTest {
         verifyNoInteractions(studentDao);
     }
 
+    @Test
+    void upsertAll_inputExistingAndNewGroups_expectedIdsOfExistingAndInsertedGroups() {
+
+        final Group existingGroup = Group.builder()
+                .withGroupName("go-22")
+                .build();
+        final Group newGroup = Group.builder()
+                .withGroupName("go-25")
+                .build();
+
+        List<Group> upsertedGroups = groupDao.upsertAll(Arrays.asList(existingGroup, newGroup));
+
+        assertEquals(2, upsertedGroups.get(0).getId());
+        assertEquals(5, upsertedGroups.get(1).getId());
+        assertEquals(5, returnGroupsFromDB("SELECT * FROM school.groups").size());
+        verifyNoInteractions(studentDao);
+    }
+
     @Test
     void saveAll_inputNotCorrectGroupsDataList_expectedException() {
 
@@ -238,7 +260,8 @@ class GroupDaoImplTest {
     @Test
     void findById_inputId_expectedGroupWithThisIdFromDB() {
 
-        when(studentDao.findStudentsByGroupId(3)).thenReturn(studentsFromGroup3);
+        when(studentDao.findStudentsByGroupIds(Collections.singletonList(3)))
+                .thenReturn(Collections.singletonMap(3, studentsFromGroup3));
 
         final Group expectedGroup = group3;
 
@@ -247,7 +270,8 @@ class GroupDaoImplTest {
         if(optionalGroup.isPresent()){
             foundGroup = optionalGroup.get();
             assertEquals(expectedGroup, foundGroup);
-            verify(studentDao, times(1)).findStudentsByGroupId(3);
+            assertEquals(expectedGroup.getStudentsList(), foundGroup.getStudentsList());
+            verify(studentDao, times(1)).findStudentsByGroupIds(Collections.singletonList(3));
         }
     }
 
@@ -272,10 +296,12 @@ class GroupDaoImplTest {
     @Test
     void findAll_inputNothing_expectedAllGroupsFromDB() {
 
-        when(studentDao.findStudentsByGroupId(1)).thenReturn(studentsFromGroup1);
-        when(studentDao.findStudentsByGroupId(2)).thenReturn(studentsFromGroup2);
-        when(studentDao.findStudentsByGroupId(3)).thenReturn(studentsFromGroup3);
-        when(studentDao.findStudentsByGroupId(4)).thenReturn(studentsFromGroup4);
+        Map<Integer, List<Student>> studentsByGroupId = new HashMap<>();
+        studentsByGroupId.put(1, studentsFromGroup1);
+        studentsByGroupId.put(2, studentsFromGroup2);
+        studentsByGroupId.put(3, studentsFromGroup3);
+
+        when(studentDao.findStudentsByGroupIds(Arrays.asList(1, 2, 3, 4))).thenReturn(studentsByGroupId);
 
         List<Group> foundGroups = groupDao.findAll();
 
@@ -292,10 +318,29 @@ class GroupDaoImplTest {
         assertEquals(expectedGroup3, foundGroups.get(3));
         assertEquals(expectedSize, foundGroups.size());
 
-        verify(studentDao, times(1)).findStudentsByGroupId(1);
-        verify(studentDao, times(1)).findStudentsByGroupId(2);
-        verify(studentDao, times(1)).findStudentsByGroupId(3);
-        verify(studentDao, times(1)).findStudentsByGroupId(4);
+        assertEquals(studentsLists(Arrays.asList(expectedGroup0, expectedGroup1, expectedGroup2, expectedGroup3)),
+                studentsLists(foundGroups));
+        verify(studentDao, times(1)).findStudentsByGroupIds(Arrays.asList(1, 2, 3, 4));
+        verifyNoMoreInteractions(studentDao);
+    }
+
+    @Test
+    void findAll_inputNothing_expectedStudentsNotLoadedForShallowRead() {
+
+        List<Group> foundGroups = groupDao.findAll();
+
+        assertEquals("go-21", foundGroups.get(0).getGroupName());
+        assertEquals(4, foundGroups.size());
+
+        verifyNoInteractions(studentDao);
+
+        when(studentDao.findStudentsByGroupIds(Arrays.asList(1, 2, 3, 4)))
+                .thenReturn(Collections.singletonMap(1, studentsFromGroup1));
+
+        assertEquals(studentsFromGroup1, foundGroups.get(0).getStudentsList());
+        assertTrue(foundGroups.get(3).getStudentsList().isEmpty());
+
+        verify(studentDao, times(1)).findStudentsByGroupIds(Arrays.asList(1, 2, 3, 4));
     }
 
     @Test
@@ -311,8 +356,8 @@ class GroupDaoImplTest {
     @Test
     void findAllPageable_inputPageOneItemsPerPageTwo_expectedTwoGroups() {
 
-        when(studentDao.findStudentsByGroupId(3)).thenReturn(studentsFromGroup3);
-        when(studentDao.findStudentsByGroupId(4)).thenReturn(studentsFromGroup4);
+        when(studentDao.findStudentsByGroupIds(Arrays.asList(3, 4)))
+                .thenReturn(Collections.singletonMap(3, studentsFromGroup3));
 
         List<Group> foundGroups = groupDao.findAll(1, 2);
 
@@ -325,8 +370,9 @@ class GroupDaoImplTest {
         assertEquals(expectedGroup1, foundGroups.get(1));
         assertEquals(expectedSize, foundGroups.size());
 
-        verify(studentDao, times(1)).findStudentsByGroupId(3);
-        verify(studentDao, times(1)).findStudentsByGroupId(4);
+        assertEquals(studentsLists(Arrays.asList(expectedGroup0, expectedGroup1)), studentsLists(foundGroups));
+        verify(studentDao, times(1)).findStudentsByGroupIds(Arrays.asList(3, 4));
+        verifyNoMoreInteractions(studentDao);
     }
 
     @Test
@@ -340,10 +386,54 @@ class GroupDaoImplTest {
         verifyNoInteractions(studentDao);
     }
 
+    @Test
+    void findPageAfter_inputLastIdTwoItemsPerPageTwo_expectedLastTwoGroupsWithoutNextToken() {
+
+        when(studentDao.findStudentsByGroupIds(Arrays.asList(3, 4)))
+                .thenReturn(Collections.singletonMap(3, studentsFromGroup3));
+
+        Page<Group> page = groupDao.findPageAfter(2, 2);
+
+        assertEquals(Arrays.asList(group3, group4), page.getContent());
+        assertFalse(page.hasNext());
+
+        assertEquals(studentsLists(Arrays.asList(group3, group4)), studentsLists(page.getContent()));
+        verify(studentDao, times(1)).findStudentsByGroupIds(Arrays.asList(3, 4));
+        verifyNoMoreInteractions(studentDao);
+    }
+
+    @Test
+    void findPageAfter_inputLastIdZeroItemsPerPageThree_expectedFirstThreeGroupsAndNextToken() {
+
+        Page<Group> page = groupDao.findPageAfter(0, 3);
+
+        assertEquals(3, page.getContent().size());
+        assertEquals(Integer.valueOf(3), page.getNextPageToken());
+        verifyNoInteractions(studentDao);
+    }
+
+    @Test
+    void findPage_inputPageOneItemsPerPageTwo_expectedLastTwoGroupsAndTotalCount() {
+
+        when(studentDao.findStudentsByGroupIds(Arrays.asList(3, 4)))
+                .thenReturn(Collections.singletonMap(3, studentsFromGroup3));
+
+        Page<Group> page = groupDao.findPage(1, 2);
+
+        assertEquals(Arrays.asList(group3, group4), page.getContent());
+        assertEquals(Long.valueOf(4), page.getTotalCount());
+        assertFalse(page.hasNext());
+
+        assertEquals(studentsLists(Arrays.asList(group3, group4)), studentsLists(page.getContent()));
+        verify(studentDao, times(1)).findStudentsByGroupIds(Arrays.asList(3, 4));
+        verifyNoMoreInteractions(studentDao);
+    }
+
     @Test
     void findByGroupName_inputGroupName_expectedGroupWithThisNameFromDB() {
 
-        when(studentDao.findStudentsByGroupId(2)).thenReturn(studentsFromGroup2);
+        when(studentDao.findStudentsByGroupIds(Collections.singletonList(2)))
+                .thenReturn(Collections.singletonMap(2, studentsFromGroup2));
 
         final Group expectedGroup = group2;
 
@@ -352,14 +442,16 @@ class GroupDaoImplTest {
         if(optionalGroup.isPresent()){
             foundGroup = optionalGroup.get();
             assertEquals(expectedGroup, foundGroup);
-            verify(studentDao, times(1)).findStudentsByGroupId(2);
+            assertEquals(expectedGroup.getStudentsList(), foundGroup.getStudentsList());
+            verify(studentDao, times(1)).findStudentsByGroupIds(Collections.singletonList(2));
         }
     }
 
     @Test
     void findGroupByStudentId_inputStudentId_expectedGroupWhichRelateThisStudent() {
 
-        when(studentDao.findStudentsByGroupId(3)).thenReturn(studentsFromGroup3);
+        when(studentDao.findStudentsByGroupIds(Collections.singletonList(3)))
+                .thenReturn(Collections.singletonMap(3, studentsFromGroup3));
 
         final Group expectedGroup = group3;
 
@@ -368,16 +460,19 @@ class GroupDaoImplTest {
         if(optionalGroup.isPresent()){
             foundGroup = optionalGroup.get();
             assertEquals(expectedGroup, foundGroup);
-            verify(studentDao, times(1)).findStudentsByGroupId(3);
+            assertEquals(expectedGroup.getStudentsList(), foundGroup.getStudentsList());
+            verify(studentDao, times(1)).findStudentsByGroupIds(Collections.singletonList(3));
         }
     }
 
     @Test
     void findGroupsWithLessEqualCountOfStudents_inputCountOfStudent_expectedListOfGroups() {
 
-        when(studentDao.findStudentsByGroupId(2)).thenReturn(studentsFromGroup2);
-        when(studentDao.findStudentsByGroupId(3)).thenReturn(studentsFromGroup3);
-        when(studentDao.findStudentsByGroupId(4)).thenReturn(studentsFromGroup4);
+        Map<Integer, List<Student>> studentsByGroupId = new HashMap<>();
+        studentsByGroupId.put(2, studentsFromGroup2);
+        studentsByGroupId.put(3, studentsFromGroup3);
+
+        when(studentDao.findStudentsByGroupIds(Arrays.asList(2, 3, 4))).thenReturn(studentsByGroupId);
 
         List<Group> foundGroups = groupDao.findGroupsWithLessEqualCountOfStudents(1);
 
@@ -392,9 +487,9 @@ class GroupDaoImplTest {
         assertEquals(expectedGroup2, foundGroups.get(2));
         assertEquals(expectedSize, foundGroups.size());
 
-        verify(studentDao, times(1)).findStudentsByGroupId(2);
-        verify(studentDao, times(1)).findStudentsByGroupId(3);
-        verify(studentDao, times(1)).findStudentsByGroupId(4);
+        assertEquals(studentsLists(Arrays.asList(expectedGroup0, expectedGroup1, expectedGroup2)),
+                studentsLists(foundGroups));
+        verify(studentDao, times(1)).findStudentsByGroupIds(Arrays.asList(2, 3, 4));
     }
 
     @Test
@@ -479,7 +574,52 @@ class GroupDaoImplTest {
         assertEquals(expectedGroup.getGroupName(), leftGroupsAfterDelete.get(0).getGroupName());
         assertEquals(expectedSize, leftGroupsAfterDelete.size());
 
-        verifyNoInteractions(studentDao);
+        verify(studentDao, times(3)).flushWrites();
+        verifyNoMoreInteractions(studentDao);
+    }
+
+    @Test
+    void deleteGroupById_inputCachedStudents_expectedStudentCacheInvalidated() {
+
+        LruCache<Integer, Student> studentCache = new LruCache<>(10, 1, TimeUnit.MINUTES);
+        studentCache.putIfNotInvalidated(1, Student.builder().withId(1).withGroupId(3).build(), studentCache.version());
+        groupDao.setStudentCache(studentCache);
+
+        groupDao.deleteGroupById(3);
+
+        assertEquals(0, studentCache.size());
+        verify(studentDao, times(1)).flushWrites();
+        verifyNoMoreInteractions(studentDao);
+    }
+
+    @Test
+    void findById_inputCachedGroupThenDeleted_expectedEmptyOptional() {
+
+        LruCache<Integer, Group> groupCache = new LruCache<>(10, 1, TimeUnit.MINUTES);
+        groupDao.setEntityCache(groupCache);
+
+        assertTrue(groupDao.findById(4).isPresent());
+        assertTrue(groupDao.findById(4).isPresent());
+        groupDao.deleteGroupById(4);
+
+        assertFalse(groupDao.findById(4).isPresent());
+        assertEquals(1, groupCache.getStatistics().getHitCount());
+        verify(studentDao, times(1)).flushWrites();
+        verifyNoMoreInteractions(studentDao);
+    }
+
+    @Test
+    void deleteGroupById_inputTableVersions_expectedGroupsAndStudentsTablesChanged() {
+
+        TableVersionsImpl tableVersions = new TableVersionsImpl();
+        groupDao.setTableVersions(tableVersions);
+
+        groupDao.deleteGroupById(3);
+
+        assertEquals(1, tableVersions.version("school.groups"));
+        assertEquals(1, tableVersions.version("school.students"));
+        verify(studentDao, times(1)).flushWrites();
+        verifyNoMoreInteractions(studentDao);
     }
 
     @Test
@@ -567,6 +707,11 @@ class GroupDaoImplTest {
         }
     }
 
+    // Group equals doesn't compare the lazily loaded students, so they are compared separately
+    private static List<List<Student>> studentsLists(Collection<Group> groups) {
+        return groups.stream().map(Group::getStudentsList).collect(Collectors.toList());
+    }
+
     private List<Group> returnGroupsFromDB(String query) {
         List<Group> groups = new ArrayList<>();
         try (final Connection connection = connectorDB.getConnection();
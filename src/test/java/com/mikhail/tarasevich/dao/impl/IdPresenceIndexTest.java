@@ -0,0 +1,91 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdPresenceIndexTest {
+
+    private static BitSet bits(int... ids) {
+        BitSet bitSet = new BitSet();
+        for (int id : ids) {
+            bitSet.set(id);
+        }
+        return bitSet;
+    }
+
+    @Test
+    void contains_inputLoadedIds_expectedIdsLoadedOnceOnFirstLookup() {
+
+        AtomicInteger loads = new AtomicInteger();
+        IdPresenceIndex index = new IdPresenceIndex(() -> {
+            loads.incrementAndGet();
+            return bits(1, 2, 5);
+        });
+
+        assertEquals(0, loads.get());
+        assertTrue(index.contains(5));
+        assertFalse(index.contains(3));
+        assertFalse(index.contains(-1));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void addAndRemove_inputChangesAfterLoad_expectedChangesApplied() {
+
+        IdPresenceIndex index = new IdPresenceIndex(() -> bits(1, 2));
+        index.contains(1);
+
+        index.add(3);
+        index.remove(1);
+
+        assertTrue(index.contains(3));
+        assertFalse(index.contains(1));
+    }
+
+    @Test
+    void addAndRemove_inputChangesWhileIdsAreLoaded_expectedChangesAppliedToLoadedIds() {
+
+        IdPresenceIndex[] index = new IdPresenceIndex[1];
+        index[0] = new IdPresenceIndex(() -> {
+            // rows changed after the scan has passed them
+            index[0].add(7);
+            index[0].remove(1);
+            return bits(1, 2);
+        });
+
+        assertTrue(index[0].contains(7));
+        assertFalse(index[0].contains(1));
+        assertTrue(index[0].contains(2));
+    }
+
+    @Test
+    void invalidate_inputInvalidationWhileIdsAreLoaded_expectedIdsLoadedAgain() {
+
+        AtomicInteger loads = new AtomicInteger();
+        IdPresenceIndex[] index = new IdPresenceIndex[1];
+        Supplier<BitSet> loader = () -> {
+            if (loads.incrementAndGet() == 1) {
+                index[0].invalidate();
+                return bits(1);
+            }
+            return bits(2);
+        };
+        index[0] = new IdPresenceIndex(loader);
+
+        assertFalse(index[0].contains(1));
+        assertTrue(index[0].contains(2));
+        assertEquals(2, loads.get());
+
+        index[0].invalidate();
+        index[0].add(9);
+
+        assertFalse(index[0].contains(9));
+        assertEquals(3, loads.get());
+    }
+
+}
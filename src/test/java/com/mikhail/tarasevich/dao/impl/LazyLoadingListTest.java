@@ -0,0 +1,109 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import com.mikhail.tarasevich.entity.Group;
+import com.mikhail.tarasevich.entity.Student;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyLoadingListTest {
+
+    @Test
+    void constructor_inputLoader_expectedLoaderNotCalledUntilFirstAccess() {
+
+        AtomicInteger loaderCalls = new AtomicInteger();
+
+        LazyLoadingList<Integer> lazyList = new LazyLoadingList<>(() -> {
+            loaderCalls.incrementAndGet();
+            return Arrays.asList(1, 2, 3);
+        });
+
+        assertFalse(lazyList.isLoaded());
+        assertEquals(0, loaderCalls.get());
+
+        assertEquals(3, lazyList.size());
+        assertEquals(Arrays.asList(1, 2, 3), lazyList);
+        assertTrue(lazyList.isLoaded());
+        assertEquals(1, loaderCalls.get());
+    }
+
+    @Test
+    void entityEqualsHashCodeToString_inputLazyLists_expectedLoaderNotCalled() {
+
+        AtomicInteger loaderCalls = new AtomicInteger();
+        Student student = Student.builder()
+                .withId(1)
+                .withFirstName("Jack")
+                .withCoursesList(new LazyLoadingList<>(() -> {
+                    loaderCalls.incrementAndGet();
+                    return new ArrayList<>();
+                }))
+                .build();
+        Group group = Group.builder()
+                .withId(1)
+                .withGroupName("AA-01")
+                .withStudentsList(new LazyLoadingList<>(() -> {
+                    loaderCalls.incrementAndGet();
+                    return new ArrayList<>();
+                }))
+                .build();
+
+        assertEquals(student, Student.builder().withId(1).withFirstName("Jack").build());
+        assertEquals(group, Group.builder().withId(1).withGroupName("AA-01").build());
+        assertEquals(1, new HashSet<>(Arrays.asList(student, student)).size());
+        assertEquals(1, new HashSet<>(Arrays.asList(group, group)).size());
+        assertFalse(student.toString().contains("coursesList"));
+        assertFalse(group.toString().contains("studentsList"));
+        assertEquals(0, loaderCalls.get());
+    }
+
+    @Test
+    void size_inputConcurrentAccess_expectedLoaderCalledOnce() throws Exception {
+
+        int threads = 8;
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        LazyLoadingList<Integer> lazyList = new LazyLoadingList<>(() -> {
+            loaderCalls.incrementAndGet();
+            return Arrays.asList(1, 2);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> sizes = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            sizes.add(executor.submit(() -> {
+                start.await();
+                return lazyList.size();
+            }));
+        }
+        start.countDown();
+        for (Future<Integer> size : sizes) {
+            assertEquals(2, size.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertEquals(1, loaderCalls.get());
+    }
+
+    @Test
+    void add_inputElement_expectedUnsupportedOperationException() {
+
+        LazyLoadingList<Integer> lazyList = new LazyLoadingList<>(() -> new ArrayList<>(Arrays.asList(1, 2)));
+
+        assertThatThrownBy(() -> lazyList.add(3)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> lazyList.remove(0)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+}
@@ -1,8 +1,15 @@
 package com.mikhail.tarasevich.dao.impl;
 
+import com.mikhail.tarasevich.cache.CacheStatistics;
+import com.mikhail.tarasevich.cache.PageCacheKey;
+import com.mikhail.tarasevich.cache.impl.LruCache;
+import com.mikhail.tarasevich.cache.impl.TableVersionsImpl;
 import com.mikhail.tarasevich.dao.ConnectorDB;
+import com.mikhail.tarasevich.dao.CountMode;
 import com.mikhail.tarasevich.dao.CourseDao;
+import com.mikhail.tarasevich.dao.Page;
 import com.mikhail.tarasevich.dao.ScriptRunner;
+import com.mikhail.tarasevich.dao.TransactionManager;
 import com.mikhail.tarasevich.dao.exception.DataBaseSqlRuntimeException;
 import com.mikhail.tarasevich.entity.Course;
 import com.mikhail.tarasevich.entity.Student;
@@ -14,9 +21,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.*;
@@ -177,7 +188,7 @@ class StudentDaoImplTest {
         students.add(testStudent1);
         students.add(testStudent2);
 
-        studentDao.saveAll(students);
+        List<Student> returnedStudents = studentDao.saveAll(students);
 
         List<Student> savedStudents = returnStudentsFromDB("SELECT * FROM school.students " +
                 "WHERE first_name = 'testStudent1' OR first_name = 'testStudent2'");
@@ -202,6 +213,7 @@ class StudentDaoImplTest {
         assertEquals(expectedStudent0, savedStudents.get(0));
         assertEquals(expectedStudent1, savedStudents.get(1));
         assertEquals(expectedSize, savedStudents.size());
+        assertEquals(Arrays.asList(expectedStudent0, expectedStudent1), returnedStudents);
 
         verifyNoInteractions(courseDao);
     }
@@ -283,6 +295,238 @@ class StudentDaoImplTest {
         verifyNoInteractions(courseDao);
     }
 
+    @Test
+    void subscribeStudentsToCourses_inputManyStudentsWithCourses_expectedAllSubscriptionsInDB() {
+
+        List<Student> students = new ArrayList<>();
+        for (int studentId = 1; studentId <= 5; studentId++) {
+            students.add(Student.builder()
+                    .withId(studentId)
+                    .withCoursesList(Arrays.asList(course1, course3))
+                    .build());
+        }
+        updateDataInDB("DELETE FROM school.student_courses");
+
+        studentDao.subscribeStudentsToCourses(students);
+
+        assertEquals(10, countRowsInDB("SELECT COUNT(*) FROM school.student_courses"));
+        assertEquals(5, countRowsInDB("SELECT COUNT(*) FROM school.student_courses WHERE course_id = 3"));
+
+        verifyNoInteractions(courseDao);
+    }
+
+    @Test
+    void subscribeStudentsToCourses_inputCourseIdDoesNotExistInLastStudent_expectedNoSubscriptionsAdded() {
+
+        final Student validStudent = Student.builder()
+                .withId(5)
+                .withCoursesList(Arrays.asList(course1, course2))
+                .build();
+        final Student invalidStudent = Student.builder()
+                .withId(4)
+                .withCoursesList(Collections.singletonList(Course.builder().withId(10).build()))
+                .build();
+
+        assertThatThrownBy(() -> studentDao.subscribeStudentsToCourses(Arrays.asList(validStudent, invalidStudent)))
+                .isInstanceOf(DataBaseSqlRuntimeException.class);
+
+        assertEquals(0, countRowsInDB("SELECT COUNT(*) FROM school.student_courses WHERE student_id = 5"));
+        verifyNoInteractions(courseDao);
+    }
+
+    @Test
+    void subscribeStudentsToCourses_inputRolledBackOuterTransaction_expectedNoSubscriptionsAdded() {
+
+        TransactionManager transactionManager = (TransactionManager) connectorDB;
+        final Student student = Student.builder()
+                .withId(5)
+                .withCoursesList(Arrays.asList(course1, course2))
+                .build();
+
+        transactionManager.begin();
+        studentDao.subscribeStudentsToCourses(Collections.singletonList(student));
+        transactionManager.rollback();
+
+        assertEquals(0, countRowsInDB("SELECT COUNT(*) FROM school.student_courses WHERE student_id = 5"));
+    }
+
+    @Test
+    void subscribeStudentToCourse_inputWriteBehindModeThenFlush_expectedSubscriptionInDBAfterFlush() {
+
+        studentDao.setWriteBehindFlushIntervalMillis(TimeUnit.MINUTES.toMillis(1));
+
+        studentDao.subscribeStudentToCourse(5, 1);
+        studentDao.subscribeStudentToCourse(5, 2);
+        studentDao.removeStudentFromGroup(1);
+        assertEquals(0, countRowsInDB("SELECT COUNT(*) FROM school.student_courses WHERE student_id = 5"));
+
+        studentDao.flushWrites();
+
+        assertEquals(2, countRowsInDB("SELECT COUNT(*) FROM school.student_courses WHERE student_id = 5"));
+        assertEquals(1, countRowsInDB("SELECT COUNT(*) FROM school.students WHERE group_id IS NULL AND id = 1"));
+        assertEquals(3, studentDao.getWriteBehindStatistics().getWrittenCount());
+        assertEquals(1, studentDao.getWriteBehindStatistics().getFlushCount());
+    }
+
+    @Test
+    void subscribeStudentToCourse_inputWriteBehindModeSubscribeThenUnsubscribe_expectedOnlyUnsubscribeWritten() {
+
+        studentDao.setWriteBehindFlushIntervalMillis(TimeUnit.MINUTES.toMillis(1));
+
+        studentDao.subscribeStudentToCourse(5, 1);
+        studentDao.removeStudentFromCourse(5, 1);
+        studentDao.removeStudentFromCourse(1, 2);
+        studentDao.flushWrites();
+
+        assertEquals(0, countRowsInDB("SELECT COUNT(*) FROM school.student_courses WHERE student_id = 5"));
+        assertEquals(0, countRowsInDB("SELECT COUNT(*) FROM school.student_courses " +
+                "WHERE student_id = 1 AND course_id = 2"));
+        assertEquals(2, studentDao.getWriteBehindStatistics().getWrittenCount());
+        assertEquals(1, studentDao.getWriteBehindStatistics().getCoalescedCount());
+    }
+
+    @Test
+    void removeStudentFromCourse_inputWriteBehindModeExistingSubscriptionSubscribedThenUnsubscribed_expectedRemoved() {
+
+        studentDao.setWriteBehindFlushIntervalMillis(TimeUnit.MINUTES.toMillis(1));
+
+        studentDao.subscribeStudentToCourse(1, 2);
+        studentDao.removeStudentFromCourse(1, 2);
+        studentDao.flushWrites();
+
+        assertEquals(0, countRowsInDB("SELECT COUNT(*) FROM school.student_courses " +
+                "WHERE student_id = 1 AND course_id = 2"));
+        assertEquals(1, studentDao.getWriteBehindStatistics().getCoalescedCount());
+    }
+
+    @Test
+    void subscribeStudentToCourse_inputWriteBehindModeInsideTransaction_expectedWrittenWithTransaction() {
+
+        TransactionManager transactionManager = (TransactionManager) connectorDB;
+        studentDao.setTransactionManager(transactionManager);
+        studentDao.setWriteBehindFlushIntervalMillis(TimeUnit.MINUTES.toMillis(1));
+
+        transactionManager.begin();
+        studentDao.subscribeStudentToCourse(5, 1);
+        transactionManager.rollback();
+        studentDao.flushWrites();
+
+        assertEquals(0, countRowsInDB("SELECT COUNT(*) FROM school.student_courses WHERE student_id = 5"));
+        assertEquals(0, studentDao.getWriteBehindStatistics().getSubmittedCount());
+    }
+
+    @Test
+    void deleteStudentById_inputWriteBehindModeWithQueuedSubscription_expectedStudentDeleted() {
+
+        studentDao.setWriteBehindFlushIntervalMillis(TimeUnit.MINUTES.toMillis(1));
+
+        studentDao.subscribeStudentToCourse(5, 1);
+        studentDao.deleteStudentById(5);
+
+        assertEquals(0, countRowsInDB("SELECT COUNT(*) FROM school.students WHERE id = 5"));
+        assertEquals(0, countRowsInDB("SELECT COUNT(*) FROM school.student_courses WHERE student_id = 5"));
+    }
+
+    @Test
+    void subscribeStudentToCourseIfAbsent_inputWriteBehindModeQueuedUnsubscribe_expectedSubscriptionKept() {
+
+        studentDao.setWriteBehindFlushIntervalMillis(TimeUnit.MINUTES.toMillis(1));
+
+        studentDao.removeStudentFromCourse(1, 2);
+        assertTrue(studentDao.subscribeStudentToCourseIfAbsent(1, 2));
+        studentDao.flushWrites();
+
+        assertEquals(1, countRowsInDB("SELECT COUNT(*) FROM school.student_courses " +
+                "WHERE student_id = 1 AND course_id = 2"));
+    }
+
+    @Test
+    void update_inputWriteBehindModeQueuedRemoveFromGroup_expectedUpdatedGroupKept() {
+
+        studentDao.setWriteBehindFlushIntervalMillis(TimeUnit.MINUTES.toMillis(1));
+
+        studentDao.removeStudentFromGroup(1);
+        studentDao.update(Student.builder().withId(1).withFirstName("John").withLastName("Locke").withGroupId(2)
+                .build());
+        studentDao.flushWrites();
+
+        assertEquals(1, countRowsInDB("SELECT COUNT(*) FROM school.students WHERE id = 1 AND group_id = 2"));
+    }
+
+    @Test
+    void removeStudentFromCourse_inputWriteBehindModeQueuedSubscribeThenTransaction_expectedRemovedWithTransaction() {
+
+        TransactionManager transactionManager = (TransactionManager) connectorDB;
+        studentDao.setTransactionManager(transactionManager);
+        studentDao.setWriteBehindFlushIntervalMillis(TimeUnit.MINUTES.toMillis(1));
+
+        studentDao.subscribeStudentToCourse(5, 1);
+        transactionManager.begin();
+        studentDao.removeStudentFromCourse(5, 1);
+        transactionManager.commit();
+        studentDao.flushWrites();
+
+        assertEquals(0, countRowsInDB("SELECT COUNT(*) FROM school.student_courses WHERE student_id = 5"));
+    }
+
+    @Test
+    void closeWrites_inputQueuedSubscription_expectedWrittenAndLaterChangesWrittenAtOnce() {
+
+        studentDao.setWriteBehindFlushIntervalMillis(TimeUnit.MINUTES.toMillis(1));
+        studentDao.subscribeStudentToCourse(5, 1);
+
+        studentDao.closeWrites();
+        studentDao.subscribeStudentToCourse(5, 2);
+
+        assertEquals(2, countRowsInDB("SELECT COUNT(*) FROM school.student_courses WHERE student_id = 5"));
+    }
+
+    @Test
+    void subscribeStudentToCourseIfAbsent_inputNewSubscription_expectedSubscriptionAddedAndTrue() {
+
+        assertTrue(studentDao.subscribeStudentToCourseIfAbsent(5, 1));
+
+        assertEquals(1, countRowsInDB("SELECT COUNT(*) FROM school.student_courses WHERE student_id = 5"));
+    }
+
+    @Test
+    void subscribeStudentToCourseIfAbsent_inputExistingSubscription_expectedNoDuplicateAndFalse() {
+
+        assertFalse(studentDao.subscribeStudentToCourseIfAbsent(1, 2));
+
+        assertEquals(1, countRowsInDB("SELECT COUNT(*) FROM school.student_courses " +
+                "WHERE student_id = 1 AND course_id = 2"));
+    }
+
+    @Test
+    void subscribeStudentToCourseIfAbsent_inputNotExistingStudent_expectedException() {
+
+        assertThatThrownBy(() -> studentDao.subscribeStudentToCourseIfAbsent(10, 1))
+                .isInstanceOf(DataBaseSqlRuntimeException.class);
+    }
+
+    @Test
+    void subscribeStudentToCourse_inputExistingSubscription_expectedPrimaryKeyViolation() {
+
+        assertThatThrownBy(() -> studentDao.subscribeStudentToCourse(1, 2))
+                .isInstanceOf(DataBaseSqlRuntimeException.class);
+    }
+
+    @Test
+    void subscribeStudentToCourse_inputWriteBehindModeExistingSubscription_expectedWrittenWithoutFailure() {
+
+        studentDao.setWriteBehindFlushIntervalMillis(TimeUnit.MINUTES.toMillis(1));
+
+        studentDao.subscribeStudentToCourse(1, 2);
+        studentDao.subscribeStudentToCourse(5, 2);
+        studentDao.flushWrites();
+
+        assertEquals(1, countRowsInDB("SELECT COUNT(*) FROM school.student_courses " +
+                "WHERE student_id = 1 AND course_id = 2"));
+        assertEquals(1, countRowsInDB("SELECT COUNT(*) FROM school.student_courses WHERE student_id = 5"));
+        assertEquals(0, studentDao.getWriteBehindStatistics().getFailedCount());
+    }
+
     @Test
     void subscribeStudentToCourse_inputStudentIdCourseId_expectedStudentWithCourseInDB() {
 
@@ -321,7 +565,8 @@ class StudentDaoImplTest {
     @Test
     void findById_inputId_expectedStudentWithThisIdFromDB() {
 
-        when(courseDao.findCoursesByStudentId(4)).thenReturn(student4Courses);
+        when(courseDao.findCoursesByStudentIds(Collections.singletonList(4)))
+                .thenReturn(Collections.singletonMap(4, student4Courses));
 
         final Student expectedStudent = student4;
 
@@ -330,10 +575,117 @@ class StudentDaoImplTest {
         if(optionalStudent.isPresent()) {
             foundStudent = optionalStudent.get();
             assertEquals(expectedStudent, foundStudent);
-            verify(courseDao, times(1)).findCoursesByStudentId(4);
+            assertEquals(expectedStudent.getCoursesList(), foundStudent.getCoursesList());
+            verify(courseDao, times(1)).findCoursesByStudentIds(Collections.singletonList(4));
         }
     }
 
+    @Test
+    void findByIds_inputIdsWithMissingAndRepeatedOnes_expectedFoundStudentsInRequestOrder() {
+
+        when(courseDao.findCoursesByStudentIds(Arrays.asList(4, 2)))
+                .thenReturn(new HashMap<Integer, List<Course>>() {{
+                    put(4, student4Courses);
+                    put(2, student2Courses);
+                }});
+
+        Map<Integer, Student> foundStudents = studentDao.findByIds(Arrays.asList(4, 10, 2, 4));
+
+        assertEquals(Arrays.asList(4, 2), new ArrayList<>(foundStudents.keySet()));
+        assertEquals(Arrays.asList(student4, student2), new ArrayList<>(foundStudents.values()));
+        assertEquals(coursesLists(Arrays.asList(student4, student2)), coursesLists(foundStudents.values()));
+        verify(courseDao, times(1)).findCoursesByStudentIds(Arrays.asList(4, 2));
+    }
+
+    @Test
+    void findByIds_inputEmptyIds_expectedEmptyMapWithoutQueries() {
+
+        assertTrue(studentDao.findByIds(Collections.emptyList()).isEmpty());
+
+        verifyNoInteractions(courseDao);
+    }
+
+    @Test
+    void findByIds_inputIdsOverTempTableThreshold_expectedSameStudentsAsByArray() {
+
+        studentDao.setFindByIdsTempTableThreshold(2);
+
+        Map<Integer, Student> foundStudents = studentDao.findByIds(Arrays.asList(5, 3, 10, 1));
+
+        assertEquals(Arrays.asList(5, 3, 1), new ArrayList<>(foundStudents.keySet()));
+        assertEquals("Kate", foundStudents.get(3).getFirstName());
+        assertEquals(Arrays.asList(2, 4), new ArrayList<>(studentDao.findByIds(Arrays.asList(2, 4)).keySet()));
+    }
+
+    @Test
+    void findByIds_inputIdsOverTempTableThresholdInRolledBackTransaction_expectedTransactionNotCommitted() {
+
+        TransactionManager transactionManager = (TransactionManager) connectorDB;
+        studentDao.setFindByIdsTempTableThreshold(1);
+
+        transactionManager.begin();
+        studentDao.deleteStudentById(5);
+        assertEquals(Collections.singleton(1), studentDao.findByIds(Arrays.asList(1, 5)).keySet());
+        transactionManager.rollback();
+
+        assertTrue(studentDao.findById(5).isPresent());
+    }
+
+    @Test
+    void findByIds_inputCachedAndNotCachedIds_expectedOnlyNotCachedIdsQueried() {
+
+        LruCache<Integer, Student> studentCache = new LruCache<>(10, 1, TimeUnit.MINUTES);
+        studentDao.setEntityCache(studentCache);
+
+        studentDao.findById(1);
+        Map<Integer, Student> foundStudents = studentDao.findByIds(Arrays.asList(1, 2));
+
+        assertEquals(Arrays.asList(1, 2), new ArrayList<>(foundStudents.keySet()));
+        assertEquals(new CacheStatistics(1, 2, 0), studentCache.getStatistics());
+        assertEquals("Jack", studentCache.get(2).getFirstName());
+    }
+
+    @Test
+    void findById_inputConcurrentCallsWithCoalescingWindow_expectedStudentsLoadedByOneBatch() {
+
+        when(courseDao.findCoursesByStudentIds(anyList())).thenReturn(new HashMap<Integer, List<Course>>() {{
+            put(1, student1Courses);
+            put(2, student2Courses);
+            put(3, student3Courses);
+            put(4, student4Courses);
+        }});
+        studentDao.setFindByIdCoalescingWindowMillis(200);
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+
+        List<CompletableFuture<Optional<Student>>> foundStudents = Stream.of(1, 2, 3, 4, 10)
+                .map(id -> CompletableFuture.supplyAsync(() -> studentDao.findById(id), executor))
+                .collect(Collectors.toList());
+        executor.shutdown();
+
+        assertEquals(Arrays.asList(Optional.of(student1), Optional.of(student2), Optional.of(student3),
+                        Optional.of(student4), Optional.empty()),
+                foundStudents.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+        assertEquals(coursesLists(Arrays.asList(student1, student2, student3, student4)),
+                coursesLists(foundStudents.subList(0, 4).stream().map(student -> student.join().get())
+                        .collect(Collectors.toList())));
+        verify(courseDao, times(1)).findCoursesByStudentIds(anyList());
+    }
+
+    @Test
+    void findById_inputCoalescingWindowInsideTransaction_expectedOwnUncommittedChangesSeen() {
+
+        TransactionManager transactionManager = (TransactionManager) connectorDB;
+        studentDao.setTransactionManager(transactionManager);
+        studentDao.setFindByIdCoalescingWindowMillis(TimeUnit.MINUTES.toMillis(1));
+
+        transactionManager.begin();
+        studentDao.removeStudentFromGroup(1);
+        Optional<Student> foundStudent = studentDao.findById(1);
+        transactionManager.rollback();
+
+        assertEquals(0, foundStudent.get().getGroupId());
+    }
+
     @Test
     void findByParam_inputIncorrectId_expectedStudentNotExistInDB() {
 
@@ -355,10 +707,13 @@ class StudentDaoImplTest {
     @Test
     void findAll_inputNothing_expectedAllStudentsFromDB() {
 
-        when(courseDao.findCoursesByStudentId(1)).thenReturn(student1Courses);
-        when(courseDao.findCoursesByStudentId(2)).thenReturn(student2Courses);
-        when(courseDao.findCoursesByStudentId(3)).thenReturn(student3Courses);
-        when(courseDao.findCoursesByStudentId(4)).thenReturn(student4Courses);
+        Map<Integer, List<Course>> coursesByStudentId = new HashMap<>();
+        coursesByStudentId.put(1, student1Courses);
+        coursesByStudentId.put(2, student2Courses);
+        coursesByStudentId.put(3, student3Courses);
+        coursesByStudentId.put(4, student4Courses);
+
+        when(courseDao.findCoursesByStudentIds(Arrays.asList(1, 2, 3, 4, 5))).thenReturn(coursesByStudentId);
 
         List<Student> foundStudents = studentDao.findAll();
 
@@ -377,13 +732,31 @@ class StudentDaoImplTest {
         assertEquals(expectedStudent4.getId(), foundStudents.get(4).getId());
         assertEquals(expectedStudent4.getFirstName(), foundStudents.get(4).getFirstName());
         assertEquals(expectedStudent4.getLastName(), foundStudents.get(4).getLastName());
+        assertTrue(foundStudents.get(4).getCoursesList().isEmpty());
         assertEquals(expectedSize, foundStudents.size());
 
-        verify(courseDao, times(1)).findCoursesByStudentId(1);
-        verify(courseDao, times(1)).findCoursesByStudentId(2);
-        verify(courseDao, times(1)).findCoursesByStudentId(3);
-        verify(courseDao, times(1)).findCoursesByStudentId(4);
-        verify(courseDao, times(1)).findCoursesByStudentId(5);
+        verify(courseDao, times(1)).findCoursesByStudentIds(Arrays.asList(1, 2, 3, 4, 5));
+        verifyNoMoreInteractions(courseDao);
+    }
+
+    @Test
+    void findAll_inputNothing_expectedCoursesLoadedOnceOnFirstAccess() {
+
+        Map<Integer, List<Course>> coursesByStudentId = new HashMap<>();
+        coursesByStudentId.put(1, student1Courses);
+        coursesByStudentId.put(2, student2Courses);
+
+        when(courseDao.findCoursesByStudentIds(Arrays.asList(1, 2, 3, 4, 5))).thenReturn(coursesByStudentId);
+
+        List<Student> foundStudents = studentDao.findAll();
+
+        verifyNoInteractions(courseDao);
+
+        assertEquals(student1Courses, foundStudents.get(0).getCoursesList());
+        assertEquals(student2Courses, foundStudents.get(1).getCoursesList());
+        assertTrue(foundStudents.get(4).getCoursesList().isEmpty());
+
+        verify(courseDao, times(1)).findCoursesByStudentIds(Arrays.asList(1, 2, 3, 4, 5));
     }
 
     @Test
@@ -396,11 +769,75 @@ class StudentDaoImplTest {
         verifyNoInteractions(courseDao);
     }
 
+    @Test
+    void streamAll_inputFetchSizeTwo_expectedAllStudentsWithCoursesLoadedPerChunk() {
+
+        Map<Integer, List<Course>> firstChunkCourses = new HashMap<>();
+        firstChunkCourses.put(1, student1Courses);
+        firstChunkCourses.put(2, student2Courses);
+        Map<Integer, List<Course>> secondChunkCourses = new HashMap<>();
+        secondChunkCourses.put(3, student3Courses);
+        secondChunkCourses.put(4, student4Courses);
+
+        when(courseDao.findCoursesByStudentIds(Arrays.asList(1, 2))).thenReturn(firstChunkCourses);
+        when(courseDao.findCoursesByStudentIds(Arrays.asList(3, 4))).thenReturn(secondChunkCourses);
+        when(courseDao.findCoursesByStudentIds(Collections.singletonList(5))).thenReturn(Collections.emptyMap());
+
+        List<Student> foundStudents;
+        try (Stream<Student> students = studentDao.streamAll(2)) {
+            foundStudents = students.collect(Collectors.toList());
+        }
+
+        assertEquals(Arrays.asList(student1, student2, student3, student4), foundStudents.subList(0, 4));
+        assertEquals(5, foundStudents.size());
+        assertTrue(foundStudents.get(4).getCoursesList().isEmpty());
+
+        assertEquals(coursesLists(Arrays.asList(student1, student2, student3, student4)),
+                coursesLists(foundStudents.subList(0, 4)));
+        verify(courseDao, times(1)).findCoursesByStudentIds(Arrays.asList(1, 2));
+        verify(courseDao, times(1)).findCoursesByStudentIds(Arrays.asList(3, 4));
+        verify(courseDao, times(1)).findCoursesByStudentIds(Collections.singletonList(5));
+        verifyNoMoreInteractions(courseDao);
+    }
+
+    @Test
+    void streamAll_inputStreamsClosedBeforeExhausted_expectedConnectionsReturnedToPool() {
+
+        for (int i = 0; i < 50; i++) {
+            try (Stream<Student> students = studentDao.streamAll(1)) {
+                assertEquals(1, students.findFirst().get().getId());
+            }
+        }
+
+        assertEquals(5, studentDao.count());
+        verifyNoInteractions(courseDao);
+    }
+
+    @Test
+    void streamAll_inputTableNotExist_expectedException() {
+
+        try (Connection connection = connectorDB.getConnection()) {
+            PreparedStatement preparedStatement = connection
+                    .prepareStatement("DROP TABLE IF EXISTS school.students CASCADE");
+            preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+
+        assertThatThrownBy(() -> studentDao.streamAll())
+                .isInstanceOf(DataBaseSqlRuntimeException.class);
+
+        verifyNoInteractions(courseDao);
+    }
+
     @Test
     void findAllPageable_inputPageOneItemsPerPageTwo_expectedTwoStudents() {
 
-        when(courseDao.findCoursesByStudentId(1)).thenReturn(student1Courses);
-        when(courseDao.findCoursesByStudentId(2)).thenReturn(student2Courses);
+        Map<Integer, List<Course>> coursesByStudentId = new HashMap<>();
+        coursesByStudentId.put(1, student1Courses);
+        coursesByStudentId.put(2, student2Courses);
+
+        when(courseDao.findCoursesByStudentIds(Arrays.asList(1, 2))).thenReturn(coursesByStudentId);
 
         List<Student> foundStudents = studentDao.findAll(0, 2);
 
@@ -413,8 +850,50 @@ class StudentDaoImplTest {
         assertEquals(expectedStudent1, foundStudents.get(1));
         assertEquals(expectedSize, foundStudents.size());
 
-        verify(courseDao, times(1)).findCoursesByStudentId(1);
-        verify(courseDao, times(1)).findCoursesByStudentId(2);
+        assertEquals(coursesLists(Arrays.asList(expectedStudent0, expectedStudent1)), coursesLists(foundStudents));
+        verify(courseDao, times(1)).findCoursesByStudentIds(Arrays.asList(1, 2));
+        verifyNoMoreInteractions(courseDao);
+    }
+
+    @Test
+    void findAllPageable_inputCachedPageThenStudentUpdated_expectedCachedPageUntilTableChanged() {
+
+        LruCache<PageCacheKey, Page<Student>> pageCache =
+                new LruCache<>(100, 1, TimeUnit.MINUTES, page -> page.getContent().size());
+        studentDao.setTableVersions(new TableVersionsImpl());
+        studentDao.setPageCache(pageCache);
+
+        assertEquals(1, studentDao.findAll(2, 2).size());
+        updateDataInDB("INSERT INTO school.students (first_name, last_name) VALUES ('Ben', 'Linus')");
+        assertEquals(1, studentDao.findAll(2, 2).size());
+
+        studentDao.update(Student.builder().withId(5).withFirstName("Leo").withLastName("DiCaprio").withGroupId(1).build());
+        List<Student> freshPage = studentDao.findAll(2, 2);
+
+        assertEquals(2, freshPage.size());
+        assertEquals("Leo", freshPage.get(0).getFirstName());
+        assertEquals("Ben", freshPage.get(1).getFirstName());
+        assertEquals(1, pageCache.getStatistics().getHitCount());
+        assertEquals(1.0 / 3, pageCache.getStatistics().hitRate());
+        verifyNoInteractions(courseDao);
+    }
+
+    @Test
+    void findPageAfter_inputCachedPage_expectedCoursesLoadedAgainOnEveryHit() {
+
+        studentDao.setTableVersions(new TableVersionsImpl());
+        studentDao.setPageCache(new LruCache<>(100, 1, TimeUnit.MINUTES, page -> page.getContent().size()));
+
+        when(courseDao.findCoursesByStudentIds(Collections.singletonList(1)))
+                .thenReturn(Collections.singletonMap(1, student1Courses));
+
+        Page<Student> page = studentDao.findPageAfter(0, 1);
+        Page<Student> cachedPage = studentDao.findPageAfter(0, 1);
+
+        assertEquals(page, cachedPage);
+        assertEquals(Integer.valueOf(1), cachedPage.getNextPageToken());
+        assertEquals(coursesLists(page.getContent()), coursesLists(cachedPage.getContent()));
+        verify(courseDao, times(2)).findCoursesByStudentIds(Collections.singletonList(1));
     }
 
     @Test
@@ -434,10 +913,74 @@ class StudentDaoImplTest {
         verifyNoInteractions(courseDao);
     }
 
+    @Test
+    void findPageAfter_inputLastIdZeroItemsPerPageTwo_expectedFirstTwoStudentsAndNextToken() {
+
+        Map<Integer, List<Course>> coursesByStudentId = new HashMap<>();
+        coursesByStudentId.put(1, student1Courses);
+        coursesByStudentId.put(2, student2Courses);
+
+        when(courseDao.findCoursesByStudentIds(Arrays.asList(1, 2))).thenReturn(coursesByStudentId);
+
+        Page<Student> page = studentDao.findPageAfter(0, 2);
+
+        assertEquals(Arrays.asList(student1, student2), page.getContent());
+        assertEquals(Integer.valueOf(2), page.getNextPageToken());
+
+        assertEquals(coursesLists(Arrays.asList(student1, student2)), coursesLists(page.getContent()));
+        verify(courseDao, times(1)).findCoursesByStudentIds(Arrays.asList(1, 2));
+        verifyNoMoreInteractions(courseDao);
+    }
+
+    @Test
+    void findPageAfter_inputLastIdFourItemsPerPageTwo_expectedLastStudentWithoutNextToken() {
+
+        when(courseDao.findCoursesByStudentIds(Collections.singletonList(5))).thenReturn(Collections.emptyMap());
+
+        Page<Student> page = studentDao.findPageAfter(4, 2);
+
+        assertEquals(1, page.getContent().size());
+        assertEquals(student5.getId(), page.getContent().get(0).getId());
+        assertTrue(page.getContent().get(0).getCoursesList().isEmpty());
+        assertNull(page.getNextPageToken());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void findPage_inputPageZeroItemsPerPageTwo_expectedFirstTwoStudentsTotalCountAndNextToken() {
+
+        Map<Integer, List<Course>> coursesByStudentId = new HashMap<>();
+        coursesByStudentId.put(1, student1Courses);
+        coursesByStudentId.put(2, student2Courses);
+
+        when(courseDao.findCoursesByStudentIds(Arrays.asList(1, 2))).thenReturn(coursesByStudentId);
+
+        Page<Student> page = studentDao.findPage(0, 2);
+
+        assertEquals(Arrays.asList(student1, student2), page.getContent());
+        assertEquals(Long.valueOf(5), page.getTotalCount());
+        assertEquals(Integer.valueOf(2), page.getNextPageToken());
+
+        assertEquals(coursesLists(Arrays.asList(student1, student2)), coursesLists(page.getContent()));
+        verify(courseDao, times(1)).findCoursesByStudentIds(Arrays.asList(1, 2));
+        verifyNoMoreInteractions(courseDao);
+    }
+
+    @Test
+    void findByFirstName_inputNameLookupFilterAndUnknownName_expectedEmptyListWithoutQuery() {
+
+        studentDao.setNameLookupFilterEnabled(true);
+
+        assertTrue(studentDao.findByFirstName("Kat").isEmpty());
+        assertEquals(1, studentDao.getNameLookupStatistics().getDefiniteMissCount());
+        verifyNoInteractions(courseDao);
+    }
+
     @Test
     void findByFirstName_inputStudentFirstName_expectedStudentWithThisNameFromDB() {
 
-        when(courseDao.findCoursesByStudentId(3)).thenReturn(student3Courses);
+        when(courseDao.findCoursesByStudentIds(Collections.singletonList(3)))
+                .thenReturn(Collections.singletonMap(3, student3Courses));
 
         List<Student> foundStudents = studentDao.findByFirstName("Kate");
 
@@ -448,7 +991,8 @@ class StudentDaoImplTest {
         assertEquals(expectedStudent, foundStudents.get(0));
         assertEquals(expectedSize, foundStudents.size());
 
-        verify(courseDao, times(1)).findCoursesByStudentId(3);
+        assertEquals(expectedStudent.getCoursesList(), foundStudents.get(0).getCoursesList());
+        verify(courseDao, times(1)).findCoursesByStudentIds(Collections.singletonList(3));
     }
 
     @Test
@@ -464,9 +1008,12 @@ class StudentDaoImplTest {
     @Test
     void findStudentsRelatedToCourse_inputCourseId_expectedStudentsRelatedToCourseFromDB() {
 
-        when(courseDao.findCoursesByStudentId(1)).thenReturn(student1Courses);
-        when(courseDao.findCoursesByStudentId(3)).thenReturn(student3Courses);
-        when(courseDao.findCoursesByStudentId(4)).thenReturn(student4Courses);
+        Map<Integer, List<Course>> coursesByStudentId = new HashMap<>();
+        coursesByStudentId.put(1, student1Courses);
+        coursesByStudentId.put(3, student3Courses);
+        coursesByStudentId.put(4, student4Courses);
+
+        when(courseDao.findCoursesByStudentIds(Arrays.asList(1, 3, 4))).thenReturn(coursesByStudentId);
 
         List<Student> foundStudents = studentDao.findStudentsRelatedToCourse(1);
 
@@ -481,16 +1028,34 @@ class StudentDaoImplTest {
         assertEquals(expectedStudent2, foundStudents.get(2));
         assertEquals(expectedSize, foundStudents.size());
 
-        verify(courseDao, times(1)).findCoursesByStudentId(1);
-        verify(courseDao, times(1)).findCoursesByStudentId(3);
-        verify(courseDao, times(1)).findCoursesByStudentId(4);
+        assertEquals(coursesLists(Arrays.asList(expectedStudent0, expectedStudent1, expectedStudent2)),
+                coursesLists(foundStudents));
+        verify(courseDao, times(1)).findCoursesByStudentIds(Arrays.asList(1, 3, 4));
+    }
+
+    @Test
+    void streamStudentsRelatedToCourse_inputCourseId_expectedStudentsRelatedToCourseFromDB() {
+
+        List<Student> foundStudents;
+        try (Stream<Student> students = studentDao.streamStudentsRelatedToCourse(1, 10)) {
+            foundStudents = students.collect(Collectors.toList());
+        }
+
+        assertEquals(3, foundStudents.size());
+        assertEquals(1, foundStudents.get(0).getId());
+        assertEquals(3, foundStudents.get(1).getId());
+        assertEquals(4, foundStudents.get(2).getId());
+        verifyNoInteractions(courseDao);
     }
 
     @Test
     void findStudentsByGroupId_inputGroupId_expectedStudentsRelatedToGroupFromDB() {
 
-        when(courseDao.findCoursesByStudentId(2)).thenReturn(student2Courses);
-        when(courseDao.findCoursesByStudentId(3)).thenReturn(student3Courses);
+        Map<Integer, List<Course>> coursesByStudentId = new HashMap<>();
+        coursesByStudentId.put(2, student2Courses);
+        coursesByStudentId.put(3, student3Courses);
+
+        when(courseDao.findCoursesByStudentIds(Arrays.asList(2, 3))).thenReturn(coursesByStudentId);
 
         List<Student> foundStudents = studentDao.findStudentsByGroupId(1);
 
@@ -503,8 +1068,41 @@ class StudentDaoImplTest {
         assertEquals(expectedStudent1, foundStudents.get(1));
         assertEquals(expectedSize, foundStudents.size());
 
-        verify(courseDao, times(1)).findCoursesByStudentId(2);
-        verify(courseDao, times(1)).findCoursesByStudentId(3);
+        assertEquals(coursesLists(Arrays.asList(expectedStudent0, expectedStudent1)), coursesLists(foundStudents));
+        verify(courseDao, times(1)).findCoursesByStudentIds(Arrays.asList(2, 3));
+    }
+
+    @Test
+    void findStudentsByGroupIds_inputGroupIds_expectedStudentsGroupedByGroupIdWithOneCoursesQuery() {
+
+        Map<Integer, List<Course>> coursesByStudentId = new HashMap<>();
+        coursesByStudentId.put(1, student1Courses);
+        coursesByStudentId.put(2, student2Courses);
+        coursesByStudentId.put(3, student3Courses);
+
+        when(courseDao.findCoursesByStudentIds(Arrays.asList(1, 2, 3))).thenReturn(coursesByStudentId);
+
+        Map<Integer, List<Student>> foundStudents = studentDao.findStudentsByGroupIds(Arrays.asList(1, 3, 4));
+
+        int expectedSize = 2;
+
+        assertEquals(Arrays.asList(student2, student3), foundStudents.get(1));
+        assertEquals(Collections.singletonList(student1), foundStudents.get(3));
+        assertFalse(foundStudents.containsKey(4));
+        assertEquals(expectedSize, foundStudents.size());
+
+        assertEquals(coursesLists(Arrays.asList(student2, student3)), coursesLists(foundStudents.get(1)));
+        assertEquals(coursesLists(Collections.singletonList(student1)), coursesLists(foundStudents.get(3)));
+        verify(courseDao, times(1)).findCoursesByStudentIds(Arrays.asList(1, 2, 3));
+        verifyNoMoreInteractions(courseDao);
+    }
+
+    @Test
+    void findStudentsByGroupIds_inputEmptyList_expectedEmptyMap() {
+
+        assertTrue(studentDao.findStudentsByGroupIds(new ArrayList<>()).isEmpty());
+
+        verifyNoInteractions(courseDao);
     }
 
     @Test
@@ -594,6 +1192,107 @@ class StudentDaoImplTest {
         verifyNoInteractions(courseDao);
     }
 
+    @Test
+    void deleteStudentById_inputRolledBackTransaction_expectedStudentAndSubscriptionsKept() {
+
+        TransactionManager transactionManager = (TransactionManager) connectorDB;
+
+        transactionManager.begin();
+        studentDao.deleteStudentById(1);
+        assertFalse(studentDao.findById(1).isPresent());
+        transactionManager.rollback();
+
+        List<Student> leftStudents = returnStudentsFromDB("SELECT * FROM school.students WHERE id = 1");
+
+        assertEquals(1, leftStudents.size());
+        assertEquals(1, studentDao.findStudentsRelatedToCourse(2).get(0).getId());
+        assertFalse(transactionManager.isActive());
+    }
+
+    @Test
+    void streamAll_inputActiveTransaction_expectedTransactionLeftOpen() {
+
+        TransactionManager transactionManager = (TransactionManager) connectorDB;
+
+        transactionManager.begin();
+        studentDao.deleteStudentById(5);
+        try (Stream<Student> students = studentDao.streamAll(2)) {
+            assertEquals(4, students.count());
+        }
+        assertTrue(transactionManager.isActive());
+        transactionManager.commit();
+
+        assertEquals(4, studentDao.count());
+    }
+
+    @Test
+    void findById_inputCachedStudentThenUpdate_expectedCachedRowUntilInvalidated() {
+
+        LruCache<Integer, Student> studentCache = new LruCache<>(10, 1, TimeUnit.MINUTES);
+        studentDao.setEntityCache(studentCache);
+
+        assertEquals("John", studentDao.findById(1).get().getFirstName());
+        updateDataInDB("UPDATE school.students SET first_name = 'Johnny' WHERE id = 1");
+        assertEquals("John", studentDao.findById(1).get().getFirstName());
+
+        studentDao.update(Student.builder()
+                .withId(1)
+                .withFirstName("Jonathan")
+                .withLastName("Locke")
+                .withGroupId(3)
+                .build());
+
+        assertEquals("Jonathan", studentDao.findById(1).get().getFirstName());
+        assertEquals(new CacheStatistics(1, 2, 0), studentCache.getStatistics());
+        verifyNoInteractions(courseDao);
+    }
+
+    @Test
+    void findById_inputCachedStudentRemovedFromGroup_expectedFreshGroupId() {
+
+        LruCache<Integer, Student> studentCache = new LruCache<>(10, 1, TimeUnit.MINUTES);
+        studentDao.setEntityCache(studentCache);
+
+        assertEquals(3, studentDao.findById(1).get().getGroupId());
+        studentDao.removeStudentFromGroup(1);
+
+        assertEquals(0, studentDao.findById(1).get().getGroupId());
+        studentDao.deleteStudentById(1);
+        assertFalse(studentDao.findById(1).isPresent());
+    }
+
+    @Test
+    void findById_inputCachedStudent_expectedCoursesLoadedAgainOnEveryHit() {
+
+        LruCache<Integer, Student> studentCache = new LruCache<>(10, 1, TimeUnit.MINUTES);
+        studentDao.setEntityCache(studentCache);
+
+        when(courseDao.findCoursesByStudentIds(Collections.singletonList(1)))
+                .thenReturn(Collections.singletonMap(1, student1Courses));
+
+        assertEquals(student1Courses, studentDao.findById(1).get().getCoursesList());
+        assertEquals(student1Courses, studentDao.findById(1).get().getCoursesList());
+
+        verify(courseDao, times(2)).findCoursesByStudentIds(Collections.singletonList(1));
+    }
+
+    @Test
+    void update_inputCachedStudentInRolledBackTransaction_expectedCacheInvalidatedAfterCompletion() {
+
+        LruCache<Integer, Student> studentCache = new LruCache<>(10, 1, TimeUnit.MINUTES);
+        TransactionManager transactionManager = (TransactionManager) connectorDB;
+        studentDao.setEntityCache(studentCache);
+        studentDao.setTransactionManager(transactionManager);
+
+        transactionManager.begin();
+        studentDao.removeStudentFromGroup(1);
+        studentCache.putIfNotInvalidated(1, student1, studentCache.version());
+        transactionManager.rollback();
+
+        assertEquals(0, studentCache.size());
+        assertEquals(3, studentDao.findById(1).get().getGroupId());
+    }
+
     @Test
     void deleteById_inputTableNotExist_expectedException() {
 
@@ -667,6 +1366,56 @@ class StudentDaoImplTest {
         verifyNoInteractions(courseDao);
     }
 
+    @Test
+    void countCached_inputRowsSavedAndDeletedByDao_expectedCounterFollowsWithoutRecount() {
+
+        assertEquals(5L, studentDao.count(CountMode.CACHED));
+
+        studentDao.save(Student.builder().withFirstName("Ivan").withLastName("Petrov").withGroupId(1).build());
+        updateDataInDB("INSERT INTO school.students (first_name, last_name, group_id) VALUES ('Other', 'App', 1)");
+
+        assertEquals(6L, studentDao.count(CountMode.CACHED));
+
+        studentDao.deleteById(5);
+
+        assertEquals(5L, studentDao.count(CountMode.CACHED));
+        assertEquals(6L, studentDao.count(CountMode.EXACT));
+    }
+
+    @Test
+    void countCached_inputReconcileIntervalElapsed_expectedExactCount() {
+
+        studentDao.setCountReconcileIntervalMillis(0);
+        assertEquals(5L, studentDao.count(CountMode.CACHED));
+
+        updateDataInDB("INSERT INTO school.students (first_name, last_name, group_id) VALUES ('Other', 'App', 1)");
+
+        assertEquals(6L, studentDao.count(CountMode.CACHED));
+    }
+
+    @Test
+    void countCached_inputSaveInRolledBackTransaction_expectedRecountAfterCompletion() {
+
+        TransactionManager transactionManager = (TransactionManager) connectorDB;
+        studentDao.setTransactionManager(transactionManager);
+        assertEquals(5L, studentDao.count(CountMode.CACHED));
+
+        transactionManager.begin();
+        studentDao.save(Student.builder().withFirstName("Ivan").withLastName("Petrov").withGroupId(1).build());
+        assertEquals(6L, studentDao.count(CountMode.CACHED));
+        transactionManager.rollback();
+
+        assertEquals(5L, studentDao.count(CountMode.CACHED));
+    }
+
+    @Test
+    void countEstimated_inputH2Database_expectedExactCount() {
+
+        assertEquals(5L, studentDao.count(CountMode.ESTIMATED));
+
+        verifyNoInteractions(courseDao);
+    }
+
     @Test
     void count_inputTableNotExist_expectedException() {
 
@@ -720,6 +1469,11 @@ class StudentDaoImplTest {
         }
     }
 
+    // Student equals doesn't compare the lazily loaded courses, so they are compared separately
+    private static List<List<Course>> coursesLists(Collection<Student> students) {
+        return students.stream().map(Student::getCoursesList).collect(Collectors.toList());
+    }
+
     private List<Student> returnStudentsFromDB(String query) {
         List<Student> students = new ArrayList<>();
         try (final Connection connection = connectorDB.getConnection();
@@ -741,6 +1495,17 @@ class StudentDaoImplTest {
         return students;
     }
 
+    private long countRowsInDB(String query) {
+        try (final Connection connection = connectorDB.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(query);
+             final ResultSet resultSet = preparedStatement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private void updateDataInDB(String query) {
         try (final Connection connection = connectorDB.getConnection();
              final PreparedStatement preparedStatement = connection.prepareStatement(query)) {
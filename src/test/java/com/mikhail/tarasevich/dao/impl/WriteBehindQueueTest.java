@@ -0,0 +1,151 @@
+package com.mikhail.tarasevich.dao.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindQueueTest {
+
+    private static final long LONG_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+    // "+x" and "-x" cancel out, otherwise the last mutation wins
+    private final WriteBehindQueue<String, String> queue = new WriteBehindQueue<>("test", 3, LONG_INTERVAL_MILLIS,
+            (queued, next) -> queued.startsWith("+") && next.startsWith("-") ? null : next,
+            batch -> batches.add(new ArrayList<>(batch)));
+
+    @AfterEach
+    void closeQueue() {
+        queue.close();
+    }
+
+    @Test
+    void flush_inputMutationsOfDifferentKeys_expectedAllWrittenByOneBatch() {
+
+        queue.submit("a", "+a");
+        queue.submit("b", "+b");
+
+        queue.flush().join();
+
+        assertEquals(Collections.singletonList(Arrays.asList("+a", "+b")), batches);
+        assertEquals(2, queue.getStatistics().getWrittenCount());
+        assertEquals(1, queue.getStatistics().getFlushCount());
+    }
+
+    @Test
+    void flush_inputMutationThenCancellingMutationOfSameKey_expectedNothingWritten() {
+
+        queue.submit("a", "+a");
+        queue.submit("a", "-a");
+        queue.submit("b", "-b");
+        queue.submit("b", "+b");
+
+        queue.flush().join();
+
+        assertEquals(Collections.singletonList(Collections.singletonList("+b")), batches);
+        assertEquals(4, queue.getStatistics().getSubmittedCount());
+        assertEquals(2, queue.getStatistics().getCoalescedCount());
+    }
+
+    @Test
+    void flush_inputNothingSubmitted_expectedCompletedFutureWithoutWrites() {
+
+        assertTrue(queue.flush().isDone());
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    void submit_inputMoreKeysThanCapacity_expectedFullQueueWrittenWithoutFlush() throws Exception {
+
+        queue.submit("a", "+a");
+        queue.submit("b", "+b");
+        queue.submit("c", "+c");
+        queue.submit("d", "+d");
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (batches.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(Arrays.asList("+a", "+b", "+c"), batches.get(0));
+    }
+
+    @Test
+    void submit_inputShortFlushInterval_expectedMutationsWrittenWithoutFlush() throws Exception {
+
+        try (WriteBehindQueue<String, String> shortIntervalQueue = new WriteBehindQueue<>("short", 10, 10,
+                (queued, next) -> next, batch -> batches.add(new ArrayList<>(batch)))) {
+            shortIntervalQueue.submit("a", "+a");
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (batches.isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+
+        assertEquals(Collections.singletonList(Collections.singletonList("+a")), batches);
+    }
+
+    @Test
+    void flush_inputBatchWithFailingMutation_expectedOtherMutationsWrittenAndFlushFailed() {
+
+        try (WriteBehindQueue<String, String> failingQueue = new WriteBehindQueue<>("failing", 10,
+                LONG_INTERVAL_MILLIS, (queued, next) -> next, batch -> {
+            if (batch.contains("bad")) {
+                throw new IllegalStateException("bad mutation");
+            }
+            batches.add(new ArrayList<>(batch));
+        })) {
+            failingQueue.submit("a", "+a");
+            failingQueue.submit("b", "bad");
+            failingQueue.submit("c", "+c");
+
+            assertThatThrownBy(() -> failingQueue.flush().join()).hasCauseInstanceOf(IllegalStateException.class);
+            assertEquals(Arrays.asList(Collections.singletonList("+a"), Collections.singletonList("+c")), batches);
+            assertEquals(2, failingQueue.getStatistics().getWrittenCount());
+            assertEquals(1, failingQueue.getStatistics().getFailedCount());
+        }
+    }
+
+    @Test
+    void flush_inputWriterThrowingError_expectedFlushFailedAndLaterMutationsWritten() {
+
+        try (WriteBehindQueue<String, String> failingQueue = new WriteBehindQueue<>("failing", 10,
+                LONG_INTERVAL_MILLIS, (queued, next) -> next, batch -> {
+            if (batch.contains("bad")) {
+                throw new AssertionError("bad mutation");
+            }
+            batches.add(new ArrayList<>(batch));
+        })) {
+            failingQueue.submit("a", "bad");
+
+            assertThatThrownBy(() -> failingQueue.flush().get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseInstanceOf(AssertionError.class);
+
+            failingQueue.submit("b", "+b");
+            failingQueue.flush().join();
+            assertEquals(Collections.singletonList(Collections.singletonList("+b")), batches);
+            assertEquals(1, failingQueue.getStatistics().getFailedCount());
+        }
+    }
+
+    @Test
+    void close_inputQueuedMutations_expectedMutationsWrittenAndSubmitRejected() {
+
+        queue.submit("a", "+a");
+
+        queue.close();
+
+        assertEquals(Collections.singletonList(Collections.singletonList("+a")), batches);
+        assertThatThrownBy(() -> queue.submit("b", "+b")).isInstanceOf(IllegalStateException.class);
+    }
+
+}
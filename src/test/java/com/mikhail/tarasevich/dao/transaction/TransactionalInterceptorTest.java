@@ -0,0 +1,76 @@
+package com.mikhail.tarasevich.dao.transaction;
+
+import com.google.inject.Provider;
+import com.mikhail.tarasevich.dao.TransactionManager;
+import com.mikhail.tarasevich.dao.exception.DataBaseSqlRuntimeException;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionalInterceptorTest {
+
+    private final TransactionalInterceptor transactionalInterceptor = new TransactionalInterceptor();
+    @Mock
+    private TransactionManager transactionManager;
+    @Mock
+    private MethodInvocation invocation;
+
+    @BeforeEach
+    void setUp() {
+        Provider<TransactionManager> provider = () -> transactionManager;
+        transactionalInterceptor.setTransactionManagerProvider(provider);
+    }
+
+    @Test
+    void invoke_inputNoActiveTransaction_expectedResultAndOneCommit() throws Throwable {
+
+        when(transactionManager.isActive()).thenReturn(false);
+        when(invocation.getMethod()).thenReturn(Object.class.getMethod("toString"));
+        when(invocation.proceed()).thenReturn("result");
+
+        assertEquals("result", transactionalInterceptor.invoke(invocation));
+
+        InOrder inOrder = inOrder(transactionManager, invocation);
+        inOrder.verify(transactionManager).begin();
+        inOrder.verify(invocation).proceed();
+        inOrder.verify(transactionManager).commit();
+        verify(transactionManager, never()).rollback();
+    }
+
+    @Test
+    void invoke_inputMethodThrowsException_expectedRollbackAndSameException() throws Throwable {
+
+        when(transactionManager.isActive()).thenReturn(false);
+        when(invocation.getMethod()).thenReturn(Object.class.getMethod("toString"));
+        when(invocation.proceed()).thenThrow(new DataBaseSqlRuntimeException());
+
+        assertThatThrownBy(() -> transactionalInterceptor.invoke(invocation))
+                .isInstanceOf(DataBaseSqlRuntimeException.class);
+
+        verify(transactionManager, times(1)).begin();
+        verify(transactionManager, times(1)).rollback();
+        verify(transactionManager, never()).commit();
+    }
+
+    @Test
+    void invoke_inputActiveTransaction_expectedOuterTransactionJoined() throws Throwable {
+
+        when(transactionManager.isActive()).thenReturn(true);
+        when(invocation.proceed()).thenReturn("result");
+
+        assertEquals("result", transactionalInterceptor.invoke(invocation));
+
+        verify(transactionManager, times(1)).isActive();
+        verifyNoMoreInteractions(transactionManager);
+    }
+
+}
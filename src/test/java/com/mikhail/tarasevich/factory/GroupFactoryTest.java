@@ -3,9 +3,13 @@ package com.mikhail.tarasevich.factory;
 import com.mikhail.tarasevich.entity.Group;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class GroupFactoryTest {
 
@@ -21,4 +25,32 @@ class GroupFactoryTest {
         assertEquals(expectedSize, groups.size());
     }
 
+    @Test
+    void generateGroups_inputSameSeed_expectedSameGroupNames() {
+
+        assertEquals(groupFactory.generateGroups(500, 3L), groupFactory.generateGroups(500, 3L));
+    }
+
+    @Test
+    void generateGroups_inputRangesOfPositions_expectedSameGroupsAsInWholeDataset() {
+
+        List<Group> groups = new ArrayList<>(groupFactory.generateGroups(0, 400, 3L));
+        groups.addAll(groupFactory.generateGroups(400, 500, 3L));
+
+        assertEquals(groupFactory.generateGroups(500, 3L), groups);
+    }
+
+    @Test
+    void generateGroups_inputMoreGroupsThanTwoLettersTwoDigitsNames_expectedUniqueNames() {
+
+        List<Group> groups = groupFactory.generateGroups(150_000, 11L);
+
+        Set<String> groupNames = groups.stream().map(Group::getGroupName).collect(Collectors.toSet());
+
+        assertEquals(150_000, groupNames.size());
+        assertTrue(groups.subList(0, 60_840).stream()
+                .allMatch(group -> group.getGroupName().matches("[a-z]{2}-[1-9][0-9]")));
+        assertTrue(groups.get(60_840).getGroupName().matches("[a-z]{2}-[1-9][0-9]-1"));
+    }
+
 }
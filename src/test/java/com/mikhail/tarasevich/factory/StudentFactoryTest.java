@@ -1,13 +1,20 @@
 package com.mikhail.tarasevich.factory;
 
 import com.mikhail.tarasevich.entity.Course;
+import com.mikhail.tarasevich.entity.Group;
 import com.mikhail.tarasevich.entity.Student;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -39,6 +46,14 @@ public class StudentFactoryTest {
             .withCourseName("Geography")
             .withDescription("Geography of North America")
             .build();
+    private static final Group group1 = Group.builder()
+            .withId(7)
+            .withGroupName("aa-11")
+            .build();
+    private static final Group group2 = Group.builder()
+            .withId(12)
+            .withGroupName("bb-22")
+            .build();
 
     @Test
     void generateStudents_inputStudentQuantity_expectedStudentList(){
@@ -48,7 +63,7 @@ public class StudentFactoryTest {
         courses.add(course2);
         courses.add(course3);
 
-        List<Student> students = studentFactory.generateStudents(2, 2, courses);
+        List<Student> students = studentFactory.generateStudents(2, Arrays.asList(group1, group2), courses);
 
         int expectedSize = 2;
 
@@ -59,4 +74,116 @@ public class StudentFactoryTest {
         assertEquals(expectedSize, students.size());
     }
 
+    @Test
+    void generateStudents_inputSavedGroups_expectedStudentsSpreadOverIdsOfTheseGroups(){
+
+        List<Course> courses = Arrays.asList(course1, course2, course3);
+
+        List<Student> students = studentFactory.generateStudents(4, Arrays.asList(group1, group2), courses);
+
+        assertEquals(4, students.size());
+        assertEquals(7, students.get(0).getGroupId());
+        assertEquals(7, students.get(1).getGroupId());
+        assertEquals(12, students.get(2).getGroupId());
+        assertEquals(12, students.get(3).getGroupId());
+        assertTrue(students.stream().allMatch(student -> student.getId() == 0));
+    }
+
+    @Test
+    void randomFor_inputAdjacentIndexes_expectedUncorrelatedDraws(){
+
+        int samples = 100_000;
+        int shiftedDraws = 0;
+        double sumX = 0, sumY = 0, sumXY = 0, sumXX = 0, sumYY = 0;
+        for (int index = 0; index < samples; index++) {
+            SplittableRandom current = StudentFactory.randomFor(42L, index, 0);
+            SplittableRandom next = StudentFactory.randomFor(42L, index + 1, 0);
+            double x = current.nextDouble();
+            double y = next.nextDouble();
+            if (current.nextDouble() == y) {
+                shiftedDraws++;
+            }
+            sumX += x;
+            sumY += y;
+            sumXY += x * y;
+            sumXX += x * x;
+            sumYY += y * y;
+        }
+        double correlation = (samples * sumXY - sumX * sumY) /
+                Math.sqrt((samples * sumXX - sumX * sumX) * (samples * sumYY - sumY * sumY));
+
+        assertEquals(0, shiftedDraws);
+        assertTrue(Math.abs(correlation) < 0.02);
+    }
+
+    @Test
+    void generateStudents_inputSameSeed_expectedSameStudents(){
+
+        List<Course> courses = Arrays.asList(course1, course2, course3);
+        List<Group> groups = Arrays.asList(group1, group2);
+
+        assertEquals(studentsWithCourses(studentFactory.generateStudents(1000, groups, courses, 42L)),
+                studentsWithCourses(studentFactory.generateStudents(1000, groups, courses, 42L)));
+    }
+
+    @Test
+    void generateStudents_inputRangeOfPositions_expectedSameStudentsAsInWholeDataset(){
+
+        List<Course> courses = Arrays.asList(course1, course2, course3);
+        List<Group> groups = Arrays.asList(group1, group2);
+
+        assertEquals(studentsWithCourses(studentFactory.generateStudents(50, groups, courses, 42L).subList(20, 30)),
+                studentsWithCourses(studentFactory.generateStudents(20, 30, 50, groups, courses, 42L)));
+    }
+
+    @Test
+    void generateStudents_inputSameSeedDifferentNumberOfThreads_expectedSameStudents() throws Exception {
+
+        List<Course> courses = Arrays.asList(course1, course2, course3);
+        List<Group> groups = Arrays.asList(group1, group2);
+        ForkJoinPool singleThreadPool = new ForkJoinPool(1);
+        ForkJoinPool fourThreadsPool = new ForkJoinPool(4);
+
+        try {
+            List<Student> studentsOfOneThread = singleThreadPool
+                    .submit(() -> studentFactory.generateStudents(5000, groups, courses, 7L)).get();
+            List<Student> studentsOfFourThreads = fourThreadsPool
+                    .submit(() -> studentFactory.generateStudents(5000, groups, courses, 7L)).get();
+
+            assertEquals(studentsWithCourses(studentsOfOneThread), studentsWithCourses(studentsOfFourThreads));
+        } finally {
+            singleThreadPool.shutdown();
+            fourThreadsPool.shutdown();
+        }
+    }
+
+    @Test
+    void generateStudents_inputManyStudents_expectedUniqueStudentsWithThreeDifferentCourses(){
+
+        List<Course> courses = Arrays.asList(course1, course2, course3);
+
+        List<Student> students = studentFactory.generateStudents(10_000, Arrays.asList(group1, group2), courses, 1L);
+
+        assertEquals(10_000, new HashSet<>(studentsWithCourses(students)).size());
+        assertTrue(students.stream().allMatch(student -> new HashSet<>(student.getCoursesList()).size() == 3));
+    }
+
+    @Test
+    void generateStudents_inputMoreStudentsThanUniqueCombinations_expectedException(){
+
+        List<Course> courses = Collections.singletonList(course1);
+        int uniqueCombinations = FIRST_NAMES.length * LAST_NAMES.length;
+
+        assertThatThrownBy(() -> studentFactory.generateStudents(uniqueCombinations + 1,
+                Collections.singletonList(group1), courses, 1L)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Student equals doesn't compare the courses, so they are compared as a part of these lists
+    private static List<List<Object>> studentsWithCourses(List<Student> students) {
+        return students.stream()
+                .map(student -> Arrays.<Object>asList(student.getFirstName(), student.getLastName(),
+                        student.getGroupId(), student.getCoursesList()))
+                .collect(Collectors.toList());
+    }
+
 }
@@ -0,0 +1,94 @@
+package com.mikhail.tarasevich.uploader;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeedingPipelineTest {
+
+    private final SeedingPipeline<Integer> pipeline = new SeedingPipeline<>("numbers", 3, 2);
+
+    @Test
+    void run_inputQuantityNotDivisibleByChunkSize_expectedAllRowsWrittenOnce() {
+
+        List<Integer> writtenRows = Collections.synchronizedList(new ArrayList<>());
+        Set<String> writerThreads = ConcurrentHashMap.newKeySet();
+
+        StageStatistics statistics = pipeline.run(10_005, 100, SeedingPipelineTest::numbers, chunk -> {
+            writerThreads.add(Thread.currentThread().getName());
+            writtenRows.addAll(chunk);
+        });
+
+        assertEquals(IntStream.range(0, 10_005).boxed().collect(Collectors.toList()),
+                writtenRows.stream().sorted().collect(Collectors.toList()));
+        assertFalse(writerThreads.contains(Thread.currentThread().getName()));
+        assertEquals("numbers", statistics.getStageName());
+        assertEquals(10_005, statistics.getRowCount());
+    }
+
+    @Test
+    void run_inputZeroQuantity_expectedNothingGeneratedAndWritten() {
+
+        AtomicInteger calls = new AtomicInteger();
+
+        StageStatistics statistics = pipeline.run(0, 100, (fromIndex, toIndex) -> {
+            calls.incrementAndGet();
+            return numbers(fromIndex, toIndex);
+        }, chunk -> calls.incrementAndGet());
+
+        assertEquals(0, calls.get());
+        assertEquals(0, statistics.getRowCount());
+    }
+
+    @Test
+    void run_inputFailingWriter_expectedExceptionRethrownAndGenerationStopped() {
+
+        AtomicInteger generatedChunks = new AtomicInteger();
+
+        assertThatThrownBy(() -> pipeline.run(1_000_000, 10, (fromIndex, toIndex) -> {
+            generatedChunks.incrementAndGet();
+            return numbers(fromIndex, toIndex);
+        }, chunk -> {
+            throw new IllegalStateException("write failed");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("write failed");
+        assertTrue(generatedChunks.get() < 100_000);
+    }
+
+    @Test
+    void run_inputWriterThrowingError_expectedErrorRethrownAsCauseAndGenerationStopped() {
+
+        AtomicInteger generatedChunks = new AtomicInteger();
+
+        assertThatThrownBy(() -> pipeline.run(1_000_000, 10, (fromIndex, toIndex) -> {
+            generatedChunks.incrementAndGet();
+            return numbers(fromIndex, toIndex);
+        }, chunk -> {
+            throw new OutOfMemoryError("write failed");
+        })).isInstanceOf(IllegalStateException.class).hasCauseInstanceOf(OutOfMemoryError.class);
+        assertTrue(generatedChunks.get() < 100_000);
+    }
+
+    @Test
+    void run_inputFailingGenerator_expectedExceptionRethrown() {
+
+        assertThatThrownBy(() -> pipeline.run(100, 10, (fromIndex, toIndex) -> {
+            throw new IllegalArgumentException("generation failed");
+        }, chunk -> {
+        })).isInstanceOf(IllegalArgumentException.class).hasMessage("generation failed");
+    }
+
+    private static List<Integer> numbers(int fromIndex, int toIndex) {
+        return IntStream.range(fromIndex, toIndex).boxed().collect(Collectors.toList());
+    }
+
+}